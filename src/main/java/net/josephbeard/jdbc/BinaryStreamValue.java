@@ -0,0 +1,34 @@
+package net.josephbeard.jdbc;
+
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A binary stream {@link ParameterValue} of known length. The
+ * {@link InputStream} is consumed by the driver when the statement is executed,
+ * so the value may only be applied once.
+ */
+final class BinaryStreamValue implements ParameterValue {
+
+    private final InputStream stream;
+
+    private final long length;
+
+    BinaryStreamValue(InputStream stream, long length) {
+        assert stream != null : "stream is null!";
+        assert length >= 0L : "length is negative!";
+        this.stream = stream;
+        this.length = length;
+    }
+
+    @Override
+    public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+        statement.setBinaryStream(parameterIndex, stream, length);
+    }
+
+    @Override
+    public String toString() {
+        return "(InputStream)" + length + " bytes";
+    }
+}
@@ -0,0 +1,34 @@
+package net.josephbeard.jdbc;
+
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A character stream {@link ParameterValue} of known length. The
+ * {@link Reader} is consumed by the driver when the statement is executed, so
+ * the value may only be applied once.
+ */
+final class CharacterStreamValue implements ParameterValue {
+
+    private final Reader reader;
+
+    private final long length;
+
+    CharacterStreamValue(Reader reader, long length) {
+        assert reader != null : "reader is null!";
+        assert length >= 0L : "length is negative!";
+        this.reader = reader;
+        this.length = length;
+    }
+
+    @Override
+    public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+        statement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public String toString() {
+        return "(Reader)" + length + " characters";
+    }
+}
@@ -0,0 +1,280 @@
+package net.josephbeard.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A point in time by which database work must finish. While a deadline is in
+ * scope on a thread, every {@link JdbcTemplate} operation on that thread:
+ * <ul>
+ * <li>fails with a {@link SQLTimeoutException}, without touching the database,
+ * once the deadline has passed (checked before and after acquiring a
+ * connection, and before preparing and executing);</li>
+ * <li>sets {@link Statement#setQueryTimeout(int)} to the remaining time,
+ * rounded up to whole seconds, so the driver or server enforces it too;
+ * and</li>
+ * <li>{@link Statement#cancel() cancels} an executing statement once the
+ * deadline passes, from a shared timer thread, so the cancellation is only as
+ * prompt as that thread is.</li>
+ * </ul>
+ * For example:
+ *
+ * <pre>
+ * List&lt;Order&gt; orders = Deadline.after(Duration.ofMillis(250))
+ *         .call(() -&gt; jdbcTemplate.select("SELECT * FROM orders WHERE customer_id = ?", orderMapper, id));
+ * </pre>
+ *
+ * Deadlines nest: entering a later deadline within an earlier one keeps the
+ * earlier one. Waiting for a pooled connection can only be checked, not
+ * interrupted, so set the pool's own timeout no higher than the deadlines in
+ * use. Likewise an interrupt is only noticed before each step: a statement that
+ * is already executing runs until it completes or the deadline cancels it.
+ */
+public final class Deadline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Deadline.class);
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-deadline-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most statements finish in time, so discard their cancellations at once
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Return a deadline the {@code timeout} from now.
+     *
+     * @param timeout
+     *            the time allowed
+     * @return the deadline
+     */
+    public static Deadline after(Duration timeout) {
+        Validate.notNull(timeout, "The timeout must not be null");
+        Validate.isTrue(!timeout.isNegative(), "The timeout must not be negative");
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Return the deadline in scope on the current thread.
+     *
+     * @return the deadline, or {@link Optional#empty()} if there is none
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0L, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0L;
+    }
+
+    /**
+     * Put this deadline in scope on the current thread until the returned
+     * {@link Scope} is closed. If an earlier deadline is already in scope, it
+     * remains in effect.
+     *
+     * @return the scope, to be closed with try-with-resources
+     */
+    public Scope enter() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(previous != null && previous.deadlineNanos - deadlineNanos <= 0L ? previous : this);
+        return new Scope(previous);
+    }
+
+    /**
+     * Call the {@code callable} with this deadline in scope.
+     *
+     * @param callable
+     *            the database work
+     * @param <T>
+     *            the type of the result
+     * @return the result of the {@code callable}
+     * @throws SQLTimeoutException
+     *             if the deadline passes
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> T call(JdbcCallable<T> callable) throws SQLException {
+        Validate.notNull(callable, "The callable must not be null");
+        Scope scope = enter();
+        try {
+            return callable.call();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Run the {@code runnable} with this deadline in scope.
+     *
+     * @param runnable
+     *            the database work
+     * @throws SQLTimeoutException
+     *             if the deadline passes
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public void run(JdbcRunnable runnable) throws SQLException {
+        Validate.notNull(runnable, "The runnable must not be null");
+        Scope scope = enter();
+        try {
+            runnable.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Fail if the deadline has passed or the thread has been interrupted.
+     *
+     * @param operation
+     *            what was about to be done, for the message
+     * @throws SQLTimeoutException
+     *             if the deadline has passed
+     * @throws SQLException
+     *             if the thread has been interrupted
+     */
+    void check(String operation) throws SQLException {
+        long remaining = remainingNanos();
+        if (remaining <= 0L) {
+            throw new SQLTimeoutException(
+                    "Deadline exceeded by " + TimeUnit.NANOSECONDS.toMillis(-remaining) + "ms before " + operation);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new SQLException("Interrupted before " + operation);
+        }
+    }
+
+    /**
+     * Check the deadline in scope on the current thread, if any.
+     *
+     * @see #check(String)
+     */
+    static void checkCurrent(String operation) throws SQLException {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check(operation);
+        }
+    }
+
+    /**
+     * Set the query timeout of the {@link Statement} to the time remaining before
+     * the deadline in scope on the current thread, if any, rounded up to whole
+     * seconds.
+     */
+    static void applyTimeout(Statement statement) throws SQLException {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check("preparing a statement");
+            long seconds = (deadline.remainingNanos() + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+            statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1L, seconds)));
+        }
+    }
+
+    /**
+     * Schedule the {@link Statement} to be cancelled at the deadline in scope on
+     * the current thread, if any. The returned cancellation must be
+     * {@link #disarm(ScheduledFuture) disarmed} once the statement completes.
+     *
+     * @return the scheduled cancellation, or {@code null} if there is no deadline
+     */
+    static ScheduledFuture<?> arm(Statement statement) throws SQLException {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return null;
+        }
+        deadline.check("executing a statement");
+        return TIMER.schedule(() -> cancel(statement), deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    static void disarm(ScheduledFuture<?> cancellation) {
+        if (cancellation != null) {
+            cancellation.cancel(false);
+        }
+    }
+
+    private static void cancel(Statement statement) {
+        try {
+            if (!statement.isClosed()) {
+                LOGGER.debug("Cancelling statement at its deadline");
+                statement.cancel();
+            }
+        } catch (SQLException e) {
+            LOGGER.debug("Unable to cancel statement", e);
+        }
+    }
+
+    /**
+     * Translate a failure of a statement, which may have been caused by its
+     * cancellation at the deadline in scope on the current thread, into a
+     * {@link SQLTimeoutException}.
+     */
+    static SQLException translate(SQLException e) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired() && !(e instanceof SQLTimeoutException)) {
+            return new SQLTimeoutException("Deadline exceeded: " + e.getMessage(), e.getSQLState(),
+                    e.getErrorCode(), e);
+        }
+        return e;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{" + "remaining=" + remaining() + '}';
+    }
+
+    /**
+     * The scope of a {@link Deadline} on a thread, which restores the previous
+     * deadline when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package net.josephbeard.jdbc;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * An {@code int[]} {@link Array} {@link ParameterValue}. The elements are only
+ * boxed when the value is applied to a statement.
+ */
+final class IntArrayValue implements ParameterValue {
+
+    /**
+     * The SQL type name of the array elements.
+     */
+    static final String TYPE_NAME = "integer";
+
+    private final int[] elements;
+
+    IntArrayValue(int[] elements) {
+        assert elements != null : "elements is null!";
+        this.elements = elements;
+    }
+
+    @Override
+    public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+        Integer[] boxed = new Integer[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            boxed[i] = elements[i];
+        }
+
+        Array array = statement.getConnection().createArrayOf(TYPE_NAME, boxed);
+        statement.setArray(parameterIndex, array);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        IntArrayValue that = (IntArrayValue) o;
+
+        return Arrays.equals(elements, that.elements);
+
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements);
+    }
+
+    @Override
+    public String toString() {
+        return "(int[])" + Arrays.toString(elements);
+    }
+}
@@ -1,5 +1,7 @@
 package net.josephbeard.jdbc;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.Instant;
@@ -12,12 +14,12 @@ import org.apache.commons.lang3.Validate;
 public abstract class JDBC {
 
     public static ParameterValue nullValue(int sqlType) {
-        return new NullValue(sqlType);
+        return NullValue.valueOf(sqlType);
     }
 
     public static ParameterValue bit(Boolean value) {
         if (value == null) {
-            return new NullValue(Types.BIT);
+            return NullValue.valueOf(Types.BIT);
         }
         return BooleanValue.valueOf(value);
     }
@@ -28,7 +30,7 @@ public abstract class JDBC {
 
     public static ParameterValue string(CharSequence value) {
         if (value == null) {
-            return new NullValue(Types.VARCHAR);
+            return NullValue.valueOf(Types.VARCHAR);
         }
         return new StringValue(value.toString());
     }
@@ -39,7 +41,7 @@ public abstract class JDBC {
 
     public static ParameterValue shortInt(Number value) {
         if (value == null) {
-            return new NullValue(Types.SMALLINT);
+            return NullValue.valueOf(Types.SMALLINT);
         }
         return new ShortValue(value);
     }
@@ -50,7 +52,7 @@ public abstract class JDBC {
 
     public static ParameterValue integer(Number value) {
         if (value == null) {
-            return new NullValue(Types.INTEGER);
+            return NullValue.valueOf(Types.INTEGER);
         }
         return new IntegerValue(value);
     }
@@ -61,7 +63,7 @@ public abstract class JDBC {
 
     public static ParameterValue longInt(Number value) {
         if (value == null) {
-            return new NullValue(Types.BIGINT);
+            return NullValue.valueOf(Types.BIGINT);
         }
         return new LongValue(value);
     }
@@ -72,7 +74,7 @@ public abstract class JDBC {
 
     public static ParameterValue doubleValue(Number value) {
         if (value == null) {
-            return new NullValue(Types.DOUBLE);
+            return NullValue.valueOf(Types.DOUBLE);
         }
         return new DoubleValue(value);
     }
@@ -83,48 +85,131 @@ public abstract class JDBC {
         return new ArrayValue(typeName, elements);
     }
 
+    public static ParameterValue intArray(int... elements) {
+        if (elements == null) {
+            return NullValue.valueOf(Types.ARRAY);
+        }
+        return new IntArrayValue(elements);
+    }
+
+    public static ParameterValue longArray(long... elements) {
+        if (elements == null) {
+            return NullValue.valueOf(Types.ARRAY);
+        }
+        return new LongArrayValue(elements);
+    }
+
+    public static ParameterValue stringArray(String... elements) {
+        if (elements == null) {
+            return NullValue.valueOf(Types.ARRAY);
+        }
+        return new ArrayValue("varchar", elements);
+    }
+
     public static ParameterValue bytes(byte... elements) {
         if (elements == null) {
-            return new NullValue(Types.BINARY);
+            return NullValue.valueOf(Types.BINARY);
         }
         return new BytesValue(elements);
     }
 
+    /**
+     * Return a {@link ParameterValue} that streams {@code length} characters from
+     * the {@link Reader} when the statement is executed, rather than holding the
+     * whole value in memory. The value may only be applied once.
+     * <p>
+     * Whether memory stays constant is up to the driver: the PostgreSQL driver
+     * (42.1.x) reads the whole {@link Reader} into a {@link String} when the
+     * parameter is set.
+     *
+     * @param reader
+     *            the reader, which is not closed
+     * @param length
+     *            the number of characters in the reader
+     * @return the parameter value
+     */
+    public static ParameterValue characterStream(Reader reader, long length) {
+        if (reader == null) {
+            return NullValue.valueOf(Types.LONGVARCHAR);
+        }
+        Validate.isTrue(length >= 0L, "The length must not be negative");
+        return new CharacterStreamValue(reader, length);
+    }
+
+    /**
+     * Return a {@link ParameterValue} that streams {@code length} bytes from the
+     * {@link InputStream} when the statement is executed, rather than holding the
+     * whole value in memory. The value may only be applied once.
+     * <p>
+     * Whether memory stays constant is up to the driver; the PostgreSQL driver
+     * (42.1.x) does stream a binary parameter of known length.
+     *
+     * @param stream
+     *            the stream, which is not closed
+     * @param length
+     *            the number of bytes in the stream
+     * @return the parameter value
+     */
+    public static ParameterValue binaryStream(InputStream stream, long length) {
+        if (stream == null) {
+            return NullValue.valueOf(Types.LONGVARBINARY);
+        }
+        Validate.isTrue(length >= 0L, "The length must not be negative");
+        return new BinaryStreamValue(stream, length);
+    }
+
     public static ParameterValue date(java.sql.Date value) {
         if (value == null) {
-            return new NullValue(Types.DATE);
+            return NullValue.valueOf(Types.DATE);
         }
         return new DateValue(value);
     }
 
     public static ParameterValue date(java.util.Date value) {
         if (value == null) {
-            return new NullValue(Types.DATE);
+            return NullValue.valueOf(Types.DATE);
         }
         return new DateValue(new java.sql.Date(value.getTime()));
     }
 
     public static ParameterValue time(java.sql.Time value) {
         if (value == null) {
-            return new NullValue(Types.TIME);
+            return NullValue.valueOf(Types.TIME);
         }
         return new TimeValue(value);
     }
 
     public static ParameterValue timestamp(Instant value) {
         if (value == null) {
-            return new NullValue(Types.TIMESTAMP_WITH_TIMEZONE);
+            return NullValue.valueOf(Types.TIMESTAMP_WITH_TIMEZONE);
         }
         return new TimestampValue(Timestamp.from(value));
     }
 
     public static ParameterValue object(Object value) {
         if (value == null) {
-            return new NullValue(Types.JAVA_OBJECT);
+            return NullValue.valueOf(Types.JAVA_OBJECT);
         }
         return new ObjectValue(value);
     }
 
+    /**
+     * Return a {@link ParameterValue} that binds the {@code value} as the
+     * {@code sqlType}, letting the driver convert it.
+     *
+     * @param value
+     *            the value
+     * @param sqlType
+     *            the type from {@link Types}
+     * @return the parameter value
+     */
+    public static ParameterValue object(Object value, int sqlType) {
+        if (value == null) {
+            return NullValue.valueOf(sqlType);
+        }
+        return new TypedObjectValue(value, sqlType);
+    }
+
     private JDBC() {
         assert false : "SQL should not be instantiated";
     }
@@ -0,0 +1,26 @@
+/**
+ * 
+ */
+package net.josephbeard.jdbc;
+
+import java.sql.SQLException;
+
+/**
+ * A callable that can throw a {@link SQLException}.
+ *
+ * @param <T>
+ *            the type of the result
+ */
+@FunctionalInterface
+public interface JdbcCallable<T> {
+
+    /**
+     * Execute this {@link JdbcCallable}.
+     *
+     * @return the result
+     * @throws SQLException
+     *             if an error occurs
+     */
+    T call() throws SQLException;
+
+}
@@ -6,9 +6,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -57,7 +61,9 @@ public class JdbcTemplate {
     public <T> T withConnection(ConnectionCallback<T> callback) throws SQLException {
         Validate.notNull(callback, "The callback must not be null");
 
+        Deadline.checkCurrent("acquiring a connection");
         try (Connection connection = connectionProvider.getConnection()) {
+            Deadline.checkCurrent("using a connection");
             return callback.execute(connection);
         }
     }
@@ -585,6 +591,398 @@ public class JdbcTemplate {
         return executeUpdate(connection, sql, params);
     }
 
+    /**
+     * Execute an INSERT {@code sql} statement with the specified {@code params}
+     * and return the generated keys mapped by the {@link RowMapper}, without a
+     * separate query.
+     *
+     * @param sql
+     *            the sql statement
+     * @param keyColumns
+     *            the names of the key columns to return, or {@code null} for the
+     *            keys chosen by the driver
+     * @param keyMapper
+     *            the callback for mapping the generated key rows
+     * @param params
+     *            the parameters to the {@code sql} statement (optional)
+     * @param <T>
+     *            the type of result of the {@code keyMapper} callback
+     * @return the mapped generated keys
+     * @throws SQLException
+     *             if an error occurs
+     * @see Statement#RETURN_GENERATED_KEYS
+     */
+    public <T> List<T> insert(String sql, String[] keyColumns, RowMapper<T> keyMapper, ParameterValue... params)
+            throws SQLException {
+        return withConnection(connection -> insert(connection, sql, keyColumns, keyMapper, params));
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement with the specified {@code params}
+     * and return the generated keys mapped by the {@link RowMapper}, without a
+     * separate query.
+     *
+     * @param sql
+     *            the sql statement
+     * @param keyColumns
+     *            the names of the key columns to return, or {@code null} for the
+     *            keys chosen by the driver
+     * @param keyMapper
+     *            the callback for mapping the generated key rows
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @param <T>
+     *            the type of result of the {@code keyMapper} callback
+     * @return the mapped generated keys
+     * @throws SQLException
+     *             if an error occurs
+     * @see Statement#RETURN_GENERATED_KEYS
+     */
+    public <T> List<T> insert(String sql, String[] keyColumns, RowMapper<T> keyMapper, List<ParameterValue> params)
+            throws SQLException {
+        return withConnection(connection -> insert(connection, sql, keyColumns, keyMapper, params));
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement on the {@link Connection} with the
+     * specified {@code params} and return the generated keys mapped by the
+     * {@link RowMapper}, without a separate query.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param keyColumns
+     *            the names of the key columns to return, or {@code null} for the
+     *            keys chosen by the driver
+     * @param keyMapper
+     *            the callback for mapping the generated key rows
+     * @param params
+     *            the parameters to the {@code sql} statement (optional)
+     * @param <T>
+     *            the type of result of the {@code keyMapper} callback
+     * @return the mapped generated keys
+     * @throws SQLException
+     *             if an error occurs
+     * @see Statement#RETURN_GENERATED_KEYS
+     */
+    public <T> List<T> insert(Connection connection, String sql, String[] keyColumns, RowMapper<T> keyMapper,
+            ParameterValue... params) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(keyMapper, "The keyMapper must not be null");
+
+        try (PreparedStatement st = prepareForKeys(connection, sql, keyColumns)) {
+            applyParameters(st, params);
+            executeUpdate(st);
+
+            try (ResultSet keys = st.getGeneratedKeys()) {
+                return ResultSets.mapRows(keys, keyMapper);
+            }
+        }
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement on the {@link Connection} with the
+     * specified {@code params} and return the generated keys mapped by the
+     * {@link RowMapper}, without a separate query.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param keyColumns
+     *            the names of the key columns to return, or {@code null} for the
+     *            keys chosen by the driver
+     * @param keyMapper
+     *            the callback for mapping the generated key rows
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @param <T>
+     *            the type of result of the {@code keyMapper} callback
+     * @return the mapped generated keys
+     * @throws SQLException
+     *             if an error occurs
+     * @see Statement#RETURN_GENERATED_KEYS
+     */
+    public <T> List<T> insert(Connection connection, String sql, String[] keyColumns, RowMapper<T> keyMapper,
+            List<ParameterValue> params) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(keyMapper, "The keyMapper must not be null");
+
+        try (PreparedStatement st = prepareForKeys(connection, sql, keyColumns)) {
+            applyParameters(st, params);
+            executeUpdate(st);
+
+            try (ResultSet keys = st.getGeneratedKeys()) {
+                return ResultSets.mapRows(keys, keyMapper);
+            }
+        }
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement as a single batch, once for each of
+     * the {@code rows} of parameters, and return the generated keys of every row
+     * mapped by the {@link RowMapper}.
+     *
+     * @param sql
+     *            the sql statement
+     * @param keyColumns
+     *            the names of the key columns to return, or {@code null} for the
+     *            keys chosen by the driver
+     * @param keyMapper
+     *            the callback for mapping the generated key rows
+     * @param rows
+     *            the parameters of each row
+     * @param <T>
+     *            the type of result of the {@code keyMapper} callback
+     * @return the mapped generated keys, in the order of the {@code rows}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> List<T> insertBatch(String sql, String[] keyColumns, RowMapper<T> keyMapper,
+            List<? extends List<ParameterValue>> rows) throws SQLException {
+        return withConnection(connection -> insertBatch(connection, sql, keyColumns, keyMapper, rows));
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement as a single batch, once for each of
+     * the {@code rows} of parameters, and return the generated keys of every row
+     * mapped by the {@link RowMapper}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param keyColumns
+     *            the names of the key columns to return, or {@code null} for the
+     *            keys chosen by the driver
+     * @param keyMapper
+     *            the callback for mapping the generated key rows
+     * @param rows
+     *            the parameters of each row
+     * @param <T>
+     *            the type of result of the {@code keyMapper} callback
+     * @return the mapped generated keys, in the order of the {@code rows}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> List<T> insertBatch(Connection connection, String sql, String[] keyColumns, RowMapper<T> keyMapper,
+            List<? extends List<ParameterValue>> rows) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(keyMapper, "The keyMapper must not be null");
+        Validate.notNull(rows, "The rows must not be null");
+
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try (PreparedStatement st = prepareForKeys(connection, sql, keyColumns)) {
+            executeBatch(st, rows);
+
+            try (ResultSet keys = st.getGeneratedKeys()) {
+                return ResultSets.mapRows(keys, keyMapper);
+            }
+        }
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement as a single batch, once for each of
+     * the {@code rows} of parameters, and return the numeric generated key of
+     * every row without boxing.
+     *
+     * @param sql
+     *            the sql statement
+     * @param keyColumn
+     *            the name of the numeric key column
+     * @param rows
+     *            the parameters of each row
+     * @return the generated keys, in the order of the {@code rows}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public long[] insertBatchForLongKeys(String sql, String keyColumn, List<? extends List<ParameterValue>> rows)
+            throws SQLException {
+        return withConnection(connection -> insertBatchForLongKeys(connection, sql, keyColumn, rows));
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement as a single batch, once for each of
+     * the {@code rows} of parameters, and return the numeric generated key of
+     * every row without boxing.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param keyColumn
+     *            the name of the numeric key column
+     * @param rows
+     *            the parameters of each row
+     * @return the generated keys, in the order of the {@code rows}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public long[] insertBatchForLongKeys(Connection connection, String sql, String keyColumn,
+            List<? extends List<ParameterValue>> rows) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notBlank(keyColumn, "The keyColumn must not be blank");
+        Validate.notNull(rows, "The rows must not be null");
+
+        if (rows.isEmpty()) {
+            return new long[0];
+        }
+
+        try (PreparedStatement st = prepareForKeys(connection, sql, new String[] { keyColumn })) {
+            executeBatch(st, rows);
+
+            long[] keys = new long[rows.size()];
+            int count = 0;
+            try (ResultSet resultSet = st.getGeneratedKeys()) {
+                while (resultSet.next()) {
+                    if (count == keys.length) {
+                        keys = Arrays.copyOf(keys, keys.length * 2);
+                    }
+                    keys[count++] = resultSet.getLong(1);
+                }
+            }
+            return count == keys.length ? keys : Arrays.copyOf(keys, count);
+        }
+    }
+
+    private PreparedStatement prepareForKeys(Connection connection, String sql, String[] keyColumns)
+            throws SQLException {
+        assert connection != null : "connection is null!";
+        assert sql != null : "sql is null!";
+
+        Deadline.checkCurrent("preparing a statement");
+        PreparedStatement statement = keyColumns == null
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql, keyColumns);
+        LOGGER.debug("Prepared statement returning keys for {}", sql);
+
+        try {
+            Deadline.applyTimeout(statement);
+        } catch (Throwable t) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                t.addSuppressed(ex);
+            }
+
+            throw t;
+        }
+        return statement;
+    }
+
+    /**
+     * Execute a {@code sql} update statement as a single batch, once for each of
+     * the {@code rows} of parameters.
+     *
+     * @param sql
+     *            the sql statement
+     * @param rows
+     *            the parameters of each row
+     * @return the number of rows affected by each row of parameters, as reported
+     *         by {@link Statement#executeBatch()}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int[] updateBatch(String sql, List<? extends List<ParameterValue>> rows) throws SQLException {
+        return withConnection(connection -> updateBatch(connection, sql, rows));
+    }
+
+    /**
+     * Execute a {@code sql} update statement as a single batch, once for each of
+     * the {@code rows} of parameters.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param rows
+     *            the parameters of each row
+     * @return the number of rows affected by each row of parameters, as reported
+     *         by {@link Statement#executeBatch()}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int[] updateBatch(Connection connection, String sql, List<? extends List<ParameterValue>> rows)
+            throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rows, "The rows must not be null");
+
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+
+        Deadline.checkCurrent("preparing a statement");
+        try (PreparedStatement st = connection.prepareStatement(sql)) {
+            LOGGER.debug("Prepared statement for {}", sql);
+            Deadline.applyTimeout(st);
+            return executeBatch(st, rows);
+        }
+    }
+
+    private int[] executeBatch(PreparedStatement statement, List<? extends List<ParameterValue>> rows)
+            throws SQLException {
+        assert statement != null : "statement is null!";
+        assert rows != null : "rows is null!";
+
+        for (List<ParameterValue> row : rows) {
+            applyParameters(statement, row);
+            statement.addBatch();
+        }
+        ScheduledFuture<?> cancellation = Deadline.arm(statement);
+        int[] counts;
+        try {
+            counts = statement.executeBatch();
+        } catch (SQLException e) {
+            throw Deadline.translate(e);
+        } finally {
+            Deadline.disarm(cancellation);
+        }
+        LOGGER.debug("Executed batch of {} rows", rows.size());
+        return counts;
+    }
+
+    /**
+     * Execute a {@link PreparedStatement} for an update (that is, it returns an
+     * update count), cancelling it at the {@link Deadline} in scope, if any.
+     *
+     * @param statement
+     *            the statement to execute
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int executeUpdate(PreparedStatement statement) throws SQLException {
+        Validate.notNull(statement, "The statement must not be null");
+
+        ScheduledFuture<?> cancellation = Deadline.arm(statement);
+        try {
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw Deadline.translate(e);
+        } finally {
+            Deadline.disarm(cancellation);
+        }
+    }
+
     /**
      * Execute a {@code sql} update statement on the {@link Connection} with the
      * specified {@code params}.
@@ -669,12 +1067,301 @@ public class JdbcTemplate {
         return executeUpdate(connection, sql, params);
     }
 
+    /**
+     * Execute the {@code sql} update statement with the parameters in the
+     * {@link ParameterBuffer}.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int update(String sql, ParameterBuffer params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        return withConnection(connection -> update(connection, sql, params));
+    }
+
+    /**
+     * Execute the {@code sql} update statement on the {@link Connection} with the
+     * parameters in the {@link ParameterBuffer}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            the connection on which to execute the statement
+     * @param sql
+     *            the SQL statement
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int update(Connection connection, String sql, ParameterBuffer params) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+
+        try (PreparedStatement st = prepareStatement(connection, sql, params)) {
+            return executeUpdate(st);
+        }
+    }
+
+    /**
+     * Execute the {@code sql} query on the {@link Connection} with the parameters
+     * in the {@link ParameterBuffer} and return the result of the
+     * {@link ResultSetHandler}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            the connection on which to execute the query
+     * @param sql
+     *            the SQL statement
+     * @param resultSetHandler
+     *            the callback to handle the query {@link ResultSet}
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code resultSetHandler} callback
+     * @return the result of the {@code resultSetHandler} callback
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> T select(Connection connection, String sql, ResultSetHandler<T> resultSetHandler,
+            ParameterBuffer params) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(resultSetHandler, "The resultSetHandler must not be null");
+
+        try (PreparedStatement st = prepareStatement(connection, sql, params)) {
+            return query(st, resultSetHandler);
+        }
+    }
+
+    /**
+     * Execute the {@code sql} query with the parameters in the
+     * {@link ParameterBuffer} and return the result of the
+     * {@link ResultSetHandler}.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param resultSetHandler
+     *            the callback for handling the query {@link ResultSet}
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code resultSetHandler} callback
+     * @return the result of the {@code resultSetHandler} callback
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> T select(String sql, ResultSetHandler<T> resultSetHandler, ParameterBuffer params)
+            throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(resultSetHandler, "The resultSetHandler must not be null");
+
+        return withConnection(connection -> select(connection, sql, resultSetHandler, params));
+    }
+
+    /**
+     * Execute the {@code sql} query with the parameters in the
+     * {@link ParameterBuffer} and return the results of the {@link RowMapper}.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query {@link ResultSet} rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return list of results from the {@code rowMapper} callback
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> List<T> select(String sql, RowMapper<T> rowMapper, ParameterBuffer params) throws SQLException {
+        return withConnection(connection -> select(connection, sql, rowMapper, params));
+    }
+
+    /**
+     * Execute the {@code sql} query on the {@link Connection} with the parameters
+     * in the {@link ParameterBuffer} and return the results of the
+     * {@link RowMapper}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            the connection on which to execute the query
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query {@link ResultSet} rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return list of results from the {@code rowMapper} callback
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> List<T> select(Connection connection, String sql, RowMapper<T> rowMapper, ParameterBuffer params)
+            throws SQLException {
+        return select(connection, sql, new RowMapperResultSetHandler<>(rowMapper), params);
+    }
+
+    /**
+     * Execute the {@code sql} query with the parameters in the
+     * {@link ParameterBuffer} and return the result of the {@link RowMapper}. The
+     * {@code sql} query is expected to return, at most, one row.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query {@link ResultSet} row
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return optional of the mapped value of the {@link ResultSet} row, or
+     *         {@link Optional#empty()} if the query returned no results
+     * @throws SQLException
+     *             if an error occurs or more than one row was returned
+     */
+    public <T> Optional<T> selectOne(String sql, RowMapper<T> rowMapper, ParameterBuffer params) throws SQLException {
+        return withConnection(connection -> selectOne(connection, sql, rowMapper, params));
+    }
+
+    /**
+     * Execute the {@code sql} query on the {@link Connection} with the parameters
+     * in the {@link ParameterBuffer} and return the result of the
+     * {@link RowMapper}. The {@code sql} query is expected to return, at most,
+     * one row.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            the connection on which to execute the query
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query {@link ResultSet} row
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return optional of the mapped value of the {@link ResultSet} row, or
+     *         {@link Optional#empty()} if the query returned no results
+     * @throws SQLException
+     *             if an error occurs or more than one row was returned
+     */
+    public <T> Optional<T> selectOne(Connection connection, String sql, RowMapper<T> rowMapper,
+            ParameterBuffer params) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        try (PreparedStatement st = prepareStatement(connection, sql, params)) {
+            return queryForOne(st, rowMapper);
+        }
+    }
+
+    /**
+     * Execute the {@code sql} query with the parameters in the
+     * {@link ParameterBuffer} and {@link RowConsumer#consumeRow(ResultSet, long)
+     * consume} each row in the {@link ResultSet}.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param consumer
+     *            the callback for consuming the {@link ResultSet} rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public void forEach(String sql, RowConsumer consumer, ParameterBuffer params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(consumer, "The consumer must not be null");
+
+        withConnection(connection -> {
+            forEach(connection, sql, consumer, params);
+            return null;
+        });
+    }
+
+    /**
+     * Execute the {@code sql} query on the {@link Connection} with the parameters
+     * in the {@link ParameterBuffer} and
+     * {@link RowConsumer#consumeRow(ResultSet, long) consume} each row in the
+     * {@link ResultSet}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            the connection on which to execute the query
+     * @param sql
+     *            the SQL statement
+     * @param consumer
+     *            the callback for consuming the {@link ResultSet} rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public void forEach(Connection connection, String sql, RowConsumer consumer, ParameterBuffer params)
+            throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(consumer, "The consumer must not be null");
+
+        select(connection, sql, ResultSets.consumer(consumer), params);
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement with the parameters in the
+     * {@link ParameterBuffer}.
+     *
+     * @param sql
+     *            the sql statement
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int insert(String sql, ParameterBuffer params) throws SQLException {
+        return update(sql, params);
+    }
+
+    /**
+     * Execute an INSERT {@code sql} statement on the {@link Connection} with the
+     * parameters in the {@link ParameterBuffer}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int insert(Connection connection, String sql, ParameterBuffer params) throws SQLException {
+        return update(connection, sql, params);
+    }
+
     private int executeUpdate(Connection connection, String sql, ParameterValue... params) throws SQLException {
         assert connection != null : "connection is null!";
         assert sql != null : "sql is null!";
 
         try (PreparedStatement st = prepareStatement(connection, sql, params)) {
-            return st.executeUpdate();
+            return executeUpdate(st);
         }
     }
 
@@ -683,7 +1370,7 @@ public class JdbcTemplate {
         assert sql != null : "sql is null!";
 
         try (PreparedStatement st = prepareStatement(connection, sql, params)) {
-            return st.executeUpdate();
+            return executeUpdate(st);
         }
     }
 
@@ -714,10 +1401,12 @@ public class JdbcTemplate {
         Validate.notNull(connection, "The connection must not be null");
         Validate.notBlank(sql, "The sql must not be blank");
 
+        Deadline.checkCurrent("preparing a statement");
         PreparedStatement statement = connection.prepareStatement(sql);
         LOGGER.debug("Prepared statement for {}", sql);
 
         try {
+            Deadline.applyTimeout(statement);
             applyParameters(statement, params);
             LOGGER.debug("Applied parameters to {}: {}", sql, params);
         } catch (Throwable t) {
@@ -760,10 +1449,55 @@ public class JdbcTemplate {
         Validate.notNull(connection, "The connection must not be null");
         Validate.notBlank(sql, "The sql must not be blank");
 
+        Deadline.checkCurrent("preparing a statement");
         PreparedStatement statement = connection.prepareStatement(sql);
         LOGGER.debug("Prepared statement for {}", sql);
 
         try {
+            Deadline.applyTimeout(statement);
+            applyParameters(statement, params);
+            LOGGER.debug("Applied parameters to {}: {}", sql, params);
+        } catch (Throwable t) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                t.addSuppressed(ex);
+            }
+
+            throw t;
+        }
+
+        return statement;
+    }
+
+    /**
+     * Create a {@link PreparedStatement} to execute the specified {@code sql}
+     * statement with the parameters in the {@link ParameterBuffer}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @param sql
+     *            the sql statement
+     * @param params
+     *            the parameters to the {@code sql} statement
+     * @return the prepared statement with all parameters applied
+     * @throws SQLException
+     *             if an error occurs while preparing the statement
+     */
+    public PreparedStatement prepareStatement(Connection connection, String sql, ParameterBuffer params)
+            throws SQLException {
+
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+
+        Deadline.checkCurrent("preparing a statement");
+        PreparedStatement statement = connection.prepareStatement(sql);
+        LOGGER.debug("Prepared statement for {}", sql);
+
+        try {
+            Deadline.applyTimeout(statement);
             applyParameters(statement, params);
             LOGGER.debug("Applied parameters to {}: {}", sql, params);
         } catch (Throwable t) {
@@ -826,10 +1560,7 @@ public class JdbcTemplate {
 
         ParameterMetaData md = getMetadata(statement);
         if (md != null) {
-            int expectedParameters = md.getParameterCount();
-            int providedParameters = params == null ? 0 : params.length;
-            Validate.isTrue(expectedParameters == providedParameters, "Expected %d parameters but received %d.",
-                    expectedParameters, providedParameters);
+            checkParameterCount(md, params == null ? 0 : params.length);
         }
 
         if (params != null) {
@@ -863,10 +1594,7 @@ public class JdbcTemplate {
 
         ParameterMetaData md = getMetadata(statement);
         if (md != null) {
-            int expectedParameters = md.getParameterCount();
-            int providedParameters = params == null ? 0 : params.size();
-            Validate.isTrue(expectedParameters == providedParameters, "Expected %d parameters but received %d.",
-                    expectedParameters, providedParameters);
+            checkParameterCount(md, params == null ? 0 : params.size());
         }
 
         if (params != null) {
@@ -885,6 +1613,43 @@ public class JdbcTemplate {
         }
     }
 
+    /**
+     * Apply the parameters in the {@link ParameterBuffer} to the
+     * {@link PreparedStatement}. Primitive parameters are bound without
+     * allocating.
+     *
+     * @param statement
+     *            the statement
+     * @param params
+     *            the parameters to apply
+     * @throws SQLException
+     *             if the parameters cannot be applied
+     */
+    public void applyParameters(PreparedStatement statement, ParameterBuffer params) throws SQLException {
+        Validate.notNull(statement, "The statement must not be null");
+        Validate.notNull(params, "The params must not be null");
+
+        ParameterMetaData md = getMetadata(statement);
+        if (md != null) {
+            checkParameterCount(md, params.size());
+        }
+
+        params.applyTo(statement);
+    }
+
+    /**
+     * Verify that the number of provided parameters is the number the statement
+     * expects. The message is only formatted on failure, so that the counts are
+     * not boxed on every call.
+     */
+    private void checkParameterCount(ParameterMetaData md, int providedParameters) throws SQLException {
+        int expectedParameters = md.getParameterCount();
+        if (expectedParameters != providedParameters) {
+            throw new IllegalArgumentException(String.format("Expected %d parameters but received %d.",
+                    expectedParameters, providedParameters));
+        }
+    }
+
     /**
      * Execute a {@link PreparedStatement} for a query (that is, it returns a
      * {@link ResultSet}).
@@ -902,9 +1667,14 @@ public class JdbcTemplate {
     public <T> T query(PreparedStatement statement, ResultSetHandler<T> resultSetHandler) throws SQLException {
         Validate.notNull(statement, "The statement must not be null");
         Validate.notNull(resultSetHandler, "The resultSetHandler must not be null");
+        ScheduledFuture<?> cancellation = Deadline.arm(statement);
         try (ResultSet resultSet = statement.executeQuery()) {
 
             return resultSetHandler.processResultSet(resultSet);
+        } catch (SQLException e) {
+            throw Deadline.translate(e);
+        } finally {
+            Deadline.disarm(cancellation);
         }
     }
 
@@ -946,6 +1716,7 @@ public class JdbcTemplate {
         Validate.notNull(statement, "The statement must not be null");
         Validate.notNull(rowMapper, "The rowMapper must not be null");
 
+        ScheduledFuture<?> cancellation = Deadline.arm(statement);
         try (ResultSet resultSet = statement.executeQuery()) {
             if (!resultSet.next()) {
                 return Optional.empty();
@@ -956,6 +1727,10 @@ public class JdbcTemplate {
                 throw new SQLException("Multiple results returned when one expected");
             }
             return Optional.ofNullable(result);
+        } catch (SQLException e) {
+            throw Deadline.translate(e);
+        } finally {
+            Deadline.disarm(cancellation);
         }
     }
 
@@ -2,12 +2,65 @@ package net.josephbeard.jdbc;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 
 /**
  * A null {@link ParameterValue}.
  */
 class NullValue implements ParameterValue {
 
+    private static final NullValue ARRAY_VALUE = new NullValue(Types.ARRAY);
+    private static final NullValue BIGINT_VALUE = new NullValue(Types.BIGINT);
+    private static final NullValue BINARY_VALUE = new NullValue(Types.BINARY);
+    private static final NullValue BIT_VALUE = new NullValue(Types.BIT);
+    private static final NullValue DATE_VALUE = new NullValue(Types.DATE);
+    private static final NullValue DOUBLE_VALUE = new NullValue(Types.DOUBLE);
+    private static final NullValue INTEGER_VALUE = new NullValue(Types.INTEGER);
+    private static final NullValue JAVA_OBJECT_VALUE = new NullValue(Types.JAVA_OBJECT);
+    private static final NullValue OTHER_VALUE = new NullValue(Types.OTHER);
+    private static final NullValue SMALLINT_VALUE = new NullValue(Types.SMALLINT);
+    private static final NullValue TIMESTAMP_WITH_TIMEZONE_VALUE = new NullValue(Types.TIMESTAMP_WITH_TIMEZONE);
+    private static final NullValue VARCHAR_VALUE = new NullValue(Types.VARCHAR);
+
+    /**
+     * Return a null value of the {@code sqlType}, shared for the commonly used
+     * types.
+     *
+     * @param sqlType
+     *            the type from {@link Types}
+     * @return the null value
+     */
+    static NullValue valueOf(int sqlType) {
+        switch (sqlType) {
+        case Types.ARRAY:
+            return ARRAY_VALUE;
+        case Types.BIGINT:
+            return BIGINT_VALUE;
+        case Types.BINARY:
+            return BINARY_VALUE;
+        case Types.BIT:
+            return BIT_VALUE;
+        case Types.DATE:
+            return DATE_VALUE;
+        case Types.DOUBLE:
+            return DOUBLE_VALUE;
+        case Types.INTEGER:
+            return INTEGER_VALUE;
+        case Types.JAVA_OBJECT:
+            return JAVA_OBJECT_VALUE;
+        case Types.OTHER:
+            return OTHER_VALUE;
+        case Types.SMALLINT:
+            return SMALLINT_VALUE;
+        case Types.TIMESTAMP_WITH_TIMEZONE:
+            return TIMESTAMP_WITH_TIMEZONE_VALUE;
+        case Types.VARCHAR:
+            return VARCHAR_VALUE;
+        default:
+            return new NullValue(sqlType);
+        }
+    }
+
     private final int sqlType;
 
     NullValue(int sqlType) {
@@ -0,0 +1,225 @@
+package net.josephbeard.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A reusable buffer of statement parameters which stores primitive values
+ * unboxed, so that binding them allocates nothing. For example:
+ *
+ * <pre>
+ * ParameterBuffer buffer = new ParameterBuffer();
+ * for (Order order : orders) {
+ *     buffer.clear();
+ *     buffer.setLong(1, order.getId());
+ *     buffer.setInt(2, order.getQuantity());
+ *     jdbcTemplate.update(connection, "UPDATE orders SET quantity = ? WHERE id = ?", buffer);
+ * }
+ * </pre>
+ *
+ * Parameter indexes start at one, as they do for {@link PreparedStatement}.
+ * Every index up to {@link #size()} must be set before the buffer is applied.
+ * A buffer is not thread-safe; it is intended to be reused by one thread.
+ */
+public final class ParameterBuffer {
+
+    private static final byte UNSET = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte NULL = 5;
+    private static final byte STRING = 6;
+    private static final byte VALUE = 7;
+
+    private byte[] kinds;
+
+    /**
+     * The primitive values (as raw bits for doubles), or the SQL type of nulls.
+     */
+    private long[] primitives;
+
+    private Object[] objects;
+
+    private int size;
+
+    public ParameterBuffer() {
+        this(8);
+    }
+
+    public ParameterBuffer(int initialCapacity) {
+        Validate.isTrue(initialCapacity > 0, "The initialCapacity must be positive");
+        this.kinds = new byte[initialCapacity];
+        this.primitives = new long[initialCapacity];
+        this.objects = new Object[initialCapacity];
+    }
+
+    public ParameterBuffer setInt(int parameterIndex, int value) {
+        int i = slot(parameterIndex, INT);
+        primitives[i] = value;
+        return this;
+    }
+
+    public ParameterBuffer setLong(int parameterIndex, long value) {
+        int i = slot(parameterIndex, LONG);
+        primitives[i] = value;
+        return this;
+    }
+
+    public ParameterBuffer setDouble(int parameterIndex, double value) {
+        int i = slot(parameterIndex, DOUBLE);
+        primitives[i] = Double.doubleToRawLongBits(value);
+        return this;
+    }
+
+    public ParameterBuffer setBoolean(int parameterIndex, boolean value) {
+        int i = slot(parameterIndex, BOOLEAN);
+        primitives[i] = value ? 1L : 0L;
+        return this;
+    }
+
+    public ParameterBuffer setNull(int parameterIndex, int sqlType) {
+        int i = slot(parameterIndex, NULL);
+        primitives[i] = sqlType;
+        return this;
+    }
+
+    public ParameterBuffer setString(int parameterIndex, String value) {
+        if (value == null) {
+            return setNull(parameterIndex, Types.VARCHAR);
+        }
+        int i = slot(parameterIndex, STRING);
+        objects[i] = value;
+        return this;
+    }
+
+    public ParameterBuffer setValue(int parameterIndex, ParameterValue value) {
+        Validate.notNull(value, "The value must not be null");
+        int i = slot(parameterIndex, VALUE);
+        objects[i] = value;
+        return this;
+    }
+
+    /**
+     * Return the highest parameter index set since the buffer was last cleared.
+     *
+     * @return the number of parameters
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every parameter, retaining the capacity of the buffer.
+     */
+    public void clear() {
+        Arrays.fill(kinds, 0, size, UNSET);
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Apply the parameters to the {@link PreparedStatement}.
+     *
+     * @param statement
+     *            the statement
+     * @throws IllegalStateException
+     *             if a parameter index below {@link #size()} was not set
+     * @throws SQLException
+     *             if the parameters cannot be applied
+     */
+    public void applyTo(PreparedStatement statement) throws SQLException {
+        Validate.notNull(statement, "The statement must not be null");
+
+        for (int i = 0; i < size; i++) {
+            int parameterIndex = i + 1;
+            switch (kinds[i]) {
+            case INT:
+                statement.setInt(parameterIndex, (int) primitives[i]);
+                break;
+            case LONG:
+                statement.setLong(parameterIndex, primitives[i]);
+                break;
+            case DOUBLE:
+                statement.setDouble(parameterIndex, Double.longBitsToDouble(primitives[i]));
+                break;
+            case BOOLEAN:
+                statement.setBoolean(parameterIndex, primitives[i] != 0L);
+                break;
+            case NULL:
+                statement.setNull(parameterIndex, (int) primitives[i]);
+                break;
+            case STRING:
+                statement.setString(parameterIndex, (String) objects[i]);
+                break;
+            case VALUE:
+                ((ParameterValue) objects[i]).applyValue(statement, parameterIndex);
+                break;
+            default:
+                throw new IllegalStateException("Parameter " + parameterIndex + " was not set.");
+            }
+        }
+    }
+
+    /**
+     * Mark the parameter as being of the {@code kind}, growing the buffer if
+     * needed, and return its position in the arrays. Callers must read the array
+     * fields after calling this, since growing replaces them.
+     */
+    private int slot(int parameterIndex, byte kind) {
+        if (parameterIndex < 1) {
+            throw new IllegalArgumentException("The parameterIndex must be positive");
+        }
+
+        int i = parameterIndex - 1;
+        if (i >= kinds.length) {
+            int capacity = Math.max(kinds.length * 2, parameterIndex);
+            kinds = Arrays.copyOf(kinds, capacity);
+            primitives = Arrays.copyOf(primitives, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+
+        kinds[i] = kind;
+        objects[i] = null;
+        if (parameterIndex > size) {
+            size = parameterIndex;
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ParameterBuffer[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            switch (kinds[i]) {
+            case INT:
+            case LONG:
+                sb.append(primitives[i]);
+                break;
+            case DOUBLE:
+                sb.append(Double.longBitsToDouble(primitives[i]));
+                break;
+            case BOOLEAN:
+                sb.append(primitives[i] != 0L);
+                break;
+            case NULL:
+                sb.append('(').append(primitives[i]).append(") NULL");
+                break;
+            case STRING:
+            case VALUE:
+                sb.append(objects[i]);
+                break;
+            default:
+                sb.append('?');
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
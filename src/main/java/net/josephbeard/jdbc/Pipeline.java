@@ -0,0 +1,254 @@
+package net.josephbeard.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects independent queries so that they can be sent to the database in a
+ * single execution, rather than paying a round trip for each. For example:
+ *
+ * <pre>
+ * Pipeline pipeline = new Pipeline(jdbcTemplate);
+ * PipelineResult&lt;List&lt;Order&gt;&gt; orders = pipeline.select("SELECT * FROM orders WHERE customer_id = ?", orderMapper,
+ *         customerId);
+ * PipelineResult&lt;Long&gt; count = pipeline.select("SELECT count(*) FROM invoices WHERE customer_id = ?",
+ *         resultSet -&gt; resultSet.next() ? resultSet.getLong(1) : 0L, customerId);
+ * pipeline.execute();
+ *
+ * render(orders.get(), count.get());
+ * </pre>
+ *
+ * When the driver reports that it
+ * {@link java.sql.DatabaseMetaData#supportsMultipleResultSets() supports
+ * multiple result sets}, the queries are joined with semicolons into one
+ * {@link PreparedStatement} and their results read in turn with
+ * {@link PreparedStatement#getMoreResults()}. Otherwise, or when combining is
+ * disabled, they are executed one after another on the same connection. Some
+ * drivers (MySQL without {@code allowMultiQueries}, for instance) report
+ * support but reject multiple statements; disable combining for those.
+ * <p>
+ * A pipeline may be executed more than once, but is not thread-safe.
+ */
+public final class Pipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Pipeline.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean combine;
+
+    private final List<Entry<?>> entries = new ArrayList<>();
+
+    public Pipeline(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, true);
+    }
+
+    /**
+     * Create a pipeline.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param combine
+     *            whether to combine the queries into one statement when the driver
+     *            supports multiple result sets
+     */
+    public Pipeline(JdbcTemplate jdbcTemplate, boolean combine) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        this.jdbcTemplate = jdbcTemplate;
+        this.combine = combine;
+    }
+
+    /**
+     * Add the {@code sql} query, whose {@link ResultSet} is handled by the
+     * {@link ResultSetHandler}.
+     *
+     * @param sql
+     *            the SQL query
+     * @param resultSetHandler
+     *            the callback to handle the query {@link ResultSet}
+     * @param params
+     *            the parameters to the {@code sql} query (optional)
+     * @param <T>
+     *            the type of result of the {@code resultSetHandler} callback
+     * @return the result, available once the pipeline is executed
+     */
+    public <T> PipelineResult<T> select(String sql, ResultSetHandler<T> resultSetHandler, ParameterValue... params) {
+        return select(sql, resultSetHandler, params == null ? Collections.emptyList() : Arrays.asList(params));
+    }
+
+    /**
+     * Add the {@code sql} query, whose {@link ResultSet} is handled by the
+     * {@link ResultSetHandler}.
+     *
+     * @param sql
+     *            the SQL query
+     * @param resultSetHandler
+     *            the callback to handle the query {@link ResultSet}
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code resultSetHandler} callback
+     * @return the result, available once the pipeline is executed
+     */
+    public <T> PipelineResult<T> select(String sql, ResultSetHandler<T> resultSetHandler,
+            List<ParameterValue> params) {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(resultSetHandler, "The resultSetHandler must not be null");
+        Validate.notNull(params, "The params must not be null");
+
+        String statement = StringUtils.stripEnd(sql.trim(), ";");
+        Validate.isTrue(!statement.isEmpty(), "The sql must not be blank");
+
+        Entry<T> entry = new Entry<>(statement, resultSetHandler, new ArrayList<>(params));
+        entries.add(entry);
+        return entry.result;
+    }
+
+    /**
+     * Add the {@code sql} query, whose rows are mapped by the {@link RowMapper}.
+     *
+     * @param sql
+     *            the SQL query
+     * @param rowMapper
+     *            the callback for mapping the query {@link ResultSet} rows
+     * @param params
+     *            the parameters to the {@code sql} query (optional)
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return the result, available once the pipeline is executed
+     */
+    public <T> PipelineResult<List<T>> select(String sql, RowMapper<T> rowMapper, ParameterValue... params) {
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+        return select(sql, resultSet -> ResultSets.mapRows(resultSet, rowMapper), params);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Execute every query added to the pipeline, obtaining a connection from the
+     * {@link JdbcTemplate}.
+     *
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public void execute() throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.withConnection(connection -> {
+            execute(connection);
+            return null;
+        });
+    }
+
+    /**
+     * Execute every query added to the pipeline on the {@link Connection}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public void execute(Connection connection) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+
+        if (entries.size() > 1 && combine && connection.getMetaData().supportsMultipleResultSets()) {
+            executeCombined(connection);
+        } else {
+            executeSequentially(connection);
+        }
+    }
+
+    private void executeSequentially(Connection connection) throws SQLException {
+        for (Entry<?> entry : entries) {
+            entry.executeAlone(connection);
+        }
+    }
+
+    private void executeCombined(Connection connection) throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        List<ParameterValue> params = new ArrayList<>();
+        for (Entry<?> entry : entries) {
+            if (sql.length() > 0) {
+                sql.append(";\n");
+            }
+            sql.append(entry.sql);
+            params.addAll(entry.params);
+        }
+
+        try (PreparedStatement st = jdbcTemplate.prepareStatement(connection, sql.toString(), params)) {
+            ScheduledFuture<?> cancellation = Deadline.arm(st);
+            try {
+                boolean isResultSet = st.execute();
+                for (Entry<?> entry : entries) {
+                    // Skip any update counts preceding the entry's result set
+                    while (!isResultSet) {
+                        if (st.getUpdateCount() == -1) {
+                            throw new SQLException("No result set was returned for " + entry.sql);
+                        }
+                        isResultSet = st.getMoreResults();
+                    }
+
+                    try (ResultSet resultSet = st.getResultSet()) {
+                        entry.complete(resultSet);
+                    }
+                    isResultSet = st.getMoreResults();
+                }
+            } catch (SQLException e) {
+                throw Deadline.translate(e);
+            } finally {
+                Deadline.disarm(cancellation);
+            }
+        }
+        LOGGER.debug("Executed {} queries in one statement", entries.size());
+    }
+
+    @Override
+    public String toString() {
+        return "Pipeline{" + "size=" + entries.size() + ", combine=" + combine + '}';
+    }
+
+    /**
+     * A query in the pipeline and its result.
+     */
+    private final class Entry<T> {
+
+        private final String sql;
+
+        private final ResultSetHandler<T> resultSetHandler;
+
+        private final List<ParameterValue> params;
+
+        private final PipelineResult<T> result = new PipelineResult<>();
+
+        Entry(String sql, ResultSetHandler<T> resultSetHandler, List<ParameterValue> params) {
+            this.sql = sql;
+            this.resultSetHandler = resultSetHandler;
+            this.params = params;
+        }
+
+        void executeAlone(Connection connection) throws SQLException {
+            result.complete(jdbcTemplate.select(connection, sql, resultSetHandler, params));
+        }
+
+        void complete(ResultSet resultSet) throws SQLException {
+            result.complete(resultSetHandler.processResultSet(resultSet));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package net.josephbeard.jdbc;
+
+/**
+ * The result of one statement added to a {@link Pipeline}, available once the
+ * pipeline has been executed.
+ *
+ * @param <T>
+ *            the type of the result
+ */
+public final class PipelineResult<T> {
+
+    private boolean complete;
+
+    private T value;
+
+    PipelineResult() {
+    }
+
+    /**
+     * Return the result of the statement.
+     *
+     * @return the result of the statement's handler
+     * @throws IllegalStateException
+     *             if the pipeline has not been executed
+     */
+    public T get() {
+        if (!complete) {
+            throw new IllegalStateException("The pipeline has not been executed.");
+        }
+        return value;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void complete(T value) {
+        this.value = value;
+        this.complete = true;
+    }
+
+    @Override
+    public String toString() {
+        return complete ? "PipelineResult{" + "value=" + value + '}' : "PipelineResult{incomplete}";
+    }
+}
@@ -3,6 +3,11 @@
  */
 package net.josephbeard.jdbc;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -81,6 +86,158 @@ public final class ResultSets {
         };
     }
 
+    /**
+     * Copy the character stream of a column in the current row to the
+     * {@link Writer}, through a per-thread transfer buffer, without materializing
+     * the value as a {@link String}. The {@link Writer} will not be closed by this
+     * method.
+     * <p>
+     * This saves memory only if the driver streams the column: the PostgreSQL
+     * driver (42.1.x) reads the whole value into a {@link String} before
+     * returning its {@link Reader}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnIndex
+     *            the column index
+     * @param out
+     *            the destination
+     * @return the number of characters copied, or {@code -1} if the column is SQL
+     *         {@code NULL}
+     * @throws SQLException
+     *             if an error occurs, including failure to write to {@code out}
+     */
+    public static long transferCharacterStream(ResultSet resultSet, int columnIndex, Writer out)
+            throws SQLException {
+        Validate.notNull(resultSet, "The resultSet must not be null");
+        Validate.notNull(out, "The out must not be null");
+
+        return transfer(resultSet.getCharacterStream(columnIndex), out);
+    }
+
+    /**
+     * Copy the character stream of a column in the current row to the
+     * {@link Writer}, through a per-thread transfer buffer, without materializing
+     * the value as a {@link String}. The {@link Writer} will not be closed by this
+     * method.
+     * <p>
+     * This saves memory only if the driver streams the column: the PostgreSQL
+     * driver (42.1.x) reads the whole value into a {@link String} before
+     * returning its {@link Reader}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnLabel
+     *            the column label
+     * @param out
+     *            the destination
+     * @return the number of characters copied, or {@code -1} if the column is SQL
+     *         {@code NULL}
+     * @throws SQLException
+     *             if an error occurs, including failure to write to {@code out}
+     */
+    public static long transferCharacterStream(ResultSet resultSet, String columnLabel, Writer out)
+            throws SQLException {
+        Validate.notNull(resultSet, "The resultSet must not be null");
+        Validate.notNull(out, "The out must not be null");
+
+        return transfer(resultSet.getCharacterStream(columnLabel), out);
+    }
+
+    /**
+     * Copy the binary stream of a column in the current row to the
+     * {@link OutputStream}, through a per-thread transfer buffer, without
+     * materializing the value as a {@code byte[]}. The {@link OutputStream} will
+     * not be closed by this method.
+     * <p>
+     * This saves memory only if the driver streams the column: the PostgreSQL
+     * driver (42.1.x) reads the whole {@code bytea} value into a {@code byte[]}
+     * before returning its {@link InputStream}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnIndex
+     *            the column index
+     * @param out
+     *            the destination
+     * @return the number of bytes copied, or {@code -1} if the column is SQL
+     *         {@code NULL}
+     * @throws SQLException
+     *             if an error occurs, including failure to write to {@code out}
+     */
+    public static long transferBinaryStream(ResultSet resultSet, int columnIndex, OutputStream out)
+            throws SQLException {
+        Validate.notNull(resultSet, "The resultSet must not be null");
+        Validate.notNull(out, "The out must not be null");
+
+        return transfer(resultSet.getBinaryStream(columnIndex), out);
+    }
+
+    /**
+     * Copy the binary stream of a column in the current row to the
+     * {@link OutputStream}, through a per-thread transfer buffer, without
+     * materializing the value as a {@code byte[]}. The {@link OutputStream} will
+     * not be closed by this method.
+     * <p>
+     * This saves memory only if the driver streams the column: the PostgreSQL
+     * driver (42.1.x) reads the whole {@code bytea} value into a {@code byte[]}
+     * before returning its {@link InputStream}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnLabel
+     *            the column label
+     * @param out
+     *            the destination
+     * @return the number of bytes copied, or {@code -1} if the column is SQL
+     *         {@code NULL}
+     * @throws SQLException
+     *             if an error occurs, including failure to write to {@code out}
+     */
+    public static long transferBinaryStream(ResultSet resultSet, String columnLabel, OutputStream out)
+            throws SQLException {
+        Validate.notNull(resultSet, "The resultSet must not be null");
+        Validate.notNull(out, "The out must not be null");
+
+        return transfer(resultSet.getBinaryStream(columnLabel), out);
+    }
+
+    private static long transfer(Reader reader, Writer out) throws SQLException {
+        if (reader == null) {
+            return -1L;
+        }
+
+        char[] buffer = TransferBuffers.chars();
+        long transferred = 0L;
+        try (Reader in = reader) {
+            for (int read; (read = in.read(buffer)) != -1;) {
+                out.write(buffer, 0, read);
+                transferred += read;
+            }
+        } catch (IOException e) {
+            throw new SQLException("Failed to transfer character stream", e);
+        }
+        return transferred;
+    }
+
+    private static long transfer(InputStream stream, OutputStream out) throws SQLException {
+        if (stream == null) {
+            return -1L;
+        }
+
+        byte[] buffer = TransferBuffers.bytes();
+        long transferred = 0L;
+        try (InputStream in = stream) {
+            for (int read; (read = in.read(buffer)) != -1;) {
+                out.write(buffer, 0, read);
+                transferred += read;
+            }
+        } catch (IOException e) {
+            throw new SQLException("Failed to transfer binary stream", e);
+        }
+        return transferred;
+    }
+
     private ResultSets() {
         // ResultSets is a utility class and should not be instantiated
     }
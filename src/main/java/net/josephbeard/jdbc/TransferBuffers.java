@@ -0,0 +1,29 @@
+package net.josephbeard.jdbc;
+
+/**
+ * Per-thread buffers for copying streamed column values, so that transferring
+ * a large value does not allocate a new buffer for every row.
+ */
+final class TransferBuffers {
+
+    /**
+     * The size of each buffer, in bytes or characters.
+     */
+    static final int BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<byte[]> BYTES = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[BUFFER_SIZE]);
+
+    static byte[] bytes() {
+        return BYTES.get();
+    }
+
+    static char[] chars() {
+        return CHARS.get();
+    }
+
+    private TransferBuffers() {
+        // TransferBuffers is a utility class and should not be instantiated
+    }
+}
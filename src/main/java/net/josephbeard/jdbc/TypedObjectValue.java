@@ -0,0 +1,50 @@
+package net.josephbeard.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * An object {@link ParameterValue} bound with an explicit SQL type, which the
+ * driver converts the object to.
+ */
+class TypedObjectValue implements ParameterValue {
+
+    private final Object value;
+
+    private final int sqlType;
+
+    TypedObjectValue(Object value, int sqlType) {
+        assert value != null : "value is null!";
+        this.value = value;
+        this.sqlType = sqlType;
+    }
+
+    @Override
+    public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+        statement.setObject(parameterIndex, value, sqlType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        TypedObjectValue that = (TypedObjectValue) o;
+
+        return sqlType == that.sqlType && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = value.hashCode();
+        result = 31 * result + sqlType;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + sqlType + ") " + value;
+    }
+}
@@ -0,0 +1,28 @@
+package net.josephbeard.jdbc;
+
+import java.sql.SQLException;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Wraps a {@link SQLException} with an unchecked exception, for use where a
+ * checked exception cannot be thrown (such as from an {@link java.util.Iterator}
+ * or a {@link java.util.concurrent.CompletableFuture}).
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(Validate.notNull(cause, "The cause must not be null"));
+    }
+
+    public UncheckedSQLException(String message, SQLException cause) {
+        super(message, Validate.notNull(cause, "The cause must not be null"));
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.commons.lang3.Validate;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+
+/**
+ * Streams the results of a query out of PostgreSQL using
+ * {@code COPY (query) TO STDOUT}.
+ * <p>
+ * The COPY protocol avoids decoding each value through a
+ * {@link java.sql.ResultSet}, which makes it well suited to full table
+ * extracts. Data is staged through a bounded buffer of {@code bufferSize}
+ * bytes before being written to the destination, which is flushed once, when
+ * the export completes.
+ * <p>
+ * An export is cancelled by interrupting the exporting thread. The interrupt
+ * is checked as each chunk of data arrives, so it does not unblock a thread
+ * waiting on the server for the next chunk; once noticed, the COPY is aborted
+ * on the server and a {@link SQLException} is thrown.
+ */
+public final class CopyExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CopyExporter.class);
+
+    /**
+     * The default size of the transfer buffer, in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int bufferSize;
+
+    public CopyExporter(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CopyExporter(JdbcTemplate jdbcTemplate, int bufferSize) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.isTrue(bufferSize > 0, "The bufferSize must be positive");
+        this.jdbcTemplate = jdbcTemplate;
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Export the results of the {@code query} in the COPY text format to the
+     * {@link OutputStream}. The stream will not be closed by this method.
+     *
+     * @param query
+     *            the query (for example, {@code SELECT * FROM people})
+     * @param out
+     *            the destination
+     * @return the number of rows exported
+     * @throws SQLException
+     *             if an error occurs, including failure to write to {@code out}
+     */
+    public long export(String query, OutputStream out) throws SQLException {
+        Validate.notBlank(query, "The query must not be blank");
+        Validate.notNull(out, "The out must not be null");
+
+        return jdbcTemplate.withConnection(connection -> export(connection, query, out));
+    }
+
+    /**
+     * Export the results of the {@code query} in the COPY text format to the
+     * {@link OutputStream}, using the supplied {@link Connection}.
+     * <p>
+     * Neither the {@link Connection} nor the stream will be closed by this method.
+     *
+     * @param connection
+     *            an open connection to PostgreSQL
+     * @param query
+     *            the query
+     * @param out
+     *            the destination
+     * @return the number of rows exported
+     * @throws SQLException
+     *             if an error occurs, including failure to write to {@code out}
+     */
+    public long export(Connection connection, String query, OutputStream out) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(query, "The query must not be blank");
+        Validate.notNull(out, "The out must not be null");
+
+        byte[] buffer = new byte[bufferSize];
+        return copyOut(connection, query, new ChunkSink() {
+
+            private int length;
+
+            @Override
+            public void write(byte[] chunk) throws IOException {
+                if (length + chunk.length > buffer.length) {
+                    drain();
+                }
+                if (chunk.length >= buffer.length) {
+                    out.write(chunk);
+                } else {
+                    System.arraycopy(chunk, 0, buffer, length, chunk.length);
+                    length += chunk.length;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                drain();
+                out.flush();
+            }
+
+            private void drain() throws IOException {
+                if (length > 0) {
+                    out.write(buffer, 0, length);
+                    length = 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * Export the results of the {@code query} in the COPY text format to the
+     * {@link WritableByteChannel}. The channel will not be closed by this method.
+     *
+     * @param query
+     *            the query
+     * @param channel
+     *            the destination
+     * @return the number of rows exported
+     * @throws SQLException
+     *             if an error occurs, including failure to write to
+     *             {@code channel}
+     */
+    public long export(String query, WritableByteChannel channel) throws SQLException {
+        Validate.notBlank(query, "The query must not be blank");
+        Validate.notNull(channel, "The channel must not be null");
+
+        return jdbcTemplate.withConnection(connection -> export(connection, query, channel));
+    }
+
+    /**
+     * Export the results of the {@code query} in the COPY text format to the
+     * {@link WritableByteChannel}, using the supplied {@link Connection}.
+     * <p>
+     * Neither the {@link Connection} nor the channel will be closed by this
+     * method.
+     *
+     * @param connection
+     *            an open connection to PostgreSQL
+     * @param query
+     *            the query
+     * @param channel
+     *            the destination
+     * @return the number of rows exported
+     * @throws SQLException
+     *             if an error occurs, including failure to write to
+     *             {@code channel}
+     */
+    public long export(Connection connection, String query, WritableByteChannel channel) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(query, "The query must not be blank");
+        Validate.notNull(channel, "The channel must not be null");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        return copyOut(connection, query, new ChunkSink() {
+
+            @Override
+            public void write(byte[] chunk) throws IOException {
+                int offset = 0;
+                while (offset < chunk.length) {
+                    int length = Math.min(buffer.remaining(), chunk.length - offset);
+                    buffer.put(chunk, offset, length);
+                    offset += length;
+                    if (!buffer.hasRemaining()) {
+                        drain();
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                drain();
+            }
+
+            private void drain() throws IOException {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        });
+    }
+
+    /**
+     * Export the results of the {@code query}, decoding each row of the COPY text
+     * format and supplying its fields to the {@link CopyRowConsumer}.
+     *
+     * @param query
+     *            the query
+     * @param consumer
+     *            the callback for consuming the decoded rows
+     * @return the number of rows exported
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public long export(String query, CopyRowConsumer consumer) throws SQLException {
+        Validate.notBlank(query, "The query must not be blank");
+        Validate.notNull(consumer, "The consumer must not be null");
+
+        return jdbcTemplate.withConnection(connection -> export(connection, query, consumer));
+    }
+
+    /**
+     * Export the results of the {@code query}, decoding each row of the COPY text
+     * format and supplying its fields to the {@link CopyRowConsumer}, using the
+     * supplied {@link Connection}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection to PostgreSQL
+     * @param query
+     *            the query
+     * @param consumer
+     *            the callback for consuming the decoded rows
+     * @return the number of rows exported
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public long export(Connection connection, String query, CopyRowConsumer consumer) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notBlank(query, "The query must not be blank");
+        Validate.notNull(consumer, "The consumer must not be null");
+
+        CopyTextDecoder decoder = new CopyTextDecoder(consumer);
+        copyOut(connection, query, new ChunkSink() {
+
+            @Override
+            public void write(byte[] chunk) throws IOException, SQLException {
+                decoder.decode(chunk, 0, chunk.length);
+            }
+
+            @Override
+            public void flush() throws SQLException {
+                decoder.finish();
+            }
+        });
+        return decoder.getRowCount();
+    }
+
+    private long copyOut(Connection connection, String query, ChunkSink sink) throws SQLException {
+        assert connection != null : "connection is null!";
+        assert query != null : "query is null!";
+        assert sink != null : "sink is null!";
+
+        String sql = "COPY (" + query + ") TO STDOUT";
+        CopyOut copyOut = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql);
+        LOGGER.debug("Started {}", sql);
+
+        try {
+            byte[] chunk;
+            while ((chunk = copyOut.readFromCopy()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new SQLException("COPY was cancelled by interruption: " + sql);
+                }
+                sink.write(chunk);
+            }
+            sink.flush();
+
+            LOGGER.debug("Completed {} with {} rows", sql, copyOut.getHandledRowCount());
+            return copyOut.getHandledRowCount();
+        } catch (IOException e) {
+            throw new SQLException("Failed to write COPY data", e);
+        } finally {
+            if (copyOut.isActive()) {
+                copyOut.cancelCopy();
+                LOGGER.debug("Cancelled {}", sql);
+            }
+        }
+    }
+
+    /**
+     * Destination for the raw chunks read from a COPY.
+     */
+    private interface ChunkSink {
+
+        void write(byte[] chunk) throws IOException, SQLException;
+
+        void flush() throws IOException, SQLException;
+
+    }
+
+}
@@ -0,0 +1,24 @@
+package net.josephbeard.jdbc.postgres;
+
+import java.sql.SQLException;
+
+/**
+ * Consume a single decoded row from a PostgreSQL {@code COPY ... TO STDOUT}.
+ */
+@FunctionalInterface
+public interface CopyRowConsumer {
+
+    /**
+     * Consume the decoded fields of a single row.
+     *
+     * @param fields
+     *            the text value of each field, or {@code null} for SQL
+     *            {@code NULL}
+     * @param rowNumber
+     *            the row number within the COPY output
+     * @throws SQLException
+     *             if an error occurs
+     */
+    void consumeRow(String[] fields, long rowNumber) throws SQLException;
+
+}
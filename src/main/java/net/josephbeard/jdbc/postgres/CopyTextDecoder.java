@@ -0,0 +1,163 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the PostgreSQL {@code COPY} text format into rows of fields.
+ * <p>
+ * Data may be supplied in arbitrarily sized chunks; a row split across chunks
+ * is held until its terminating newline arrives.
+ */
+final class CopyTextDecoder {
+
+    private final CopyRowConsumer consumer;
+
+    private final List<String> fields = new ArrayList<>();
+
+    private final StringBuilder field = new StringBuilder();
+
+    private boolean nullField;
+
+    private byte[] pending = new byte[256];
+
+    private int pendingLength;
+
+    private long rowNumber;
+
+    CopyTextDecoder(CopyRowConsumer consumer) {
+        assert consumer != null : "consumer is null!";
+        this.consumer = consumer;
+    }
+
+    /**
+     * Decode a chunk of {@code COPY} data, supplying each completed row to the
+     * {@link CopyRowConsumer}.
+     *
+     * @param data
+     *            the data
+     * @param offset
+     *            the offset of the first byte within {@code data}
+     * @param length
+     *            the number of bytes to decode
+     * @throws SQLException
+     *             if the consumer fails
+     */
+    void decode(byte[] data, int offset, int length) throws SQLException {
+        assert data != null : "data is null!";
+
+        int start = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+
+            if (pendingLength == 0) {
+                decodeRow(data, start, i - start);
+            } else {
+                append(data, start, i - start);
+                decodeRow(pending, 0, pendingLength);
+                pendingLength = 0;
+            }
+            start = i + 1;
+        }
+
+        if (start < end) {
+            append(data, start, end - start);
+        }
+    }
+
+    /**
+     * Signal the end of the {@code COPY} data.
+     *
+     * @throws SQLException
+     *             if the data ended part way through a row
+     */
+    void finish() throws SQLException {
+        if (pendingLength > 0) {
+            throw new SQLException("COPY data ended part way through a row");
+        }
+    }
+
+    /**
+     * Return the number of rows decoded.
+     *
+     * @return the number of rows
+     */
+    long getRowCount() {
+        return rowNumber;
+    }
+
+    private void append(byte[] data, int offset, int length) {
+        if (pendingLength + length > pending.length) {
+            byte[] grown = new byte[Math.max(pending.length * 2, pendingLength + length)];
+            System.arraycopy(pending, 0, grown, 0, pendingLength);
+            pending = grown;
+        }
+        System.arraycopy(data, offset, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private void decodeRow(byte[] data, int offset, int length) throws SQLException {
+        String line = new String(data, offset, length, UTF_8);
+
+        fields.clear();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(takeField());
+            } else if (c == '\\' && i + 1 < line.length()) {
+                appendEscaped(line.charAt(++i));
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(takeField());
+
+        consumer.consumeRow(fields.toArray(new String[fields.size()]), rowNumber++);
+    }
+
+    private void appendEscaped(char c) {
+        switch (c) {
+        case 'N':
+            nullField = true;
+            break;
+        case 'b':
+            field.append('\b');
+            break;
+        case 'f':
+            field.append('\f');
+            break;
+        case 'n':
+            field.append('\n');
+            break;
+        case 'r':
+            field.append('\r');
+            break;
+        case 't':
+            field.append('\t');
+            break;
+        case 'v':
+            field.append('\u000B');
+            break;
+        default:
+            // Any other backslashed character represents itself
+            field.append(c);
+        }
+    }
+
+    private String takeField() {
+        String value = nullField ? null : field.toString();
+        field.setLength(0);
+        nullField = false;
+        return value;
+    }
+
+}
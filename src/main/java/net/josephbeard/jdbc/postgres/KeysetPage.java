@@ -0,0 +1,50 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of rows from a {@link KeysetPager}.
+ *
+ * @param <T>
+ *            the type of the mapped rows
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> rows;
+
+    private final String continuation;
+
+    KeysetPage(List<T> rows, String continuation) {
+        assert rows != null : "rows is null!";
+        this.rows = rows;
+        this.continuation = continuation;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the opaque token from which the next page continues, if there are
+     * more rows.
+     *
+     * @return the continuation token, or {@link Optional#empty()} if this is the
+     *         last page
+     */
+    public Optional<String> getContinuation() {
+        return Optional.ofNullable(continuation);
+    }
+
+    public boolean hasNext() {
+        return continuation != null;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPage{" + "rows=" + rows + ", continuation='" + continuation + '\'' + '}';
+    }
+}
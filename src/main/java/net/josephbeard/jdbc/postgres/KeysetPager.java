@@ -0,0 +1,255 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.ResultSetHandler;
+import net.josephbeard.jdbc.RowMapper;
+import net.josephbeard.jdbc.UncheckedSQLException;
+import net.josephbeard.jdbc.sql.AndWhereClause;
+import net.josephbeard.jdbc.sql.Query;
+import net.josephbeard.jdbc.sql.SelectBuilder;
+import net.josephbeard.jdbc.sql.SimpleWhereClause;
+import net.josephbeard.jdbc.sql.WhereClause;
+
+/**
+ * Keyset (or "seek") pagination, which continues each page from the key of the
+ * last row of the previous one:
+ *
+ * <pre>
+ * SELECT ... WHERE (k1, k2) &gt; (?, ?) ORDER BY k1, k2 LIMIT ?
+ * </pre>
+ *
+ * Unlike {@link PostgreSQL#offset(long)}, the database does not read and
+ * discard the rows of the preceding pages, so every page costs the same given
+ * an index on the keys. For example:
+ *
+ * <pre>
+ * KeysetPager&lt;Person&gt; pager = new KeysetPager&lt;&gt;(SelectBuilder.select("id", "name").from("people"),
+ *         Arrays.asList("id"), personMapper, 100);
+ *
+ * KeysetPage&lt;Person&gt; page = pager.page(jdbcTemplate, continuationFromClient);
+ * </pre>
+ *
+ * The key columns must together be unique, must be included in the projection
+ * and are all ordered in the same direction. A qualified key column (such as
+ * {@code p.id}) is read from the result by its unqualified label. A where
+ * clause of the {@link SelectBuilder}, like one added by
+ * {@link #where(WhereClause)}, is combined by {@code AND} with the keyset
+ * condition on every page.
+ *
+ * @param <T>
+ *            the type of the mapped rows
+ */
+public final class KeysetPager<T> {
+
+    private final SelectBuilder select;
+
+    private final WhereClause filter;
+
+    private final List<String> keyColumns;
+
+    private final List<String> keyLabels;
+
+    private final boolean descending;
+
+    private final RowMapper<T> rowMapper;
+
+    private final int pageSize;
+
+    private final String keysetCondition;
+
+    public KeysetPager(SelectBuilder select, List<String> keyColumns, RowMapper<T> rowMapper, int pageSize) {
+        this(select, null, keyColumns, false, rowMapper, pageSize);
+    }
+
+    private KeysetPager(SelectBuilder select, WhereClause filter, List<String> keyColumns, boolean descending,
+            RowMapper<T> rowMapper, int pageSize) {
+        Validate.notNull(select, "The select must not be null");
+        Validate.notEmpty(keyColumns, "The keyColumns must not be empty");
+        Validate.noNullElements(keyColumns, "The keyColumns must not be null");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+        Validate.isTrue(pageSize > 0, "The pageSize must be positive");
+
+        this.select = select;
+        this.filter = filter;
+        this.keyColumns = Collections.unmodifiableList(new ArrayList<>(keyColumns));
+        this.descending = descending;
+        this.rowMapper = rowMapper;
+        this.pageSize = pageSize;
+
+        List<String> labels = new ArrayList<>(keyColumns.size());
+        for (String keyColumn : keyColumns) {
+            labels.add(keyColumn.substring(keyColumn.lastIndexOf('.') + 1));
+        }
+        this.keyLabels = Collections.unmodifiableList(labels);
+
+        String comparison = descending ? " < " : " > ";
+        if (keyColumns.size() == 1) {
+            this.keysetCondition = keyColumns.get(0) + comparison + "?";
+        } else {
+            this.keysetCondition = "(" + String.join(", ", keyColumns) + ")" + comparison + "("
+                    + String.join(", ", Collections.nCopies(keyColumns.size(), "?")) + ")";
+        }
+    }
+
+    /**
+     * Return a copy of this pager which only returns rows matching the
+     * {@link WhereClause}.
+     *
+     * @param filter
+     *            the where clause
+     * @return the pager
+     */
+    public KeysetPager<T> where(WhereClause filter) {
+        Validate.notNull(filter, "The filter must not be null");
+        return new KeysetPager<>(select, filter, keyColumns, descending, rowMapper, pageSize);
+    }
+
+    /**
+     * Return a copy of this pager which walks the keys in descending order.
+     *
+     * @return the pager
+     */
+    public KeysetPager<T> descending() {
+        return new KeysetPager<>(select, filter, keyColumns, true, rowMapper, pageSize);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Retrieve the page following the {@code continuation}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param continuation
+     *            the token from {@link KeysetPage#getContinuation()} of the
+     *            previous page, or {@code null} for the first page
+     * @return the page
+     * @throws IllegalArgumentException
+     *             if the {@code continuation} is not a token from this pager
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public KeysetPage<T> page(JdbcTemplate jdbcTemplate, String continuation) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+
+        return query(continuation).select(jdbcTemplate, new PageHandler());
+    }
+
+    /**
+     * Return an {@link Iterator} over every page, starting with the first. Each
+     * page is retrieved as it is requested, and any {@link SQLException} is thrown
+     * as an {@link UncheckedSQLException}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @return the page iterator
+     */
+    public Iterator<KeysetPage<T>> pages(JdbcTemplate jdbcTemplate) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+
+        return new Iterator<KeysetPage<T>>() {
+
+            private KeysetPage<T> previous;
+
+            @Override
+            public boolean hasNext() {
+                return previous == null || previous.hasNext();
+            }
+
+            @Override
+            public KeysetPage<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                try {
+                    previous = page(jdbcTemplate, previous == null ? null : previous.getContinuation().get());
+                    return previous;
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            }
+        };
+    }
+
+    // Visible for testing
+    Query query(String continuation) {
+        WhereClause where = filter;
+        if (continuation != null) {
+            Object[] keys = KeysetToken.decode(continuation, keyColumns.size());
+            List<ParameterValue> parameters = new ArrayList<>(keys.length);
+            for (Object key : keys) {
+                parameters.add(JDBC.object(key));
+            }
+
+            WhereClause keyset = new SimpleWhereClause(keysetCondition, parameters);
+            where = filter == null ? keyset : new AndWhereClause(filter, keyset);
+        }
+
+        // AND with the select's own where clause, which must hold on every page
+        SelectBuilder builder = select;
+        if (where != null) {
+            builder = builder.andWhere(where);
+        }
+
+        String direction = descending ? " DESC" : "";
+        String[] orderBy = new String[keyColumns.size()];
+        for (int i = 0; i < orderBy.length; i++) {
+            orderBy[i] = keyColumns.get(i) + direction;
+        }
+
+        // Fetch one extra row to learn whether there is a following page
+        return builder.orderBy(orderBy).limit(PostgreSQL.limit(pageSize + 1L)).build();
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPager{" + "select=" + select + ", filter=" + filter + ", keyColumns=" + keyColumns
+                + ", descending=" + descending + ", pageSize=" + pageSize + '}';
+    }
+
+    /**
+     * Maps up to a page of rows, remembering the keys of the last one.
+     */
+    private final class PageHandler implements ResultSetHandler<KeysetPage<T>> {
+
+        @Override
+        public KeysetPage<T> processResultSet(ResultSet resultSet) throws SQLException {
+            List<T> rows = new ArrayList<>(pageSize);
+            Object[] keys = new Object[keyLabels.size()];
+            boolean more = false;
+
+            for (long rowNumber = 0; resultSet.next(); rowNumber++) {
+                if (rowNumber == pageSize) {
+                    more = true;
+                    break;
+                }
+
+                rows.add(rowMapper.processRow(resultSet, rowNumber));
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = resultSet.getObject(keyLabels.get(i));
+                }
+            }
+
+            return new KeysetPage<>(rows, more ? KeysetToken.encode(keys) : null);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes the key values of the last row of a page as an opaque, URL-safe
+ * continuation token, and decodes them again.
+ * <p>
+ * Only simple value types are supported, and tokens are decoded without Java
+ * serialization, so a token supplied by an untrusted client cannot instantiate
+ * arbitrary classes.
+ */
+final class KeysetToken {
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 'N';
+    private static final byte INTEGER = 'I';
+    private static final byte LONG = 'L';
+    private static final byte STRING = 'S';
+    private static final byte UUID_VALUE = 'U';
+    private static final byte TIMESTAMP = 'T';
+    private static final byte DATE = 'D';
+    private static final byte DECIMAL = 'M';
+
+    static String encode(Object[] keys) {
+        assert keys != null : "keys is null!";
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * keys.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(keys.length);
+            for (Object key : keys) {
+                write(out, key);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write to memory", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    static Object[] decode(String token, int keyCount) {
+        assert token != null : "token is null!";
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION || in.readByte() != keyCount) {
+                throw new IllegalArgumentException("The continuation token does not match this pager");
+            }
+
+            Object[] keys = new Object[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = read(in);
+            }
+            return keys;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Object key) throws IOException {
+        if (key == null) {
+            out.writeByte(NULL);
+        } else if (key instanceof Integer || key instanceof Short) {
+            out.writeByte(INTEGER);
+            out.writeInt(((Number) key).intValue());
+        } else if (key instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) key);
+        } else if (key instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) key);
+        } else if (key instanceof UUID) {
+            out.writeByte(UUID_VALUE);
+            out.writeLong(((UUID) key).getMostSignificantBits());
+            out.writeLong(((UUID) key).getLeastSignificantBits());
+        } else if (key instanceof Timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) key).getTime());
+            out.writeInt(((Timestamp) key).getNanos());
+        } else if (key instanceof Date) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) key).getTime());
+        } else if (key instanceof BigDecimal) {
+            out.writeByte(DECIMAL);
+            out.writeUTF(key.toString());
+        } else {
+            throw new IllegalArgumentException("Unsupported key type: " + key.getClass().getName());
+        }
+    }
+
+    private static Object read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+        case NULL:
+            return null;
+        case INTEGER:
+            return in.readInt();
+        case LONG:
+            return in.readLong();
+        case STRING:
+            return in.readUTF();
+        case UUID_VALUE:
+            return new UUID(in.readLong(), in.readLong());
+        case TIMESTAMP:
+            Timestamp timestamp = new Timestamp(in.readLong());
+            timestamp.setNanos(in.readInt());
+            return timestamp;
+        case DATE:
+            return new Date(in.readLong());
+        case DECIMAL:
+            return new BigDecimal(in.readUTF());
+        default:
+            throw new IllegalArgumentException("Unknown key type: " + type);
+        }
+    }
+
+    private KeysetToken() {
+        // KeysetToken is a utility class and should not be instantiated
+    }
+}
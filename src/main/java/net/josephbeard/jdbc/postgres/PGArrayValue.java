@@ -0,0 +1,130 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * A PostgreSQL array {@link ParameterValue} bound as an array literal (for
+ * example, <code>{1,2,3}</code>).
+ * <p>
+ * The literal is rendered once, when the value is created, and bound with an
+ * unspecified type, so binding requires neither boxing the elements nor
+ * {@link java.sql.Connection#createArrayOf(String, Object[])}. The server
+ * infers the array type from its context, such as {@code column = ANY(?)}.
+ */
+final class PGArrayValue implements ParameterValue {
+
+    private final String typeName;
+
+    private final String literal;
+
+    PGArrayValue(String typeName, String literal) {
+        assert typeName != null : "typeName is null!";
+        assert literal != null : "literal is null!";
+        this.typeName = typeName;
+        this.literal = literal;
+    }
+
+    static PGArrayValue of(int[] elements) {
+        assert elements != null : "elements is null!";
+
+        StringBuilder literal = new StringBuilder(2 + elements.length * 8).append('{');
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(elements[i]);
+        }
+        return new PGArrayValue("int4", literal.append('}').toString());
+    }
+
+    static PGArrayValue of(long[] elements) {
+        assert elements != null : "elements is null!";
+
+        StringBuilder literal = new StringBuilder(2 + elements.length * 12).append('{');
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(elements[i]);
+        }
+        return new PGArrayValue("int8", literal.append('}').toString());
+    }
+
+    static PGArrayValue of(UUID[] elements) {
+        assert elements != null : "elements is null!";
+
+        StringBuilder literal = new StringBuilder(2 + elements.length * 37).append('{');
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(elements[i] == null ? "NULL" : elements[i].toString());
+        }
+        return new PGArrayValue(PostgreSQL.UUID_TYPE, literal.append('}').toString());
+    }
+
+    static PGArrayValue of(String[] elements) {
+        assert elements != null : "elements is null!";
+
+        StringBuilder literal = new StringBuilder(2 + elements.length * 16).append('{');
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+
+            String element = elements[i];
+            if (element == null) {
+                literal.append("NULL");
+                continue;
+            }
+
+            literal.append('"');
+            for (int j = 0; j < element.length(); j++) {
+                char c = element.charAt(j);
+                if (c == '"' || c == '\\') {
+                    literal.append('\\');
+                }
+                literal.append(c);
+            }
+            literal.append('"');
+        }
+        return new PGArrayValue("text", literal.append('}').toString());
+    }
+
+    @Override
+    public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+        statement.setObject(parameterIndex, literal, Types.OTHER);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        PGArrayValue that = (PGArrayValue) o;
+
+        return typeName.equals(that.typeName) && literal.equals(that.literal);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = typeName.hashCode();
+        result = 31 * result + literal.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + typeName + "[])" + literal;
+    }
+}
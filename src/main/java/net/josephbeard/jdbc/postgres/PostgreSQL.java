@@ -1,14 +1,18 @@
 package net.josephbeard.jdbc.postgres;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.Validate;
 import org.postgresql.util.PGobject;
 
 import net.josephbeard.jdbc.JDBC;
 import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.sql.CountEstimator;
 import net.josephbeard.jdbc.sql.LimitClause;
 import net.josephbeard.jdbc.sql.OffsetClause;
 
@@ -32,20 +36,48 @@ public abstract class PostgreSQL {
      */
     public static final String JSONB_TYPE = "jsonb";
 
+    /**
+     * A typed SQL {@code NULL} which the driver sends with an unspecified type, so
+     * that the server infers the type from its context.
+     */
+    private static final ParameterValue NULL_VALUE = JDBC.nullValue(Types.OTHER);
+
+    /**
+     * Return a {@code uuid} {@link ParameterValue}. The value is bound natively by
+     * the driver.
+     *
+     * @param value
+     *            the value
+     * @return the uuid parameter
+     * @throws SQLException
+     *             never; retained for compatibility
+     */
     public static ParameterValue uuid(UUID value) throws SQLException {
         if (value == null) {
-            return JDBC.nullValue(Types.JAVA_OBJECT); // TODO The PostgreSQL driver probably has something better
+            return NULL_VALUE;
         }
-
-        PGobject object = new PGobject();
-        object.setType(UUID_TYPE);
-        object.setValue(value.toString());
-        return new PGobjectValue(object);
+        return new UuidValue(value);
     }
 
+    /**
+     * Return a {@code json} {@link ParameterValue}. The whole document is held in
+     * memory as a {@link String}.
+     * <p>
+     * To bind a document from a {@link java.io.Reader} instead, use
+     * {@link JDBC#characterStream(java.io.Reader, long)} with an explicit cast in
+     * the SQL, such as {@code ?::json}, since a character stream is sent as
+     * {@code varchar}. The driver (42.1.x) still reads the stream into memory
+     * before sending it.
+     *
+     * @param value
+     *            the JSON document
+     * @return the json parameter
+     * @throws SQLException
+     *             if an error occurs
+     */
     public static ParameterValue json(String value) throws SQLException {
         if (value == null) {
-            return JDBC.nullValue(Types.JAVA_OBJECT); // TODO The PostgreSQL driver probably has something better
+            return NULL_VALUE;
         }
         PGobject object = new PGobject();
         object.setType(JSON_TYPE);
@@ -53,9 +85,25 @@ public abstract class PostgreSQL {
         return new PGobjectValue(object);
     }
 
+    /**
+     * Return a {@code jsonb} {@link ParameterValue}. The whole document is held in
+     * memory as a {@link String}.
+     * <p>
+     * To bind a document from a {@link java.io.Reader} instead, use
+     * {@link JDBC#characterStream(java.io.Reader, long)} with an explicit cast in
+     * the SQL, such as {@code ?::jsonb}, since a character stream is sent as
+     * {@code varchar}. The driver (42.1.x) still reads the stream into memory
+     * before sending it.
+     *
+     * @param value
+     *            the JSON document
+     * @return the jsonb parameter
+     * @throws SQLException
+     *             if an error occurs
+     */
     public static ParameterValue jsonb(String value) throws SQLException {
         if (value == null) {
-            return JDBC.nullValue(Types.JAVA_OBJECT); // TODO The PostgreSQL driver probably has something better
+            return NULL_VALUE;
         }
         PGobject object = new PGobject();
         object.setType(JSONB_TYPE);
@@ -63,6 +111,168 @@ public abstract class PostgreSQL {
         return new PGobjectValue(object);
     }
 
+    /**
+     * Read a {@code uuid} column from the current row of the {@link ResultSet}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnIndex
+     *            the column index
+     * @return the value, or {@code null} if the column is SQL {@code NULL}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public static UUID getUUID(ResultSet resultSet, int columnIndex) throws SQLException {
+        return toUUID(resultSet.getObject(columnIndex));
+    }
+
+    /**
+     * Read a {@code uuid} column from the current row of the {@link ResultSet}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnLabel
+     *            the column label
+     * @return the value, or {@code null} if the column is SQL {@code NULL}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public static UUID getUUID(ResultSet resultSet, String columnLabel) throws SQLException {
+        return toUUID(resultSet.getObject(columnLabel));
+    }
+
+    private static UUID toUUID(Object value) {
+        if (value == null || value instanceof UUID) {
+            // The driver decodes uuid columns directly
+            return (UUID) value;
+        }
+        // Columns of other types (such as text) are parsed
+        return UUID.fromString(value.toString());
+    }
+
+    /**
+     * Read a {@code json} or {@code jsonb} column from the current row of the
+     * {@link ResultSet} as text, without the intermediate {@link PGobject} created
+     * by {@link ResultSet#getObject(int)}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnIndex
+     *            the column index
+     * @return the JSON text, or {@code null} if the column is SQL {@code NULL}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public static String getJson(ResultSet resultSet, int columnIndex) throws SQLException {
+        return resultSet.getString(columnIndex);
+    }
+
+    /**
+     * Read a {@code json} or {@code jsonb} column from the current row of the
+     * {@link ResultSet} as text, without the intermediate {@link PGobject} created
+     * by {@link ResultSet#getObject(String)}.
+     *
+     * @param resultSet
+     *            the result set
+     * @param columnLabel
+     *            the column label
+     * @return the JSON text, or {@code null} if the column is SQL {@code NULL}
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public static String getJson(ResultSet resultSet, String columnLabel) throws SQLException {
+        return resultSet.getString(columnLabel);
+    }
+
+    /**
+     * Return an {@code integer[]} {@link ParameterValue} suitable for
+     * {@code column = ANY(?)}. The elements are bound as an array literal without
+     * boxing.
+     *
+     * @param elements
+     *            the elements
+     * @return the array parameter
+     */
+    public static ParameterValue intArray(int... elements) {
+        if (elements == null) {
+            return NULL_VALUE;
+        }
+        return PGArrayValue.of(elements);
+    }
+
+    /**
+     * Return a {@code bigint[]} {@link ParameterValue} suitable for
+     * {@code column = ANY(?)}. The elements are bound as an array literal without
+     * boxing.
+     *
+     * @param elements
+     *            the elements
+     * @return the array parameter
+     */
+    public static ParameterValue longArray(long... elements) {
+        if (elements == null) {
+            return NULL_VALUE;
+        }
+        return PGArrayValue.of(elements);
+    }
+
+    /**
+     * Return a {@code uuid[]} {@link ParameterValue} suitable for
+     * {@code column = ANY(?)}.
+     *
+     * @param elements
+     *            the elements
+     * @return the array parameter
+     */
+    public static ParameterValue uuidArray(UUID... elements) {
+        if (elements == null) {
+            return NULL_VALUE;
+        }
+        return PGArrayValue.of(elements);
+    }
+
+    /**
+     * Return a {@code text[]} {@link ParameterValue} suitable for
+     * {@code column = ANY(?)}.
+     *
+     * @param elements
+     *            the elements
+     * @return the array parameter
+     */
+    public static ParameterValue textArray(String... elements) {
+        if (elements == null) {
+            return NULL_VALUE;
+        }
+        return PGArrayValue.of(elements);
+    }
+
+    /**
+     * Pattern for the estimated rows of the top plan node in
+     * {@code EXPLAIN (FORMAT JSON)} output.
+     */
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+    /**
+     * Return a {@link CountEstimator} that reads the planner's row estimate from
+     * {@code EXPLAIN (FORMAT JSON)} without executing the query. The estimate is
+     * only as good as the table statistics maintained by {@code ANALYZE}.
+     *
+     * @return the count estimator
+     */
+    public static CountEstimator plannerEstimate() {
+        return (jdbcTemplate, query) -> {
+            String plan = jdbcTemplate.selectOne("EXPLAIN (FORMAT JSON) " + query.getSql(),
+                    (resultSet, rowNumber) -> resultSet.getString(1), query.getParameters())
+                    .orElseThrow(() -> new SQLException("EXPLAIN returned no plan"));
+
+            Matcher matcher = PLAN_ROWS.matcher(plan);
+            if (!matcher.find()) {
+                throw new SQLException("EXPLAIN returned no row estimate: " + plan);
+            }
+            return Long.parseLong(matcher.group(1));
+        };
+    }
+
     /**
      * Return an {@link OffsetClause} in the PostgreSQL SQL dialect.
      * 
@@ -70,7 +280,7 @@ public abstract class PostgreSQL {
      *            the offset
      * @return the offset clause
      */
-    public OffsetClause offset(long offset) {
+    public static OffsetClause offset(long offset) {
         // Yes, zero is a valid (weird) value
         Validate.isTrue(offset >= 0L, "The offset must not be negative");
 
@@ -84,7 +294,7 @@ public abstract class PostgreSQL {
      *            the limit
      * @return the limit clause
      */
-    public LimitClause limit(long limit) {
+    public static LimitClause limit(long limit) {
         // Yes, zero is a valid (weird) value
         Validate.isTrue(limit >= 0L, "The limit must not be negative");
 
@@ -26,7 +26,7 @@ class PostgreSQLLimitClause implements LimitClause {
     }
 
     public String toSql() {
-        return " OFFSET ?";
+        return " LIMIT ?";
     }
 
     @Override
@@ -36,7 +36,7 @@ class PostgreSQLLimitClause implements LimitClause {
 
     @Override
     public String toString() {
-        return " OFFSET " + value;
+        return " LIMIT " + value;
     }
 
     @Override
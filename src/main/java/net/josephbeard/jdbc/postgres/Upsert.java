@@ -0,0 +1,251 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.sql.MultiRowInsert;
+
+/**
+ * A multi-row PostgreSQL upsert, which inserts rows or updates those whose keys
+ * already exist in a single statement:
+ *
+ * <pre>
+ * INSERT INTO table (k, v) VALUES (?, ?), (?, ?)
+ *     ON CONFLICT (k) DO UPDATE SET v = EXCLUDED.v
+ *     WHERE (table.v) IS DISTINCT FROM (EXCLUDED.v)
+ *     RETURNING (xmax = 0)
+ * </pre>
+ *
+ * This replaces a select followed by an insert or update with one round trip
+ * per group of rows, and does not race with concurrent writers. Rows are sent
+ * in power of two groups, as by {@link MultiRowInsert}. Each row holds the
+ * values of the key columns followed by those of the value columns.
+ * <p>
+ * A returned row's {@code xmax} system column is zero only when the row was
+ * inserted, which distinguishes inserts from updates in the
+ * {@link UpsertResult}. Rows whose values are unchanged are not rewritten, so
+ * they create no dead tuples; with no value columns, conflicting rows are
+ * skipped with {@code DO NOTHING}.
+ * <p>
+ * A key may appear only once among the rows of a single call, since PostgreSQL
+ * rejects a statement which would update the same row twice.
+ */
+public final class Upsert {
+
+    private final MultiRowInsert insert;
+
+    private final List<String> keyColumns;
+
+    private final List<String> valueColumns;
+
+    private final String conflictClause;
+
+    /**
+     * Rendered SQL indexed by the base-2 logarithm of the group size.
+     */
+    private final String[] statements;
+
+    public Upsert(String table, List<String> keyColumns, List<String> valueColumns) {
+        this(keyColumns, valueColumns, new MultiRowInsert(table, columns(keyColumns, valueColumns)));
+    }
+
+    private Upsert(List<String> keyColumns, List<String> valueColumns, MultiRowInsert insert) {
+        this.insert = insert;
+        this.keyColumns = Collections.unmodifiableList(new ArrayList<>(keyColumns));
+        this.valueColumns = Collections.unmodifiableList(new ArrayList<>(valueColumns));
+        this.conflictClause = renderConflictClause(insert.getTable(), keyColumns, valueColumns);
+        this.statements = new String[Integer.numberOfTrailingZeros(insert.getMaxGroupSize()) + 1];
+        for (int i = 0; i < statements.length; i++) {
+            statements[i] = insert.toSql(1 << i) + conflictClause;
+        }
+    }
+
+    private static List<String> columns(List<String> keyColumns, List<String> valueColumns) {
+        Validate.notEmpty(keyColumns, "The keyColumns must not be empty");
+        Validate.noNullElements(keyColumns, "The keyColumns must not be null");
+        Validate.notNull(valueColumns, "The valueColumns must not be null");
+        Validate.noNullElements(valueColumns, "The valueColumns must not be null");
+
+        List<String> columns = new ArrayList<>(keyColumns.size() + valueColumns.size());
+        columns.addAll(keyColumns);
+        columns.addAll(valueColumns);
+        return columns;
+    }
+
+    private static String renderConflictClause(String table, List<String> keyColumns, List<String> valueColumns) {
+        StringBuilder sql = new StringBuilder(" ON CONFLICT (").append(String.join(", ", keyColumns)).append(')');
+        if (valueColumns.isEmpty()) {
+            sql.append(" DO NOTHING");
+        } else {
+            List<String> assignments = new ArrayList<>(valueColumns.size());
+            List<String> current = new ArrayList<>(valueColumns.size());
+            List<String> excluded = new ArrayList<>(valueColumns.size());
+            for (String column : valueColumns) {
+                assignments.add(column + " = EXCLUDED." + column);
+                current.add(table + "." + column);
+                excluded.add("EXCLUDED." + column);
+            }
+
+            sql.append(" DO UPDATE SET ").append(String.join(", ", assignments));
+            // ROW() keeps a single column a row, so IS DISTINCT FROM compares rows
+            sql.append(" WHERE ROW(").append(String.join(", ", current)).append(") IS DISTINCT FROM ROW(")
+                    .append(String.join(", ", excluded)).append(')');
+        }
+        return sql.append(" RETURNING (xmax = 0) AS inserted").toString();
+    }
+
+    /**
+     * Return a copy of this {@link Upsert} that binds no more than
+     * {@code maxParameters} parameters in a single statement.
+     *
+     * @param maxParameters
+     *            the bind parameter limit of the driver
+     * @return the upsert
+     */
+    public Upsert withMaxParameters(int maxParameters) {
+        return new Upsert(keyColumns, valueColumns, insert.withMaxParameters(maxParameters));
+    }
+
+    /**
+     * Return a copy of this {@link Upsert} that writes no more than
+     * {@code maxRows} rows in a single statement.
+     *
+     * @param maxRows
+     *            the maximum rows per statement
+     * @return the upsert
+     */
+    public Upsert withMaxRows(int maxRows) {
+        return new Upsert(keyColumns, valueColumns, insert.withMaxRows(maxRows));
+    }
+
+    public String getTable() {
+        return insert.getTable();
+    }
+
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    public List<String> getValueColumns() {
+        return valueColumns;
+    }
+
+    /**
+     * Return the SQL for a statement that upserts {@code groupSize} rows.
+     *
+     * @param groupSize
+     *            the number of rows, which must be a power of two no larger than
+     *            {@link MultiRowInsert#getMaxGroupSize()}
+     * @return the SQL statement
+     */
+    public String toSql(int groupSize) {
+        Validate.isTrue(groupSize > 0 && Integer.bitCount(groupSize) == 1 && groupSize <= insert.getMaxGroupSize(),
+                "The groupSize must be a power of two no larger than %d", insert.getMaxGroupSize());
+
+        return statements[Integer.numberOfTrailingZeros(groupSize)];
+    }
+
+    /**
+     * Upsert the {@code rows}, obtaining a connection from the
+     * {@link JdbcTemplate}. The groups are not executed within a transaction;
+     * use {@link #execute(JdbcTemplate, Connection, List)} from within
+     * {@link JdbcTemplate#doInTransaction(net.josephbeard.jdbc.ConnectionCallback)}
+     * if all rows must be written atomically.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param rows
+     *            the rows, each with the key values followed by the other values
+     * @return the counts of inserted, updated and unchanged rows
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public UpsertResult execute(JdbcTemplate jdbcTemplate, List<? extends List<ParameterValue>> rows)
+            throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(rows, "The rows must not be null");
+
+        if (rows.isEmpty()) {
+            return new UpsertResult(0, 0, 0);
+        }
+        return jdbcTemplate.withConnection(connection -> execute(jdbcTemplate, connection, rows));
+    }
+
+    /**
+     * Upsert the {@code rows} on the {@link Connection}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param jdbcTemplate
+     *            the template used to prepare each statement
+     * @param connection
+     *            an open connection
+     * @param rows
+     *            the rows, each with the key values followed by the other values
+     * @return the counts of inserted, updated and unchanged rows
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public UpsertResult execute(JdbcTemplate jdbcTemplate, Connection connection,
+            List<? extends List<ParameterValue>> rows) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notNull(rows, "The rows must not be null");
+
+        int columnCount = keyColumns.size() + valueColumns.size();
+        UpsertResult result = new UpsertResult(0, 0, 0);
+        int remaining = rows.size();
+        Iterator<? extends List<ParameterValue>> iterator = rows.iterator();
+        while (remaining > 0) {
+            int groupSize = Math.min(Integer.highestOneBit(remaining), insert.getMaxGroupSize());
+
+            List<ParameterValue> params = new ArrayList<>(groupSize * columnCount);
+            for (int i = 0; i < groupSize; i++) {
+                List<ParameterValue> row = iterator.next();
+                Validate.isTrue(row.size() == columnCount, "Expected %d values per row but received %d.",
+                        columnCount, row.size());
+                params.addAll(row);
+            }
+
+            int size = groupSize;
+            try (PreparedStatement st = jdbcTemplate.prepareStatement(connection, toSql(groupSize), params)) {
+                result = result.plus(jdbcTemplate.query(st, resultSet -> count(resultSet, size)));
+            }
+            remaining -= groupSize;
+        }
+        return result;
+    }
+
+    private static UpsertResult count(ResultSet resultSet, int groupSize) throws SQLException {
+        int inserted = 0;
+        int updated = 0;
+        while (resultSet.next()) {
+            if (resultSet.getBoolean(1)) {
+                inserted++;
+            } else {
+                updated++;
+            }
+        }
+        return new UpsertResult(inserted, updated, groupSize - inserted - updated);
+    }
+
+    @Override
+    public String toString() {
+        return "Upsert{" + "table='" + getTable() + '\'' + ", keyColumns=" + keyColumns + ", valueColumns="
+                + valueColumns + '}';
+    }
+
+}
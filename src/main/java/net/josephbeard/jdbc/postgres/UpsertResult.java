@@ -0,0 +1,75 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+/**
+ * The outcome of an {@link Upsert}: how many rows were inserted, how many
+ * existing rows were updated, and how many were left unchanged.
+ */
+public final class UpsertResult {
+
+    private final int inserted;
+
+    private final int updated;
+
+    private final int unchanged;
+
+    UpsertResult(int inserted, int updated, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Return the number of rows which conflicted with an existing row but were
+     * not updated, because no value differed or the upsert does not update.
+     *
+     * @return the number of unchanged rows
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public int getTotal() {
+        return inserted + updated + unchanged;
+    }
+
+    UpsertResult plus(UpsertResult other) {
+        assert other != null : "other is null!";
+        return new UpsertResult(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        UpsertResult that = (UpsertResult) o;
+
+        return inserted == that.inserted && updated == that.updated && unchanged == that.unchanged;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = inserted;
+        result = 31 * result + updated;
+        result = 31 * result + unchanged;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "UpsertResult{" + "inserted=" + inserted + ", updated=" + updated + ", unchanged=" + unchanged + '}';
+    }
+}
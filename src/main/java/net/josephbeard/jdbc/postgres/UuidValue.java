@@ -0,0 +1,53 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.postgres;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * A {@link UUID} {@link ParameterValue}, bound natively by the PostgreSQL
+ * driver without an intermediate {@link org.postgresql.util.PGobject} or
+ * string form.
+ */
+final class UuidValue implements ParameterValue {
+
+    private final UUID value;
+
+    UuidValue(UUID value) {
+        assert value != null : "value is null!";
+        this.value = value;
+    }
+
+    @Override
+    public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+        statement.setObject(parameterIndex, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        UuidValue that = (UuidValue) o;
+
+        return value.equals(that.value);
+
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "(UUID)" + value;
+    }
+}
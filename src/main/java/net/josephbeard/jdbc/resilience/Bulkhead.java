@@ -0,0 +1,422 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.RowConsumer;
+
+/**
+ * Partitions the connections of a shared {@link ConnectionProvider} between
+ * named {@link Workload workloads}, so that one kind of work, such as a
+ * backfill, cannot starve another, such as user requests. For example:
+ *
+ * <pre>
+ * Bulkhead bulkhead = new Bulkhead(pool, 20, Arrays.asList(
+ *         new Workload("oltp", 12, 20).withPriority(10),
+ *         new Workload("batch", 2, 6).withRowsPerSecond(5000)));
+ *
+ * JdbcTemplate oltp = new JdbcTemplate(bulkhead.forWorkload("oltp"));
+ * JdbcTemplate batch = new JdbcTemplate(bulkhead.forWorkload("batch"));
+ * batch.forEach("SELECT * FROM events", bulkhead.throttle("batch", eventConsumer));
+ * </pre>
+ *
+ * Of the {@code capacity} connections, each workload's reserved connections are
+ * available only to it, and the rest are shared by all workloads up to their
+ * caps. When no connection is available a workload waits, up to its maximum
+ * wait or the {@link Deadline} in scope, whichever is sooner; as connections are
+ * returned they go to the waiting workloads of highest priority first, and in
+ * arrival order within a priority.
+ * <p>
+ * The {@code capacity} should not exceed the size of the underlying pool.
+ * Instances are thread-safe.
+ */
+public final class Bulkhead implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Bulkhead.class);
+
+    private static final Comparator<Waiter> WAITER_ORDER = Comparator
+            .comparingInt((Waiter waiter) -> -waiter.partition.workload.getPriority())
+            .thenComparingLong(waiter -> waiter.sequence);
+
+    private final ConnectionProvider delegate;
+
+    private final int capacity;
+
+    /**
+     * The number of connections not reserved by any workload.
+     */
+    private final int shared;
+
+    private final Map<String, Partition> partitions;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // The following fields are guarded by the lock
+
+    private final TreeSet<Waiter> waiters = new TreeSet<>(WAITER_ORDER);
+
+    private long sequence;
+
+    /**
+     * The number of shared connections in use.
+     */
+    private int borrowed;
+
+    public Bulkhead(ConnectionProvider delegate, int capacity, List<Workload> workloads) {
+        Validate.notNull(delegate, "The delegate must not be null");
+        Validate.isTrue(capacity > 0, "The capacity must be positive");
+        Validate.notEmpty(workloads, "The workloads must not be empty");
+        Validate.noNullElements(workloads, "The workloads must not be null");
+
+        Map<String, Partition> partitions = new LinkedHashMap<>();
+        int reserved = 0;
+        for (Workload workload : workloads) {
+            Validate.isTrue(workload.getCap() <= capacity, "The cap of workload '%s' exceeds the capacity",
+                    workload.getName());
+            Validate.isTrue(partitions.put(workload.getName(), new Partition(workload)) == null,
+                    "Workload '%s' is defined twice", workload.getName());
+            reserved += workload.getReserved();
+        }
+        Validate.isTrue(reserved <= capacity, "The reserved connections (%d) exceed the capacity (%d)", reserved,
+                capacity);
+
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.shared = capacity - reserved;
+        this.partitions = Collections.unmodifiableMap(partitions);
+    }
+
+    /**
+     * Return a {@link ConnectionProvider} which provides connections for the
+     * named workload. Closing a provided connection returns it to the bulkhead;
+     * closing the provider itself has no effect.
+     *
+     * @param workload
+     *            the workload name
+     * @return the provider
+     * @throws IllegalArgumentException
+     *             if there is no such workload
+     */
+    public ConnectionProvider forWorkload(String workload) {
+        return partition(workload).provider;
+    }
+
+    /**
+     * Return a {@link RowConsumer} which paces the rows passed to the
+     * {@code consumer} to the named workload's rows per second, shared by all of
+     * its throttled consumers. If the workload is not throttled the
+     * {@code consumer} is returned unchanged.
+     *
+     * @param workload
+     *            the workload name
+     * @param consumer
+     *            the consumer to throttle
+     * @return the throttled consumer
+     * @throws IllegalArgumentException
+     *             if there is no such workload
+     */
+    public RowConsumer throttle(String workload, RowConsumer consumer) {
+        Validate.notNull(consumer, "The consumer must not be null");
+
+        RowThrottle throttle = partition(workload).throttle;
+        return throttle == null ? consumer : throttle.wrap(consumer);
+    }
+
+    /**
+     * Return a snapshot of the connection use of the named workload.
+     *
+     * @param workload
+     *            the workload name
+     * @return the statistics
+     * @throws IllegalArgumentException
+     *             if there is no such workload
+     */
+    public WorkloadStats getStats(String workload) {
+        Partition partition = partition(workload);
+        lock.lock();
+        try {
+            return partition.stats();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a snapshot of the connection use of every workload.
+     *
+     * @return the statistics by workload name
+     */
+    public Map<String, WorkloadStats> getStats() {
+        Map<String, WorkloadStats> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Partition partition : partitions.values()) {
+                stats.put(partition.workload.getName(), partition.stats());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    /**
+     * Close the underlying {@link ConnectionProvider}.
+     *
+     * @throws SQLException
+     *             if an error occurs while closing
+     */
+    @Override
+    public void close() throws SQLException {
+        delegate.close();
+    }
+
+    private Partition partition(String workload) {
+        Partition partition = partitions.get(workload);
+        Validate.isTrue(partition != null, "No workload named '%s'.", workload);
+        return partition;
+    }
+
+    private Connection getConnection(Partition partition) throws SQLException {
+        acquire(partition);
+        try {
+            Connection connection = delegate.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new ReleasingHandler(connection, partition));
+        } catch (Throwable t) {
+            release(partition);
+            throw t;
+        }
+    }
+
+    /**
+     * Wait until the partition may take a connection, and take it.
+     */
+    private void acquire(Partition partition) throws SQLException {
+        long start = System.nanoTime();
+        long timeoutNanos = partition.workload.getMaxWait().toNanos();
+        Optional<Deadline> deadline = Deadline.current();
+        boolean deadlineFirst = deadline.isPresent() && deadline.get().remainingNanos() < timeoutNanos;
+        if (deadlineFirst) {
+            timeoutNanos = deadline.get().remainingNanos();
+        }
+
+        lock.lock();
+        try {
+            if (canTake(partition)) {
+                take(partition);
+                partition.acquired++;
+                return;
+            }
+
+            Waiter waiter = new Waiter(partition, sequence++, lock.newCondition());
+            waiters.add(waiter);
+            partition.waiting++;
+            try {
+                long remainingNanos = timeoutNanos;
+                while (!waiter.granted) {
+                    if (remainingNanos <= 0L) {
+                        waiters.remove(waiter);
+                        partition.recordWait(System.nanoTime() - start, false);
+                        String message = String.format("Timed out after %dms waiting for a connection for workload '%s'",
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), partition.workload.getName());
+                        throw deadlineFirst ? new SQLTimeoutException(message)
+                                : new SQLTransientConnectionException(message);
+                    }
+                    remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                }
+                partition.recordWait(System.nanoTime() - start, true);
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    release(partition);
+                } else {
+                    waiters.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection", e);
+            } finally {
+                partition.waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Partition partition) {
+        lock.lock();
+        try {
+            partition.inUse--;
+            if (partition.inUse >= partition.workload.getReserved()) {
+                borrowed--;
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand available connections to the waiters in priority order.
+     */
+    private void dispatch() {
+        assert lock.isHeldByCurrentThread() : "lock is not held!";
+
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext();) {
+            Waiter waiter = it.next();
+            if (canTake(waiter.partition)) {
+                take(waiter.partition);
+                waiter.granted = true;
+                waiter.condition.signal();
+                it.remove();
+            }
+        }
+    }
+
+    private boolean canTake(Partition partition) {
+        return partition.inUse < partition.workload.getCap()
+                && (partition.inUse < partition.workload.getReserved() || borrowed < shared);
+    }
+
+    private void take(Partition partition) {
+        if (partition.inUse >= partition.workload.getReserved()) {
+            borrowed++;
+        }
+        partition.inUse++;
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" + "capacity=" + capacity + ", workloads=" + partitions.keySet() + '}';
+    }
+
+    /**
+     * The state of one workload, guarded by the bulkhead's lock.
+     */
+    private final class Partition {
+
+        private final Workload workload;
+
+        private final RowThrottle throttle;
+
+        private final ConnectionProvider provider = () -> getConnection(this);
+
+        private int inUse;
+
+        private int waiting;
+
+        private long acquired;
+
+        private long timedOut;
+
+        private long totalWaitNanos;
+
+        private long maxWaitNanos;
+
+        Partition(Workload workload) {
+            this.workload = workload;
+            this.throttle = workload.getRowsPerSecond() > 0.0 ? new RowThrottle(workload.getRowsPerSecond()) : null;
+        }
+
+        void recordWait(long waitNanos, boolean wasAcquired) {
+            if (wasAcquired) {
+                acquired++;
+            } else {
+                timedOut++;
+            }
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            LOGGER.debug("Workload '{}' waited {}us for a connection", workload.getName(),
+                    TimeUnit.NANOSECONDS.toMicros(waitNanos));
+        }
+
+        WorkloadStats stats() {
+            return new WorkloadStats(workload.getName(), inUse, waiting, acquired, timedOut, totalWaitNanos,
+                    maxWaitNanos);
+        }
+    }
+
+    /**
+     * A thread waiting for a connection.
+     */
+    private static final class Waiter {
+
+        private final Partition partition;
+
+        private final long sequence;
+
+        private final Condition condition;
+
+        private boolean granted;
+
+        Waiter(Partition partition, long sequence, Condition condition) {
+            this.partition = partition;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * Returns the connection to the bulkhead when it is first closed.
+     */
+    private final class ReleasingHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private final Partition partition;
+
+        private boolean released;
+
+        ReleasingHandler(Connection connection, Partition partition) {
+            this.connection = connection;
+            this.partition = partition;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                try {
+                    connection.close();
+                } finally {
+                    synchronized (this) {
+                        if (!released) {
+                            released = true;
+                            release(partition);
+                        }
+                    }
+                }
+                return null;
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JdbcCallable;
+import net.josephbeard.jdbc.JdbcRunnable;
+
+/**
+ * Limits the database work in flight to a limit which adapts to the observed
+ * latency, so that a slowing database is given less work rather than more and
+ * throughput stays near its peak instead of collapsing. For example:
+ *
+ * <pre>
+ * ConcurrencyLimiter limiter = new ConcurrencyLimiter().withQueue(50, Duration.ofMillis(100))
+ *         .withLimitListener(limitGauge::set);
+ *
+ * List&lt;Order&gt; orders = limiter.call(() -&gt; jdbcTemplate.select(sql, orderMapper, params));
+ * </pre>
+ *
+ * The limit follows a gradient algorithm: the ratio of a slowly moving
+ * baseline latency to each new sample shrinks the limit as latency rises
+ * beyond a tolerance, while a headroom of the square root of the limit lets it
+ * grow while latency holds steady. A {@link SQLTimeoutException} cuts the limit
+ * multiplicatively. Samples taken while less than half the limit is in use say
+ * nothing about capacity and are ignored.
+ * <p>
+ * Work beyond the limit is rejected at once with a {@link SQLTransientException}
+ * or, if {@link #withQueue(int, Duration) queueing} is enabled, waits for a
+ * slot up to the maximum wait or the {@link Deadline} in scope. Freed slots go
+ * to waiting calls in arrival order, ahead of new ones. Configure the
+ * limiter with the {@code with} methods before use, as each returns a copy with
+ * fresh state. Instances are thread-safe.
+ */
+public final class ConcurrencyLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    /**
+     * How far latency may rise above the baseline before the limit shrinks.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * The weight of each new limit estimate against the current limit.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * The factor by which a timeout cuts the limit.
+     */
+    private static final double BACKOFF = 0.9;
+
+    /**
+     * The number of samples over which the baseline latency moves.
+     */
+    private static final int BASELINE_WINDOW = 600;
+
+    private static final IntConsumer NO_LISTENER = limit -> {
+    };
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int maxQueued;
+
+    private final long maxWaitNanos;
+
+    private final IntConsumer limitListener;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // The following fields are guarded by the lock
+
+    private double limit;
+
+    private double baselineNanos;
+
+    private int inFlight;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    private long rejected;
+
+    public ConcurrencyLimiter() {
+        this(20, 1, 200, 0, 0L, NO_LISTENER);
+    }
+
+    private ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueued, long maxWaitNanos,
+            IntConsumer limitListener) {
+        Validate.isTrue(minLimit >= 1, "The minLimit must be positive");
+        Validate.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "The initialLimit must be between the minLimit and maxLimit");
+        Validate.isTrue(maxQueued >= 0, "The maxQueued must not be negative");
+        Validate.isTrue(maxWaitNanos >= 0L, "The maxWait must not be negative");
+        Validate.notNull(limitListener, "The limitListener must not be null");
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWaitNanos;
+        this.limitListener = limitListener;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Return a copy of this limiter which starts at {@code initial} concurrent
+     * calls and adapts between {@code min} and {@code max} (by default 20, 1 and
+     * 200).
+     *
+     * @param initial
+     *            the initial limit
+     * @param min
+     *            the least limit
+     * @param max
+     *            the greatest limit
+     * @return the limiter
+     */
+    public ConcurrencyLimiter withLimits(int initial, int min, int max) {
+        return new ConcurrencyLimiter(initial, min, max, maxQueued, maxWaitNanos, limitListener);
+    }
+
+    /**
+     * Return a copy of this limiter in which up to {@code maxQueued} calls beyond
+     * the limit wait up to {@code maxWait} for a slot, rather than being rejected
+     * at once.
+     *
+     * @param maxQueued
+     *            the most calls which may wait
+     * @param maxWait
+     *            the longest wait
+     * @return the limiter
+     */
+    public ConcurrencyLimiter withQueue(int maxQueued, Duration maxWait) {
+        Validate.notNull(maxWait, "The maxWait must not be null");
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueued, maxWait.toNanos(),
+                limitListener);
+    }
+
+    /**
+     * Return a copy of this limiter which reports each change of the limit to the
+     * {@code limitListener}, such as a metrics gauge. The listener is called on
+     * the thread completing a call and must not block.
+     *
+     * @param limitListener
+     *            the listener
+     * @return the limiter
+     */
+    public ConcurrencyLimiter withLimitListener(IntConsumer limitListener) {
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueued, maxWaitNanos, limitListener);
+    }
+
+    /**
+     * Call the {@code callable} within the limit.
+     *
+     * @param callable
+     *            the database work
+     * @param <T>
+     *            the type of the result
+     * @return the result of the {@code callable}
+     * @throws SQLTransientException
+     *             if the limit is reached and the call cannot wait
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> T call(JdbcCallable<T> callable) throws SQLException {
+        Validate.notNull(callable, "The callable must not be null");
+
+        int inFlightAtStart = acquire();
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return callable.call();
+        } catch (SQLTimeoutException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            release(System.nanoTime() - start, inFlightAtStart, dropped);
+        }
+    }
+
+    /**
+     * Run the {@code runnable} within the limit.
+     *
+     * @param runnable
+     *            the database work
+     * @throws SQLTransientException
+     *             if the limit is reached and the call cannot wait
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public void run(JdbcRunnable runnable) throws SQLException {
+        Validate.notNull(runnable, "The runnable must not be null");
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of calls waiting for a slot.
+     *
+     * @return the number of queued calls
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of calls rejected or timed out waiting for a slot.
+     *
+     * @return the number of rejected calls
+     */
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a slot, waiting if allowed, and return the number in flight before.
+     */
+    private int acquire() throws SQLException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                return inFlight++;
+            }
+            if (waiters.size() >= maxQueued || maxWaitNanos == 0L) {
+                throw reject(new SQLTransientException("Concurrency limit of " + (int) limit + " reached"));
+            }
+
+            long timeoutNanos = maxWaitNanos;
+            Optional<Deadline> deadline = Deadline.current();
+            boolean deadlineFirst = deadline.isPresent() && deadline.get().remainingNanos() < timeoutNanos;
+            if (deadlineFirst) {
+                timeoutNanos = deadline.get().remainingNanos();
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            waiters.add(waiter);
+            try {
+                long remainingNanos = timeoutNanos;
+                while (!waiter.granted) {
+                    if (remainingNanos <= 0L) {
+                        waiters.remove(waiter);
+                        String message = "Timed out after "
+                                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                                + "ms waiting under concurrency limit of " + (int) limit;
+                        throw reject(deadlineFirst ? new SQLTimeoutException(message)
+                                : new SQLTransientException(message));
+                    }
+                    remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                }
+                return waiter.inFlightAtStart;
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    inFlight--;
+                    dispatch();
+                } else {
+                    waiters.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting under concurrency limit", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SQLException reject(SQLException e) {
+        rejected++;
+        LOGGER.debug("Rejected call: {}", e.getMessage());
+        return e;
+    }
+
+    private void release(long latencyNanos, int inFlightAtStart, boolean dropped) {
+        int before;
+        int after;
+        lock.lock();
+        try {
+            inFlight--;
+            before = (int) limit;
+            onSample(latencyNanos, inFlightAtStart, dropped);
+            after = (int) limit;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+
+        if (after != before) {
+            LOGGER.debug("Concurrency limit changed from {} to {}", before, after);
+            limitListener.accept(after);
+        }
+    }
+
+    /**
+     * Hand free slots to the waiters in arrival order.
+     */
+    private void dispatch() {
+        assert lock.isHeldByCurrentThread() : "lock is not held!";
+
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            Waiter waiter = waiters.remove();
+            waiter.inFlightAtStart = inFlight++;
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    /**
+     * Adapt the limit to a completed call.
+     */
+    // Visible for testing
+    void onSample(long latencyNanos, int inFlightAtStart, boolean dropped) {
+        lock.lock();
+        try {
+            double estimate;
+            if (dropped) {
+                estimate = limit * BACKOFF;
+            } else {
+                double latency = Math.max(1L, latencyNanos);
+                if (baselineNanos == 0.0) {
+                    baselineNanos = latency;
+                } else {
+                    baselineNanos += (latency - baselineNanos) / BASELINE_WINDOW;
+                    // Let the baseline follow a lasting drop in latency sooner
+                    if (baselineNanos > 2.0 * latency) {
+                        baselineNanos *= 0.95;
+                    }
+                }
+                if (inFlightAtStart + 1 < limit / 2.0) {
+                    return;
+                }
+
+                double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / latency));
+                estimate = limit * (1.0 - SMOOTHING) + (limit * gradient + Math.sqrt(limit)) * SMOOTHING;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, estimate));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return "ConcurrencyLimiter{" + "limit=" + (int) limit + ", inFlight=" + inFlight + ", queued="
+                    + waiters.size() + '}';
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A thread waiting for a slot.
+     */
+    private static final class Waiter {
+
+        private final Condition condition;
+
+        private boolean granted;
+
+        private int inFlightAtStart;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
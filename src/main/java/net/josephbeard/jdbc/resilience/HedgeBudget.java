@@ -0,0 +1,42 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+/**
+ * A token bucket limiting hedged requests to a fraction of all requests. Each
+ * request earns {@code ratio} of a token, up to a small burst, and each hedge
+ * spends a whole one. Instances are thread-safe.
+ */
+final class HedgeBudget {
+
+    private final double ratio;
+
+    private final double maxTokens;
+
+    private double tokens;
+
+    HedgeBudget(double ratio, double maxTokens) {
+        assert ratio >= 0.0 : "ratio is negative!";
+        assert maxTokens >= 1.0 : "maxTokens is less than one!";
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+    }
+
+    synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "HedgeBudget{" + "ratio=" + ratio + ", tokens=" + tokens + '}';
+    }
+}
@@ -0,0 +1,447 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * Issues read-only queries to a set of equivalent replicas with hedging: if the
+ * chosen replica has not answered within a delay, the same query is sent to
+ * the next replica, the first answer is returned and the other query is
+ * cancelled with {@link java.sql.Statement#cancel()}. This trims the latency
+ * tail caused by one occasionally slow replica. For example:
+ *
+ * <pre>
+ * HedgedReader reader = new HedgedReader(Arrays.asList(replica1, replica2), executor, scheduler);
+ *
+ * List&lt;Product&gt; products = reader.select("SELECT * FROM products WHERE category = ?", productMapper,
+ *         Collections.singletonList(JDBC.string(category)));
+ * </pre>
+ *
+ * The delay is the {@link #withPercentile(double) percentile} (by default the
+ * 95th) of recent response times, bounded by {@link #withDelayBounds(Duration,
+ * Duration)}; the upper bound is used until enough responses have been seen.
+ * Hedges are limited by a {@link #withBudget(double) budget}, by default 5% of
+ * requests, so that a slow cluster is not overwhelmed by extra load.
+ * <p>
+ * Queries run on the {@link Executor}, which needs two threads for each
+ * concurrent call, and hedges are timed by the
+ * {@link ScheduledExecutorService}. Every attempt runs under the
+ * {@link Deadline} of the caller, if any, and the caller stops waiting when it
+ * passes. Only statements without side effects may be hedged. Configure the
+ * reader with the {@code with} methods before use, as each returns a copy with
+ * fresh latency and budget state. Instances are thread-safe.
+ */
+public final class HedgedReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgedReader.class);
+
+    /**
+     * The number of recent response times from which the delay is computed.
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /**
+     * The most hedges which may be saved up by the budget.
+     */
+    private static final double MAX_BURST = 10.0;
+
+    private final List<JdbcTemplate> replicas;
+
+    private final Executor executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final double percentile;
+
+    private final long minDelayNanos;
+
+    private final long maxDelayNanos;
+
+    private final double budgetRatio;
+
+    private final LatencyTracker latencies;
+
+    private final HedgeBudget budget;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public HedgedReader(List<? extends ConnectionProvider> replicas, Executor executor,
+            ScheduledExecutorService scheduler) {
+        this(templates(replicas), executor, scheduler, 0.95, TimeUnit.MILLISECONDS.toNanos(1),
+                TimeUnit.MILLISECONDS.toNanos(100), 0.05);
+    }
+
+    private HedgedReader(List<JdbcTemplate> replicas, Executor executor, ScheduledExecutorService scheduler,
+            double percentile, long minDelayNanos, long maxDelayNanos, double budgetRatio) {
+        Validate.notNull(executor, "The executor must not be null");
+        Validate.notNull(scheduler, "The scheduler must not be null");
+        Validate.isTrue(percentile > 0.0 && percentile <= 1.0, "The percentile must be in (0, 1]");
+        Validate.isTrue(minDelayNanos >= 0L && minDelayNanos <= maxDelayNanos,
+                "The delay bounds must not be negative or reversed");
+        Validate.isTrue(budgetRatio >= 0.0 && budgetRatio <= 1.0, "The budget must be in [0, 1]");
+
+        this.replicas = replicas;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelayNanos;
+        this.maxDelayNanos = maxDelayNanos;
+        this.budgetRatio = budgetRatio;
+        this.latencies = new LatencyTracker(LATENCY_SAMPLES, percentile);
+        this.budget = new HedgeBudget(budgetRatio, MAX_BURST);
+    }
+
+    private static List<JdbcTemplate> templates(List<? extends ConnectionProvider> replicas) {
+        Validate.notEmpty(replicas, "The replicas must not be empty");
+        Validate.noNullElements(replicas, "The replicas must not be null");
+
+        List<JdbcTemplate> templates = new ArrayList<>(replicas.size());
+        for (ConnectionProvider replica : replicas) {
+            templates.add(new JdbcTemplate(replica));
+        }
+        return Collections.unmodifiableList(templates);
+    }
+
+    /**
+     * Return a copy of this reader which hedges after the {@code percentile} of
+     * recent response times.
+     *
+     * @param percentile
+     *            the percentile, such as {@code 0.95}
+     * @return the reader
+     */
+    public HedgedReader withPercentile(double percentile) {
+        return new HedgedReader(replicas, executor, scheduler, percentile, minDelayNanos, maxDelayNanos,
+                budgetRatio);
+    }
+
+    /**
+     * Return a copy of this reader whose hedging delay is never less than
+     * {@code min} nor more than {@code max}.
+     *
+     * @param min
+     *            the least delay
+     * @param max
+     *            the greatest delay, also used until enough responses are seen
+     * @return the reader
+     */
+    public HedgedReader withDelayBounds(Duration min, Duration max) {
+        Validate.notNull(min, "The min must not be null");
+        Validate.notNull(max, "The max must not be null");
+        return new HedgedReader(replicas, executor, scheduler, percentile, min.toNanos(), max.toNanos(),
+                budgetRatio);
+    }
+
+    /**
+     * Return a copy of this reader which hedges at most the {@code ratio} of
+     * requests.
+     *
+     * @param ratio
+     *            the fraction of requests which may be hedged
+     * @return the reader
+     */
+    public HedgedReader withBudget(double ratio) {
+        return new HedgedReader(replicas, executor, scheduler, percentile, minDelayNanos, maxDelayNanos, ratio);
+    }
+
+    /**
+     * Return the current delay after which a query is hedged.
+     *
+     * @return the hedging delay
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos());
+    }
+
+    /**
+     * Execute the {@code sql} query with hedging and return the results of the
+     * {@link RowMapper}.
+     *
+     * @param sql
+     *            the SQL statement, which must not have side effects
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return list of results from the {@code rowMapper} callback
+     * @throws SQLException
+     *             if every attempt fails
+     */
+    public <T> List<T> select(String sql, RowMapper<T> rowMapper, List<ParameterValue> params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        return execute(sql, params, (template, statement) -> template.query(statement, rowMapper));
+    }
+
+    /**
+     * Execute the {@code sql} query, which is expected to return at most one row,
+     * with hedging.
+     *
+     * @param sql
+     *            the SQL statement, which must not have side effects
+     * @param rowMapper
+     *            the callback for mapping the query row
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return optional of the mapped row, or {@link Optional#empty()} if the query
+     *         returned no results
+     * @throws SQLException
+     *             if every attempt fails, or more than one row was returned
+     */
+    public <T> Optional<T> selectOne(String sql, RowMapper<T> rowMapper, List<ParameterValue> params)
+            throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        return execute(sql, params, (template, statement) -> template.queryForOne(statement, rowMapper));
+    }
+
+    private long delayNanos() {
+        long observed = latencies.percentileNanos();
+        if (observed < 0L) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, observed));
+    }
+
+    private <T> T execute(String sql, List<ParameterValue> params, StatementQuery<T> query) throws SQLException {
+        budget.onRequest();
+
+        int primary = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        Hedge<T> hedge = new Hedge<>(sql, params, query);
+        hedge.launch(primary);
+        if (replicas.size() > 1) {
+            hedge.schedule((primary + 1) % replicas.size(), delayNanos());
+        }
+        return hedge.await();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgedReader{" + "replicas=" + replicas.size() + ", percentile=" + percentile + ", delay="
+                + getDelay() + ", budget=" + budget + '}';
+    }
+
+    /**
+     * Executes a prepared statement with the template of its replica.
+     */
+    @FunctionalInterface
+    private interface StatementQuery<T> {
+
+        T execute(JdbcTemplate template, PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * One hedged call: the attempts on each replica and the first result.
+     */
+    private final class Hedge<T> {
+
+        private final String sql;
+
+        private final List<ParameterValue> params;
+
+        private final StatementQuery<T> query;
+
+        private final Deadline deadline = Deadline.current().orElse(null);
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final List<Attempt> attempts = new ArrayList<>(2);
+
+        private ScheduledFuture<?> scheduled;
+
+        private int running;
+
+        private SQLException failure;
+
+        Hedge(String sql, List<ParameterValue> params, StatementQuery<T> query) {
+            this.sql = sql;
+            this.params = params;
+            this.query = query;
+        }
+
+        synchronized void launch(int replica) {
+            Attempt attempt = new Attempt(replicas.get(replica));
+            attempts.add(attempt);
+            running++;
+            try {
+                executor.execute(attempt);
+            } catch (RejectedExecutionException e) {
+                // Counts as a failed attempt, so the call fails if no other is running
+                attempts.remove(attempt);
+                failed(new SQLException("Unable to execute " + sql + " on replica " + replica, e));
+            }
+        }
+
+        synchronized void schedule(int replica, long delayNanos) {
+            if (!result.isDone()) {
+                scheduled = scheduler.schedule(() -> hedge(replica), delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void hedge(int replica) {
+            if (result.isDone() || !budget.tryAcquire()) {
+                return;
+            }
+            LOGGER.debug("Hedging {} to replica {}", sql, replica);
+            launch(replica);
+        }
+
+        void succeeded(Attempt winner, T value) {
+            if (result.complete(value)) {
+                cancelAll(winner);
+            }
+        }
+
+        synchronized void failed(SQLException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+
+            if (--running == 0 && !result.isDone()) {
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                result.completeExceptionally(failure);
+            }
+        }
+
+        synchronized void cancelAll(Attempt except) {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            for (Attempt attempt : attempts) {
+                if (attempt != except) {
+                    attempt.cancel();
+                }
+            }
+        }
+
+        T await() throws SQLException {
+            try {
+                return deadline == null ? result.get()
+                        : result.get(Math.max(0L, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancelAll(null);
+                throw new SQLTimeoutException("Deadline exceeded waiting for " + sql, e);
+            } catch (ExecutionException e) {
+                throw (SQLException) e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll(null);
+                throw new SQLException("Interrupted while waiting for " + sql, e);
+            }
+        }
+
+        /**
+         * The query on one replica.
+         */
+        private final class Attempt implements Runnable {
+
+            private final JdbcTemplate template;
+
+            private final long startNanos = System.nanoTime();
+
+            private volatile boolean cancelled;
+
+            private volatile PreparedStatement statement;
+
+            private boolean executed;
+
+            Attempt(JdbcTemplate template) {
+                this.template = template;
+            }
+
+            long elapsedNanos() {
+                return System.nanoTime() - startNanos;
+            }
+
+            @Override
+            public void run() {
+                if (cancelled) {
+                    failed(new SQLException("Cancelled before execution: " + sql));
+                    return;
+                }
+
+                try {
+                    T value = deadline == null ? template.withConnection(connection -> execute(connection))
+                            : deadline.call(() -> template.withConnection(connection -> execute(connection)));
+                    latencies.record(elapsedNanos());
+                    succeeded(this, value);
+                } catch (SQLException e) {
+                    if (executed && cancelled) {
+                        // A loser's time until cancellation is a lower bound on its
+                        // latency; leaving it out would bias the percentile low
+                        latencies.record(elapsedNanos());
+                    }
+                    failed(e);
+                } catch (RuntimeException e) {
+                    failed(new SQLException("Failed to execute " + sql, e));
+                }
+            }
+
+            private T execute(Connection connection) throws SQLException {
+                try (PreparedStatement st = template.prepareStatement(connection, sql, params)) {
+                    statement = st;
+                    if (cancelled) {
+                        // Cancelled while preparing; cancelling an idle statement would
+                        // not stop the query about to run
+                        throw new SQLException("Cancelled before execution: " + sql);
+                    }
+                    executed = true;
+                    return query.execute(template, st);
+                } finally {
+                    statement = null;
+                }
+            }
+
+            void cancel() {
+                cancelled = true;
+                PreparedStatement st = statement;
+                if (st != null) {
+                    try {
+                        st.cancel();
+                    } catch (SQLException e) {
+                        LOGGER.debug("Unable to cancel {}", sql, e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the most recent latencies in a ring buffer and reports a percentile
+ * of them. The percentile is recomputed only after every few samples, so that
+ * reading it is cheap. Instances are thread-safe.
+ */
+final class LatencyTracker {
+
+    private final long[] samples;
+
+    private final double percentile;
+
+    private final int recomputeInterval;
+
+    private int count;
+
+    private int next;
+
+    private int sinceRecompute;
+
+    private volatile long cached = -1L;
+
+    LatencyTracker(int capacity, double percentile) {
+        assert capacity > 0 : "capacity is not positive!";
+        assert percentile > 0.0 && percentile <= 1.0 : "percentile is out of range!";
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+        this.recomputeInterval = Math.max(1, capacity / 16);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+
+        if (++sinceRecompute >= recomputeInterval) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cached = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    /**
+     * Return the tracked percentile, in nanoseconds, or {@code -1} if too few
+     * samples have been recorded.
+     *
+     * @return the percentile latency
+     */
+    long percentileNanos() {
+        return cached;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyTracker{" + "percentile=" + percentile + ", nanos=" + cached + '}';
+    }
+}
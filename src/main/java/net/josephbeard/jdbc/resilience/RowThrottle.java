@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import net.josephbeard.jdbc.RowConsumer;
+
+/**
+ * Paces the rows consumed by any number of {@link RowConsumer RowConsumers} to a
+ * shared rate, by parking each consuming thread until its row's turn comes. A
+ * throttle that has been idle may consume up to a second's worth of rows
+ * without pause. Instances are thread-safe.
+ */
+final class RowThrottle {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+
+    /**
+     * The time at which the next row may be consumed without waiting.
+     */
+    private long nextFreeNanos;
+
+    RowThrottle(double rowsPerSecond) {
+        assert rowsPerSecond > 0.0 : "rowsPerSecond is not positive!";
+        this.intervalNanos = Math.max(1L, (long) (NANOS_PER_SECOND / rowsPerSecond));
+        this.nextFreeNanos = System.nanoTime() - NANOS_PER_SECOND;
+    }
+
+    RowConsumer wrap(RowConsumer consumer) {
+        assert consumer != null : "consumer is null!";
+        return (ResultSet resultSet, long rowNumber) -> {
+            acquire();
+            consumer.consumeRow(resultSet, rowNumber);
+        };
+    }
+
+    /**
+     * Wait until a row may be consumed.
+     */
+    void acquire() throws SQLException {
+        long waitNanos = reserve(System.nanoTime());
+        while (waitNanos > 0L) {
+            long start = System.nanoTime();
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while throttling rows");
+            }
+            waitNanos -= System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Reserve the next row slot and return how long to wait for it.
+     */
+    synchronized long reserve(long nowNanos) {
+        // Credit at most a second of idle time, so a stalled scan cannot burst
+        long slot = Math.max(nextFreeNanos, nowNanos - NANOS_PER_SECOND);
+        nextFreeNanos = slot + intervalNanos;
+        return slot - nowNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RowThrottle{" + "rowsPerSecond=" + (NANOS_PER_SECOND / intervalNanos) + '}';
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JdbcCallable;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * Coalesces concurrent identical reads, so that when many threads issue the
+ * same query at once, such as when a cached value expires, only one executes
+ * and all share its result. For example:
+ *
+ * <pre>
+ * SingleFlightReader reader = new SingleFlightReader(jdbcTemplate);
+ *
+ * Optional&lt;Product&gt; product = reader.selectOne("SELECT * FROM products WHERE id = ?", productMapper,
+ *         Collections.singletonList(JDBC.longInt(id)));
+ * </pre>
+ *
+ * Reads are identical if they have the same SQL, equal {@link ParameterValue
+ * parameters} and the same mapper instance, so share one mapper, such as a
+ * constant, between the callers to coalesce; a lambda capturing local state is
+ * a new instance each time and never coalesces. Nothing is cached: a read
+ * arriving after the execution completes executes again. Every caller receives
+ * the same result, so lists are unmodifiable and mapped objects should be
+ * immutable. A failure is thrown to every caller. The execution runs under the
+ * {@link Deadline} of the caller which started it, and a caller waiting on it
+ * gives up at its own deadline, if any.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class SingleFlightReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlightReader.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public SingleFlightReader(JdbcTemplate jdbcTemplate) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Execute the {@code sql} query, or join an identical one in flight, and
+     * return the results of the {@link RowMapper}.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return unmodifiable list of results from the {@code rowMapper} callback
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> List<T> select(String sql, RowMapper<T> rowMapper, List<ParameterValue> params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+        Validate.notNull(params, "The params must not be null");
+
+        return execute(new Key(sql, params, rowMapper, false),
+                () -> Collections.unmodifiableList(jdbcTemplate.select(sql, rowMapper, params)));
+    }
+
+    /**
+     * Execute the {@code sql} query, which is expected to return at most one row,
+     * or join an identical one in flight, and return the result of the
+     * {@link RowMapper}.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query row
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return optional of the mapped row, or {@link Optional#empty()} if the query
+     *         returned no results
+     * @throws SQLException
+     *             if an error occurs or more than one row was returned
+     */
+    public <T> Optional<T> selectOne(String sql, RowMapper<T> rowMapper, List<ParameterValue> params)
+            throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+        Validate.notNull(params, "The params must not be null");
+
+        return execute(new Key(sql, params, rowMapper, true),
+                () -> jdbcTemplate.selectOne(sql, rowMapper, params));
+    }
+
+    /**
+     * Return a snapshot of the reads of each SQL statement.
+     *
+     * @return the statistics by SQL statement
+     */
+    public Map<String, SingleFlightStats> getStats() {
+        Map<String, SingleFlightStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats(entry.getKey()));
+        }
+        return stats;
+    }
+
+    /**
+     * Return the number of distinct reads currently executing.
+     *
+     * @return the number of reads in flight
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R execute(Key key, JdbcCallable<R> read) throws SQLException {
+        Counters statementCounters = counters.computeIfAbsent(key.sql, sql -> new Counters());
+
+        CompletableFuture<Object> execution = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            statementCounters.coalesced.increment();
+            LOGGER.debug("Joined read in flight for {}", key.sql);
+            return (R) await(existing);
+        }
+
+        statementCounters.executions.increment();
+        try {
+            R result = read.call();
+            execution.complete(result);
+            return result;
+        } catch (Throwable t) {
+            execution.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> execution) throws SQLException {
+        try {
+            Optional<Deadline> deadline = Deadline.current();
+            if (deadline.isPresent()) {
+                return execution.get(Math.max(0L, deadline.get().remainingNanos()), TimeUnit.NANOSECONDS);
+            }
+            return execution.get();
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException("Deadline exceeded waiting for a read in flight", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read in flight", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlightReader{" + "inFlight=" + inFlight.size() + '}';
+    }
+
+    /**
+     * The identity of a read.
+     */
+    private static final class Key {
+
+        private final String sql;
+
+        private final List<ParameterValue> params;
+
+        private final RowMapper<?> rowMapper;
+
+        private final boolean one;
+
+        private final int hash;
+
+        Key(String sql, List<ParameterValue> params, RowMapper<?> rowMapper, boolean one) {
+            this.sql = sql;
+            this.params = new ArrayList<>(params);
+            this.rowMapper = rowMapper;
+            this.one = one;
+
+            int result = sql.hashCode();
+            result = 31 * result + this.params.hashCode();
+            result = 31 * result + System.identityHashCode(rowMapper);
+            result = 31 * result + Boolean.hashCode(one);
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            Key that = (Key) o;
+
+            return hash == that.hash && one == that.one && rowMapper == that.rowMapper && sql.equals(that.sql)
+                    && params.equals(that.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The counts of reads of one SQL statement.
+     */
+    private static final class Counters {
+
+        private final LongAdder executions = new LongAdder();
+
+        private final LongAdder coalesced = new LongAdder();
+
+        SingleFlightStats stats(String sql) {
+            return new SingleFlightStats(sql, executions.sum(), coalesced.sum());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+/**
+ * A snapshot of the reads of one SQL statement through a
+ * {@link SingleFlightReader}: how many executed against the database and how
+ * many shared another's execution instead.
+ */
+public final class SingleFlightStats {
+
+    private final String sql;
+
+    private final long executions;
+
+    private final long coalesced;
+
+    SingleFlightStats(String sql, long executions, long coalesced) {
+        assert sql != null : "sql is null!";
+        this.sql = sql;
+        this.executions = executions;
+        this.coalesced = coalesced;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Return the number of reads which shared a concurrent identical read's
+     * execution rather than executing.
+     *
+     * @return the number of coalesced reads
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        SingleFlightStats that = (SingleFlightStats) o;
+
+        return executions == that.executions && coalesced == that.coalesced && sql.equals(that.sql);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = sql.hashCode();
+        result = 31 * result + Long.hashCode(executions);
+        result = 31 * result + Long.hashCode(coalesced);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlightStats{" + "sql='" + sql + '\'' + ", executions=" + executions + ", coalesced="
+                + coalesced + '}';
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.time.Duration;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A named class of work sharing a {@link Bulkhead}: the connections reserved
+ * for it, the most it may hold, its priority when waiting, how long it may wait
+ * and, for background scans, the rate at which it may consume rows.
+ */
+public final class Workload {
+
+    /**
+     * The default priority of a workload.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+
+    private final String name;
+
+    private final int reserved;
+
+    private final int cap;
+
+    private final int priority;
+
+    private final Duration maxWait;
+
+    private final double rowsPerSecond;
+
+    /**
+     * Create a workload.
+     *
+     * @param name
+     *            the name of the workload
+     * @param reserved
+     *            the number of connections reserved for the workload, which no
+     *            other workload may use
+     * @param cap
+     *            the most connections the workload may hold at once
+     */
+    public Workload(String name, int reserved, int cap) {
+        this(name, reserved, cap, DEFAULT_PRIORITY, DEFAULT_MAX_WAIT, 0.0);
+    }
+
+    private Workload(String name, int reserved, int cap, int priority, Duration maxWait, double rowsPerSecond) {
+        Validate.notBlank(name, "The name must not be blank");
+        Validate.isTrue(reserved >= 0, "The reserved must not be negative");
+        Validate.isTrue(cap >= 1 && cap >= reserved, "The cap must be positive and at least the reserved");
+        Validate.notNull(maxWait, "The maxWait must not be null");
+        Validate.isTrue(!maxWait.isNegative(), "The maxWait must not be negative");
+        Validate.isTrue(rowsPerSecond >= 0.0, "The rowsPerSecond must not be negative");
+        this.name = name;
+        this.reserved = reserved;
+        this.cap = cap;
+        this.priority = priority;
+        this.maxWait = maxWait;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Return a copy of this workload with the {@code priority}. When connections
+     * are scarce, waiting workloads of higher priority are served first.
+     *
+     * @param priority
+     *            the priority
+     * @return the workload
+     */
+    public Workload withPriority(int priority) {
+        return new Workload(name, reserved, cap, priority, maxWait, rowsPerSecond);
+    }
+
+    /**
+     * Return a copy of this workload which waits at most {@code maxWait} for a
+     * connection (30 seconds by default).
+     *
+     * @param maxWait
+     *            the longest wait
+     * @return the workload
+     */
+    public Workload withMaxWait(Duration maxWait) {
+        return new Workload(name, reserved, cap, priority, maxWait, rowsPerSecond);
+    }
+
+    /**
+     * Return a copy of this workload whose {@link Bulkhead#throttle(String,
+     * net.josephbeard.jdbc.RowConsumer) throttled} scans together consume at most
+     * {@code rowsPerSecond} rows per second, or any number if zero (the default).
+     *
+     * @param rowsPerSecond
+     *            the rate
+     * @return the workload
+     */
+    public Workload withRowsPerSecond(double rowsPerSecond) {
+        return new Workload(name, reserved, cap, priority, maxWait, rowsPerSecond);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public int getCap() {
+        return cap;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Workload that = (Workload) o;
+
+        return reserved == that.reserved && cap == that.cap && priority == that.priority
+                && Double.compare(rowsPerSecond, that.rowsPerSecond) == 0 && name.equals(that.name)
+                && maxWait.equals(that.maxWait);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + reserved;
+        result = 31 * result + cap;
+        result = 31 * result + priority;
+        result = 31 * result + maxWait.hashCode();
+        result = 31 * result + Double.hashCode(rowsPerSecond);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Workload{" + "name='" + name + '\'' + ", reserved=" + reserved + ", cap=" + cap + ", priority="
+                + priority + ", maxWait=" + maxWait + ", rowsPerSecond=" + rowsPerSecond + '}';
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of the connection use of one {@link Workload} of a
+ * {@link Bulkhead}: how many connections it holds and awaits, and how long it
+ * has waited for them.
+ */
+public final class WorkloadStats {
+
+    private final String name;
+
+    private final int inUse;
+
+    private final int waiting;
+
+    private final long acquired;
+
+    private final long timedOut;
+
+    private final long totalWaitNanos;
+
+    private final long maxWaitNanos;
+
+    WorkloadStats(String name, int inUse, int waiting, long acquired, long timedOut, long totalWaitNanos,
+            long maxWaitNanos) {
+        assert name != null : "name is null!";
+        this.name = name;
+        this.inUse = inUse;
+        this.waiting = waiting;
+        this.acquired = acquired;
+        this.timedOut = timedOut;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInUse() {
+        return inUse;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * Return the number of connections acquired by the workload.
+     *
+     * @return the number of connections acquired
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Return the number of times the workload gave up waiting for a connection.
+     *
+     * @return the number of timeouts
+     */
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Return the total time spent waiting, by acquisitions and timeouts alike.
+     *
+     * @return the total wait
+     */
+    public Duration getTotalWait() {
+        return Duration.ofNanos(totalWaitNanos);
+    }
+
+    public Duration getMaxWait() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+
+    /**
+     * Return the mean wait of each acquisition or timeout.
+     *
+     * @return the mean wait, or zero if there have been none
+     */
+    public Duration getMeanWait() {
+        long count = acquired + timedOut;
+        return count == 0L ? Duration.ZERO : Duration.ofNanos(totalWaitNanos / count);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        WorkloadStats that = (WorkloadStats) o;
+
+        return inUse == that.inUse && waiting == that.waiting && acquired == that.acquired
+                && timedOut == that.timedOut && totalWaitNanos == that.totalWaitNanos
+                && maxWaitNanos == that.maxWaitNanos && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + inUse;
+        result = 31 * result + waiting;
+        result = 31 * result + Long.hashCode(acquired);
+        result = 31 * result + Long.hashCode(timedOut);
+        result = 31 * result + Long.hashCode(totalWaitNanos);
+        result = 31 * result + Long.hashCode(maxWaitNanos);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadStats{" + "name='" + name + '\'' + ", inUse=" + inUse + ", waiting=" + waiting
+                + ", acquired=" + acquired + ", timedOut=" + timedOut + ", meanWait=" + getMeanWait()
+                + ", maxWait=" + getMaxWait() + '}';
+    }
+}
@@ -0,0 +1,433 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * Queues rows for a write statement, such as an audit or event INSERT, and
+ * writes them in JDBC batches on a background thread, so that the threads
+ * producing them do not wait on the database. For example:
+ *
+ * <pre>
+ * WriteBehindBuffer events = new WriteBehindBuffer(jdbcTemplate,
+ *         "INSERT INTO events (type, payload) VALUES (?, ?)").withBatchSize(500)
+ *                 .withBackpressure(WriteBehindBuffer.Backpressure.DROP);
+ * ConnectionProvider pool = events.closingWith(dataSourceProvider);
+ *
+ * events.add(JDBC.string(type), JDBC.string(payload));
+ * </pre>
+ *
+ * A batch is written as soon as {@link #withBatchSize(int) batch size} rows
+ * are queued, and whatever is queued is written every
+ * {@link #withFlushInterval(Duration) flush interval}. The queue is bounded by
+ * its {@link #withCapacity(int) capacity}; when it is full, a row is handled
+ * according to the {@link Backpressure}. Rows of a batch which fails are
+ * logged, counted and discarded, so this suits data which may be lost in an
+ * outage, not data which must be written.
+ * <p>
+ * {@link #close() Closing} the buffer, or the provider returned by
+ * {@link #closingWith(ConnectionProvider)}, writes every queued row before
+ * returning. The background thread is a daemon, so rows still queued when the
+ * JVM exits without closing the buffer are lost. Configure the buffer with the
+ * {@code with} methods before use, as each returns a copy with an empty queue.
+ * Instances are thread-safe.
+ */
+public final class WriteBehindBuffer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    /**
+     * How long the closing flusher waits between checks for producers still
+     * adding rows.
+     */
+    private static final long CLOSE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * What {@link WriteBehindBuffer#add(List)} does when the queue is full.
+     */
+    public enum Backpressure {
+
+        /**
+         * Wait until there is room in the queue, but no longer than the
+         * {@link Deadline} in scope, if any.
+         */
+        BLOCK,
+
+        /**
+         * Discard the row and return {@code false}.
+         */
+        DROP,
+
+        /**
+         * Throw a {@link SQLTransientException}.
+         */
+        FAIL
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String sql;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final Backpressure backpressure;
+
+    /**
+     * The number of queued rows which triggers a write, as a full queue must.
+     */
+    private final int threshold;
+
+    private final ConcurrentLinkedQueue<List<ParameterValue>> queue = new ConcurrentLinkedQueue<>();
+
+    private final Semaphore slots;
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    /**
+     * The number of threads within {@link #add(List)}, which closing waits for.
+     */
+    private final AtomicInteger producers = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    // The following fields are written only by the flusher thread
+
+    private volatile long written;
+
+    private volatile long failed;
+
+    private volatile long flushes;
+
+    private volatile long totalFlushNanos;
+
+    private volatile long maxFlushNanos;
+
+    private volatile boolean closed;
+
+    /**
+     * The background thread, started by the first row added.
+     */
+    private volatile Thread flusher;
+
+    public WriteBehindBuffer(JdbcTemplate jdbcTemplate, String sql) {
+        this(jdbcTemplate, sql, 10000, 500, TimeUnit.MILLISECONDS.toNanos(100), Backpressure.BLOCK);
+    }
+
+    private WriteBehindBuffer(JdbcTemplate jdbcTemplate, String sql, int capacity, int batchSize,
+            long flushIntervalNanos, Backpressure backpressure) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.isTrue(capacity > 0, "The capacity must be positive");
+        Validate.isTrue(batchSize > 0, "The batchSize must be positive");
+        Validate.isTrue(flushIntervalNanos > 0L, "The flushInterval must be positive");
+        Validate.notNull(backpressure, "The backpressure must not be null");
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.sql = sql;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.backpressure = backpressure;
+        this.threshold = Math.min(batchSize, capacity);
+        this.slots = new Semaphore(capacity);
+    }
+
+    /**
+     * Return a copy of this buffer which queues at most {@code capacity} rows
+     * (10,000 by default).
+     *
+     * @param capacity
+     *            the most rows queued
+     * @return the buffer
+     */
+    public WriteBehindBuffer withCapacity(int capacity) {
+        return new WriteBehindBuffer(jdbcTemplate, sql, capacity, batchSize, flushIntervalNanos, backpressure);
+    }
+
+    /**
+     * Return a copy of this buffer which writes batches of at most
+     * {@code batchSize} rows (500 by default).
+     *
+     * @param batchSize
+     *            the most rows in a batch
+     * @return the buffer
+     */
+    public WriteBehindBuffer withBatchSize(int batchSize) {
+        return new WriteBehindBuffer(jdbcTemplate, sql, capacity, batchSize, flushIntervalNanos, backpressure);
+    }
+
+    /**
+     * Return a copy of this buffer which writes any queued rows at least every
+     * {@code flushInterval} (100 milliseconds by default).
+     *
+     * @param flushInterval
+     *            the longest time between writes
+     * @return the buffer
+     */
+    public WriteBehindBuffer withFlushInterval(Duration flushInterval) {
+        Validate.notNull(flushInterval, "The flushInterval must not be null");
+        return new WriteBehindBuffer(jdbcTemplate, sql, capacity, batchSize, flushInterval.toNanos(), backpressure);
+    }
+
+    /**
+     * Return a copy of this buffer which handles rows offered to a full queue by
+     * the {@code backpressure} ({@link Backpressure#BLOCK} by default).
+     *
+     * @param backpressure
+     *            the handling of a full queue
+     * @return the buffer
+     */
+    public WriteBehindBuffer withBackpressure(Backpressure backpressure) {
+        return new WriteBehindBuffer(jdbcTemplate, sql, capacity, batchSize, flushIntervalNanos, backpressure);
+    }
+
+    /**
+     * Queue a row of parameters to be written.
+     *
+     * @param params
+     *            the parameters of the row
+     * @return {@code true} if the row was queued, or {@code false} if it was
+     *         dropped because the queue was full
+     * @throws SQLTransientException
+     *             if the queue is full and the backpressure is
+     *             {@link Backpressure#FAIL}
+     * @throws SQLTimeoutException
+     *             if the deadline in scope passes while waiting for room in
+     *             the queue
+     * @throws SQLException
+     *             if interrupted while waiting for room in the queue
+     * @throws IllegalStateException
+     *             if the buffer is closed
+     */
+    public boolean add(ParameterValue... params) throws SQLException {
+        Validate.notNull(params, "The params must not be null");
+        return add(Arrays.asList(params));
+    }
+
+    /**
+     * Queue a row of parameters to be written.
+     *
+     * @param params
+     *            the parameters of the row, which must not be changed afterwards
+     * @return {@code true} if the row was queued, or {@code false} if it was
+     *         dropped because the queue was full
+     * @throws SQLTransientException
+     *             if the queue is full and the backpressure is
+     *             {@link Backpressure#FAIL}
+     * @throws SQLTimeoutException
+     *             if the deadline in scope passes while waiting for room in
+     *             the queue
+     * @throws SQLException
+     *             if interrupted while waiting for room in the queue
+     * @throws IllegalStateException
+     *             if the buffer is closed
+     */
+    public boolean add(List<ParameterValue> params) throws SQLException {
+        Validate.notNull(params, "The params must not be null");
+
+        producers.incrementAndGet();
+        try {
+            Validate.validState(!closed, "The buffer is closed");
+
+            if (!slots.tryAcquire()) {
+                switch (backpressure) {
+                case DROP:
+                    rejected.increment();
+                    return false;
+                case FAIL:
+                    rejected.increment();
+                    throw new SQLTransientException("Write-behind queue is full (" + capacity + " rows)");
+                default:
+                    try {
+                        Optional<Deadline> deadline = Deadline.current();
+                        if (!deadline.isPresent()) {
+                            slots.acquire();
+                        } else if (!slots.tryAcquire(Math.max(0L, deadline.get().remainingNanos()),
+                                TimeUnit.NANOSECONDS)) {
+                            rejected.increment();
+                            throw new SQLTimeoutException("Deadline exceeded waiting for room in the queue");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for room in the queue", e);
+                    }
+                }
+            }
+
+            queue.add(params);
+            accepted.increment();
+            Thread thread = flusher();
+            if (depth.incrementAndGet() == threshold) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    public WriteBehindStats getStats() {
+        return new WriteBehindStats(depth.get(), accepted.sum(), rejected.sum(), written, failed, flushes,
+                totalFlushNanos, maxFlushNanos);
+    }
+
+    /**
+     * Return a {@link ConnectionProvider} which closes this buffer, writing every
+     * queued row, before closing the {@code delegate}, so that rows are not lost
+     * when the application shuts down its connections.
+     *
+     * @param delegate
+     *            the provider of connections
+     * @return the provider
+     */
+    public ConnectionProvider closingWith(ConnectionProvider delegate) {
+        Validate.notNull(delegate, "The delegate must not be null");
+        return new ConnectionProvider() {
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return delegate.getConnection();
+            }
+
+            @Override
+            public void close() throws SQLException {
+                try {
+                    WriteBehindBuffer.this.close();
+                } finally {
+                    delegate.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Stop accepting rows and write every queued row, waiting until they are
+     * written.
+     *
+     * @throws SQLException
+     *             if interrupted while waiting
+     */
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        Thread thread = flusher();
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while flushing the write-behind queue", e);
+        }
+    }
+
+    private Thread flusher() {
+        Thread thread = flusher;
+        if (thread == null) {
+            synchronized (this) {
+                thread = flusher;
+                if (thread == null) {
+                    thread = new Thread(this::flushLoop, "jdbc-write-behind");
+                    thread.setDaemon(true);
+                    thread.start();
+                    flusher = thread;
+                }
+            }
+        }
+        return thread;
+    }
+
+    private void flushLoop() {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (true) {
+            boolean closing = closed;
+            long now = System.nanoTime();
+            boolean due = now - nextFlush >= 0L;
+            if (due) {
+                nextFlush = now + flushIntervalNanos;
+            }
+            flushQueued(due || closing);
+
+            if (closing && producers.get() == 0 && queue.isEmpty()) {
+                LOGGER.debug("Closed write-behind buffer for {}: {}", sql, getStats());
+                return;
+            }
+            LockSupport.parkNanos(this,
+                    closing ? CLOSE_POLL_NANOS : Math.max(0L, nextFlush - System.nanoTime()));
+        }
+    }
+
+    /**
+     * Write batches while enough rows are queued, and then any remaining rows if
+     * {@code partial}.
+     */
+    private void flushQueued(boolean partial) {
+        while (depth.get() >= threshold || (partial && depth.get() > 0)) {
+            List<List<ParameterValue>> batch = new ArrayList<>(Math.min(batchSize, depth.get()));
+            for (List<ParameterValue> row = queue.poll(); row != null; row = queue.poll()) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            depth.addAndGet(-batch.size());
+            slots.release(batch.size());
+            write(batch);
+        }
+    }
+
+    private void write(List<List<ParameterValue>> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.updateBatch(sql, batch);
+            written += batch.size();
+        } catch (SQLException | RuntimeException e) {
+            failed += batch.size();
+            LOGGER.error("Failed to write a batch of {} rows for {}", batch.size(), sql, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes++;
+            totalFlushNanos += elapsed;
+            maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindBuffer{" + "sql='" + sql + '\'' + ", queueDepth=" + depth.get() + ", closed=" + closed
+                + '}';
+    }
+}
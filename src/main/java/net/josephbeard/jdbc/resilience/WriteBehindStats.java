@@ -0,0 +1,127 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.resilience;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of a {@link WriteBehindBuffer}: how many rows are queued, what
+ * became of the rows offered to it, and how long its flushes take.
+ */
+public final class WriteBehindStats {
+
+    private final int queueDepth;
+
+    private final long accepted;
+
+    private final long rejected;
+
+    private final long written;
+
+    private final long failed;
+
+    private final long flushes;
+
+    private final long totalFlushNanos;
+
+    private final long maxFlushNanos;
+
+    WriteBehindStats(int queueDepth, long accepted, long rejected, long written, long failed, long flushes,
+            long totalFlushNanos, long maxFlushNanos) {
+        this.queueDepth = queueDepth;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.written = written;
+        this.failed = failed;
+        this.flushes = flushes;
+        this.totalFlushNanos = totalFlushNanos;
+        this.maxFlushNanos = maxFlushNanos;
+    }
+
+    /**
+     * Return the number of rows waiting to be flushed.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Return the number of rows dropped or refused because the queue was full.
+     *
+     * @return the number of rejected rows
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Return the number of rows lost because their batch failed.
+     *
+     * @return the number of failed rows
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public Duration getMaxFlushLatency() {
+        return Duration.ofNanos(maxFlushNanos);
+    }
+
+    /**
+     * Return the mean time taken by a flush, successful or not.
+     *
+     * @return the mean flush latency, or zero if there have been no flushes
+     */
+    public Duration getMeanFlushLatency() {
+        return flushes == 0L ? Duration.ZERO : Duration.ofNanos(totalFlushNanos / flushes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        WriteBehindStats that = (WriteBehindStats) o;
+
+        return queueDepth == that.queueDepth && accepted == that.accepted && rejected == that.rejected
+                && written == that.written && failed == that.failed && flushes == that.flushes
+                && totalFlushNanos == that.totalFlushNanos && maxFlushNanos == that.maxFlushNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = queueDepth;
+        result = 31 * result + Long.hashCode(accepted);
+        result = 31 * result + Long.hashCode(rejected);
+        result = 31 * result + Long.hashCode(written);
+        result = 31 * result + Long.hashCode(failed);
+        result = 31 * result + Long.hashCode(flushes);
+        result = 31 * result + Long.hashCode(totalFlushNanos);
+        result = 31 * result + Long.hashCode(maxFlushNanos);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindStats{" + "queueDepth=" + queueDepth + ", accepted=" + accepted + ", rejected="
+                + rejected + ", written=" + written + ", failed=" + failed + ", flushes=" + flushes
+                + ", meanFlushLatency=" + getMeanFlushLatency() + ", maxFlushLatency=" + getMaxFlushLatency() + '}';
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tail latency and overload protection for database access.
+ */
+package net.josephbeard.jdbc.resilience;
@@ -0,0 +1,100 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.shard;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A {@link ShardRouter} which places each shard at many points on a hash ring
+ * and routes a key to the owner of the first point at or after the key's hash.
+ * Adding a shard moves only about {@code 1/n} of the keys.
+ * <p>
+ * Keys are hashed by their {@link Object#hashCode()}, mixed to spread it over
+ * the ring, so keys must have a hash code which is stable across processes
+ * (such as {@link String}, {@link Long} or {@link java.util.UUID}).
+ *
+ * @param <K>
+ *            the type of the shard key
+ */
+public final class ConsistentHashRouter<K> implements ShardRouter<K> {
+
+    /**
+     * The default number of points on the ring for each shard.
+     */
+    public static final int DEFAULT_POINTS = 128;
+
+    private final int shardCount;
+
+    /**
+     * The sorted positions of the points on the ring.
+     */
+    private final long[] points;
+
+    /**
+     * The shard owning each point, in the order of {@link #points}.
+     */
+    private final int[] owners;
+
+    public ConsistentHashRouter(int shardCount, int pointsPerShard) {
+        Validate.isTrue(shardCount > 0, "The shardCount must be positive");
+        Validate.isTrue(pointsPerShard > 0, "The pointsPerShard must be positive");
+
+        int size = shardCount * pointsPerShard;
+        long[] positions = new long[size];
+        for (int shard = 0, i = 0; shard < shardCount; shard++) {
+            for (int point = 0; point < pointsPerShard; point++, i++) {
+                positions[i] = mix(((long) shard << 32) | point);
+            }
+        }
+
+        // The mix is a bijection, so the positions are distinct and each is found
+        // again after sorting
+        long[] sorted = positions.clone();
+        Arrays.sort(sorted);
+        int[] owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            int index = Arrays.binarySearch(sorted, positions[i]);
+            owners[index] = i / pointsPerShard;
+        }
+
+        this.shardCount = shardCount;
+        this.points = sorted;
+        this.owners = owners;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public int shardFor(K key) {
+        Validate.notNull(key, "The key must not be null");
+
+        int index = Arrays.binarySearch(points, mix(key.hashCode()));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRouter{" + "shardCount=" + shardCount + ", points=" + points.length + '}';
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.shard;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JdbcFunction;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.ResultSetHandler;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * Runs a query on every shard concurrently and gathers the results, so that a
+ * cross-shard read takes as long as the slowest shard rather than the sum of
+ * them all. For example:
+ *
+ * <pre>
+ * ScatterGather scatterGather = new ScatterGather(shards, executor);
+ *
+ * List&lt;Order&gt; recent = scatterGather.selectOrdered("SELECT * FROM orders ORDER BY created DESC LIMIT 50",
+ *         orderMapper, Comparator.comparing(Order::getCreated).reversed(), 50, Collections.emptyList());
+ * </pre>
+ *
+ * The {@link Executor} should have a thread available for each shard. The
+ * first shard to fail, or an interrupt of the calling thread, ends the call at
+ * once and cancels the shards still running (interrupting their threads,
+ * which stops a query only if the driver responds to interruption). Every
+ * shard's query runs under the {@link Deadline} of the caller, if any, and the
+ * call fails with a {@link SQLTimeoutException} when it passes.
+ * <p>
+ * Each shard's rows are read into memory before they are gathered, so a call
+ * holds the rows of every shard at once. {@link #selectOrdered(String,
+ * RowMapper, Comparator, int, List) selectOrdered} with a limit reads at most
+ * that many rows from each shard; bound other queries in their SQL.
+ */
+public final class ScatterGather {
+
+    private final List<JdbcTemplate> templates;
+
+    private final Executor executor;
+
+    public ScatterGather(ShardedConnectionProvider<?> shards, Executor executor) {
+        Validate.notNull(shards, "The shards must not be null");
+        Validate.notNull(executor, "The executor must not be null");
+
+        List<JdbcTemplate> templates = new ArrayList<>(shards.getShardCount());
+        for (ConnectionProvider shard : shards.getShards()) {
+            templates.add(new JdbcTemplate(shard));
+        }
+        this.templates = Collections.unmodifiableList(templates);
+        this.executor = executor;
+    }
+
+    /**
+     * Execute the {@code sql} query on every shard and return all the mapped rows,
+     * shard by shard.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return the rows of every shard
+     * @throws SQLException
+     *             if an error occurs on any shard
+     */
+    public <T> List<T> select(String sql, RowMapper<T> rowMapper, List<ParameterValue> params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        List<T> rows = new ArrayList<>();
+        for (List<T> shardRows : scatter(template -> template.select(sql, rowMapper, params))) {
+            rows.addAll(shardRows);
+        }
+        return rows;
+    }
+
+    /**
+     * Execute the {@code sql} query, which must return its rows in the order of
+     * the {@code comparator}, on every shard and merge the rows of all shards into
+     * that order.
+     *
+     * @param sql
+     *            the SQL statement, ordered consistently with the
+     *            {@code comparator}
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param comparator
+     *            the order of the rows
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return the rows of every shard, in order
+     * @throws SQLException
+     *             if an error occurs on any shard
+     */
+    public <T> List<T> selectOrdered(String sql, RowMapper<T> rowMapper, Comparator<? super T> comparator,
+            List<ParameterValue> params) throws SQLException {
+        return selectOrdered(sql, rowMapper, comparator, Integer.MAX_VALUE, params);
+    }
+
+    /**
+     * Execute the {@code sql} query, which must return its rows in the order of
+     * the {@code comparator}, on every shard and return the first {@code limit}
+     * rows of all shards in that order. For a top-N query, each shard's
+     * {@code sql} should also be limited to {@code limit} rows, since any shard
+     * may hold all of them.
+     *
+     * @param sql
+     *            the SQL statement, ordered consistently with the
+     *            {@code comparator}
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param comparator
+     *            the order of the rows
+     * @param limit
+     *            the most rows to return
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return at most {@code limit} rows of all shards, in order
+     * @throws SQLException
+     *             if an error occurs on any shard
+     */
+    public <T> List<T> selectOrdered(String sql, RowMapper<T> rowMapper, Comparator<? super T> comparator,
+            int limit, List<ParameterValue> params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+        Validate.notNull(comparator, "The comparator must not be null");
+        Validate.isTrue(limit >= 0, "The limit must not be negative");
+
+        return merge(scatter(template -> template.select(sql, resultSet -> {
+            List<T> rows = new ArrayList<>();
+            for (long rowNumber = 0; rows.size() < limit && resultSet.next(); rowNumber++) {
+                rows.add(rowMapper.processRow(resultSet, rowNumber));
+            }
+            return rows;
+        }, params)), comparator, limit);
+    }
+
+    /**
+     * Execute the {@code sql} query on every shard and combine the results of the
+     * {@link ResultSetHandler}, such as partial counts or sums, into one.
+     *
+     * @param sql
+     *            the SQL statement
+     * @param resultSetHandler
+     *            the callback to handle each shard's {@link java.sql.ResultSet}
+     * @param combiner
+     *            the function combining two shards' results
+     * @param params
+     *            the parameters to the {@code sql} query
+     * @param <T>
+     *            the type of result of the {@code resultSetHandler} callback
+     * @return the combined result
+     * @throws SQLException
+     *             if an error occurs on any shard
+     */
+    public <T> T selectCombined(String sql, ResultSetHandler<T> resultSetHandler, BinaryOperator<T> combiner,
+            List<ParameterValue> params) throws SQLException {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(resultSetHandler, "The resultSetHandler must not be null");
+        Validate.notNull(combiner, "The combiner must not be null");
+
+        List<T> results = scatter(template -> template.select(sql, resultSetHandler, params));
+        T combined = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            combined = combiner.apply(combined, results.get(i));
+        }
+        return combined;
+    }
+
+    /**
+     * Apply the {@code function} to the template of every shard concurrently and
+     * return the results in shard order, cancelling the others at the first
+     * failure.
+     */
+    private <R> List<R> scatter(JdbcFunction<JdbcTemplate, R> function) throws SQLException {
+        Optional<Deadline> deadline = Deadline.current();
+        CompletionService<R> completion = new ExecutorCompletionService<>(executor);
+        List<Future<R>> futures = new ArrayList<>(templates.size());
+        try {
+            for (JdbcTemplate template : templates) {
+                futures.add(completion.submit(() -> deadline.isPresent()
+                        ? deadline.get().call(() -> function.apply(template)) : function.apply(template)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                // Fails as soon as any shard fails, whatever its position
+                Future<R> done = deadline.isPresent()
+                        ? completion.poll(Math.max(0L, deadline.get().remainingNanos()), TimeUnit.NANOSECONDS)
+                        : completion.take();
+                if (done == null) {
+                    throw new SQLTimeoutException("Deadline exceeded gathering shard results");
+                }
+                done.get();
+            }
+
+            List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while gathering shard results", e);
+        } finally {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static SQLException unwrap(Throwable cause) {
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new SQLException(cause);
+    }
+
+    /**
+     * Merge lists which are each sorted by the {@code comparator}, taking the
+     * least head of any list in turn until {@code limit} are taken. Ties are
+     * taken in shard order.
+     */
+    // Visible for testing
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator, int limit) {
+        int total = 0;
+        for (List<T> list : sortedLists) {
+            total += list.size();
+        }
+
+        // Each cursor is {list index, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()), (a, b) -> {
+            int order = comparator.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1]));
+            return order != 0 ? order : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[] { i, 0 });
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] cursor = heads.poll();
+            List<T> list = sortedLists.get(cursor[0]);
+            merged.add(list.get(cursor[1]));
+            if (++cursor[1] < list.size()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterGather{" + "shards=" + templates.size() + '}';
+    }
+}
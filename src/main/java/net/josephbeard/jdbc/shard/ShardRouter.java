@@ -0,0 +1,68 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.shard;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Chooses the shard which holds a key.
+ *
+ * @param <K>
+ *            the type of the shard key
+ */
+@FunctionalInterface
+public interface ShardRouter<K> {
+
+    /**
+     * Return the index of the shard which holds the {@code key}.
+     *
+     * @param key
+     *            the shard key
+     * @return the shard index, from zero
+     * @throws IllegalArgumentException
+     *             if the key cannot be routed
+     */
+    int shardFor(K key);
+
+    /**
+     * Return a router which places keys on a consistent hash ring of
+     * {@code shardCount} shards, with {@link ConsistentHashRouter#DEFAULT_POINTS}
+     * points per shard.
+     *
+     * @param shardCount
+     *            the number of shards
+     * @param <K>
+     *            the type of the shard key
+     * @return the router
+     * @see ConsistentHashRouter
+     */
+    static <K> ShardRouter<K> consistentHash(int shardCount) {
+        return new ConsistentHashRouter<>(shardCount, ConsistentHashRouter.DEFAULT_POINTS);
+    }
+
+    /**
+     * Return a router which finds each key's shard in the {@code table}.
+     *
+     * @param table
+     *            the shard index of each key
+     * @param <K>
+     *            the type of the shard key
+     * @return the router
+     */
+    static <K> ShardRouter<K> lookup(Map<K, Integer> table) {
+        Validate.notNull(table, "The table must not be null");
+        Validate.noNullElements(table.values(), "The table must not contain null shards");
+
+        Map<K, Integer> copy = new HashMap<>(table);
+        return key -> {
+            Integer shard = copy.get(key);
+            Validate.isTrue(shard != null, "No shard for key %s.", key);
+            return shard;
+        };
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.shard;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+
+/**
+ * Provides connections to the shard holding a key, as chosen by a
+ * {@link ShardRouter}. For example:
+ *
+ * <pre>
+ * ShardedConnectionProvider&lt;String&gt; shards = new ShardedConnectionProvider&lt;&gt;(
+ *         Arrays.asList(shard0, shard1, shard2), ShardRouter.consistentHash(3));
+ *
+ * JdbcTemplate tenantTemplate = new JdbcTemplate(shards.forKey(tenantId));
+ * </pre>
+ *
+ * Closing the provider closes every shard.
+ *
+ * @param <K>
+ *            the type of the shard key
+ */
+public final class ShardedConnectionProvider<K> implements AutoCloseable {
+
+    private final List<ConnectionProvider> shards;
+
+    private final ShardRouter<K> router;
+
+    /**
+     * Create a provider routing keys among the {@code shards}.
+     *
+     * @param shards
+     *            the connection provider of each shard, by shard index
+     * @param router
+     *            the router
+     * @throws IllegalArgumentException
+     *             if the router is a {@link ConsistentHashRouter} for a different
+     *             number of shards
+     */
+    public ShardedConnectionProvider(List<? extends ConnectionProvider> shards, ShardRouter<K> router) {
+        Validate.notEmpty(shards, "The shards must not be empty");
+        Validate.noNullElements(shards, "The shards must not be null");
+        Validate.notNull(router, "The router must not be null");
+        if (router instanceof ConsistentHashRouter) {
+            int routedShards = ((ConsistentHashRouter<K>) router).getShardCount();
+            Validate.isTrue(routedShards == shards.size(), "The router has %d shards but %d were provided.",
+                    routedShards, shards.size());
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.router = router;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<ConnectionProvider> getShards() {
+        return shards;
+    }
+
+    public ConnectionProvider getShard(int index) {
+        Validate.validIndex(shards, index, "No shard %d of %d.", index, shards.size());
+        return shards.get(index);
+    }
+
+    /**
+     * Return the {@link ConnectionProvider} of the shard holding the {@code key}.
+     *
+     * @param key
+     *            the shard key
+     * @return the shard's connection provider
+     * @throws IllegalArgumentException
+     *             if the key cannot be routed
+     */
+    public ConnectionProvider forKey(K key) {
+        return getShard(router.shardFor(key));
+    }
+
+    /**
+     * Obtain an open {@link Connection} to the shard holding the {@code key}.
+     *
+     * @param key
+     *            the shard key
+     * @return an open connection
+     * @throws SQLException
+     *             if an error occurs obtaining a connection
+     */
+    public Connection getConnection(K key) throws SQLException {
+        return forKey(key).getConnection();
+    }
+
+    /**
+     * Close every shard, even if closing one fails.
+     *
+     * @throws SQLException
+     *             if an error occurs while closing a shard
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (ConnectionProvider shard : shards) {
+            try {
+                shard.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ShardedConnectionProvider{" + "shards=" + shards.size() + ", router=" + router + '}';
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Routing and scatter-gather queries across sharded databases.
+ */
+package net.josephbeard.jdbc.shard;
@@ -0,0 +1,394 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcFunction;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * Gathers the keys looked up within a short window into a single query, so
+ * that lookups made one at a time, in a loop or by concurrent requests, cost
+ * one round trip instead of one each. For example:
+ *
+ * <pre>
+ * BatchLoader&lt;Long, Product&gt; products = BatchLoader.byArray(jdbcTemplate,
+ *         SelectBuilder.select("id", "name").from("products"), "id", "bigint", productMapper, Product::getId,
+ *         scheduler);
+ *
+ * CompletableFuture&lt;Optional&lt;Product&gt;&gt; product = products.load(id);
+ * </pre>
+ *
+ * A batch is fetched when its {@link #withWindow(Duration) window} (by default
+ * 2 milliseconds) after the first key has passed, or as soon as it holds the
+ * {@link #withMaxBatchSize(int) maximum} number of keys (by default 256),
+ * whichever comes first. A key requested again while its batch is pending
+ * shares the same future. Rows are matched to keys by the key function, so it
+ * must return keys equal to those requested; a key matching no row loads as
+ * {@link Optional#empty()} and one matching several fails.
+ * <p>
+ * Batches are fetched on the {@link ScheduledExecutorService}, which should
+ * have a thread for each batch expected to be in flight at once. Configure the
+ * loader with the {@code with} methods before use, as each returns a copy with
+ * no pending keys. Instances are thread-safe.
+ */
+public final class BatchLoader<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchLoader.class);
+
+    private final JdbcFunction<List<K>, List<V>> fetch;
+
+    private final Function<? super V, ? extends K> keyOf;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    // Guarded by this
+    private Batch pending;
+
+    /**
+     * Create a loader which fetches each batch of keys with the {@code fetch}
+     * function.
+     *
+     * @param fetch
+     *            the function returning the values of a list of distinct keys
+     * @param keyOf
+     *            the function returning the key of a value
+     * @param scheduler
+     *            the executor on which batches are timed and fetched
+     */
+    public BatchLoader(JdbcFunction<List<K>, List<V>> fetch, Function<? super V, ? extends K> keyOf,
+            ScheduledExecutorService scheduler) {
+        this(fetch, keyOf, scheduler, TimeUnit.MILLISECONDS.toNanos(2), 256);
+    }
+
+    private BatchLoader(JdbcFunction<List<K>, List<V>> fetch, Function<? super V, ? extends K> keyOf,
+            ScheduledExecutorService scheduler, long windowNanos, int maxBatchSize) {
+        Validate.notNull(fetch, "The fetch must not be null");
+        Validate.notNull(keyOf, "The keyOf must not be null");
+        Validate.notNull(scheduler, "The scheduler must not be null");
+        Validate.isTrue(windowNanos >= 0L, "The window must not be negative");
+        Validate.isTrue(maxBatchSize > 0, "The maxBatchSize must be positive");
+
+        this.fetch = fetch;
+        this.keyOf = keyOf;
+        this.scheduler = scheduler;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Create a loader which fetches each batch with a single
+     * {@code column = ANY(?)} query binding the keys as an array of the SQL type
+     * {@code arrayTypeName}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param select
+     *            the select, whose where clause, if any, is combined by
+     *            {@code AND} with the key condition
+     * @param column
+     *            the key column
+     * @param arrayTypeName
+     *            the SQL type name of the array elements, such as {@code bigint}
+     * @param rowMapper
+     *            the callback for mapping the rows
+     * @param keyOf
+     *            the function returning the key of a mapped row
+     * @param scheduler
+     *            the executor on which batches are timed and fetched
+     * @param <K>
+     *            the type of the keys
+     * @param <V>
+     *            the type of result of the {@code rowMapper} callback
+     * @return the loader
+     * @see SQL#equalsAny(String, ParameterValue)
+     */
+    public static <K, V> BatchLoader<K, V> byArray(JdbcTemplate jdbcTemplate, SelectBuilder select, String column,
+            String arrayTypeName, RowMapper<V> rowMapper, Function<? super V, ? extends K> keyOf,
+            ScheduledExecutorService scheduler) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(select, "The select must not be null");
+        Validate.notBlank(column, "The column must not be blank");
+        Validate.notBlank(arrayTypeName, "The arrayTypeName must not be blank");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        return new BatchLoader<>(
+                keys -> select.andWhere(SQL.equalsAny(column, JDBC.array(arrayTypeName, keys.toArray()))).build()
+                        .select(jdbcTemplate, rowMapper),
+                keyOf, scheduler);
+    }
+
+    /**
+     * Create a loader which fetches each batch with {@code IN} lists of the
+     * {@link BucketedInClause}, for databases without array parameters.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param select
+     *            the select, whose where clause, if any, is combined by
+     *            {@code AND} with the {@code IN} list
+     * @param in
+     *            the {@code IN} list of the key column
+     * @param keyBinder
+     *            the function binding a key as a parameter
+     * @param rowMapper
+     *            the callback for mapping the rows
+     * @param keyOf
+     *            the function returning the key of a mapped row
+     * @param scheduler
+     *            the executor on which batches are timed and fetched
+     * @param <K>
+     *            the type of the keys
+     * @param <V>
+     *            the type of result of the {@code rowMapper} callback
+     * @return the loader
+     */
+    public static <K, V> BatchLoader<K, V> byInList(JdbcTemplate jdbcTemplate, SelectBuilder select,
+            BucketedInClause in, Function<? super K, ParameterValue> keyBinder, RowMapper<V> rowMapper,
+            Function<? super V, ? extends K> keyOf, ScheduledExecutorService scheduler) {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(select, "The select must not be null");
+        Validate.notNull(in, "The in must not be null");
+        Validate.notNull(keyBinder, "The keyBinder must not be null");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        return new BatchLoader<>(keys -> {
+            List<ParameterValue> values = new ArrayList<>(keys.size());
+            for (K key : keys) {
+                values.add(keyBinder.apply(key));
+            }
+            return in.select(jdbcTemplate, select, null, values, rowMapper);
+        }, keyOf, scheduler);
+    }
+
+    /**
+     * Return a copy of this loader which gathers keys for the {@code window}
+     * after the first key of a batch.
+     *
+     * @param window
+     *            the time to wait for more keys
+     * @return the loader
+     */
+    public BatchLoader<K, V> withWindow(Duration window) {
+        Validate.notNull(window, "The window must not be null");
+        return new BatchLoader<>(fetch, keyOf, scheduler, window.toNanos(), maxBatchSize);
+    }
+
+    /**
+     * Return a copy of this loader which fetches a batch as soon as it holds
+     * {@code maxBatchSize} distinct keys.
+     *
+     * @param maxBatchSize
+     *            the most keys in a batch
+     * @return the loader
+     */
+    public BatchLoader<K, V> withMaxBatchSize(int maxBatchSize) {
+        return new BatchLoader<>(fetch, keyOf, scheduler, windowNanos, maxBatchSize);
+    }
+
+    /**
+     * Load the value of the {@code key} with the next batch.
+     *
+     * @param key
+     *            the key
+     * @return the future value, or {@link Optional#empty()} if no row has the
+     *         {@code key}
+     */
+    public CompletableFuture<Optional<V>> load(K key) {
+        Validate.notNull(key, "The key must not be null");
+
+        Batch full = null;
+        CompletableFuture<Optional<V>> future;
+        synchronized (this) {
+            if (pending == null) {
+                Batch batch = new Batch();
+                batch.timer = scheduler.schedule(() -> onWindowElapsed(batch), windowNanos, TimeUnit.NANOSECONDS);
+                pending = batch;
+            }
+            future = pending.futures.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.futures.put(key, future);
+                if (pending.futures.size() >= maxBatchSize) {
+                    full = pending;
+                    pending = null;
+                }
+            }
+        }
+
+        if (full != null) {
+            full.timer.cancel(false);
+            Batch batch = full;
+            scheduler.execute(() -> execute(batch));
+        }
+        return future;
+    }
+
+    /**
+     * Load the values of the {@code keys} with the next batch.
+     *
+     * @param keys
+     *            the keys
+     * @return the future values by key, omitting keys which no row has
+     */
+    public CompletableFuture<Map<K, V>> loadAll(Collection<? extends K> keys) {
+        Validate.notNull(keys, "The keys must not be null");
+
+        Map<K, CompletableFuture<Optional<V>>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.put(key, load(key));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<K, V> values = new LinkedHashMap<>();
+            for (Map.Entry<K, CompletableFuture<Optional<V>>> entry : futures.entrySet()) {
+                entry.getValue().join().ifPresent(value -> values.put(entry.getKey(), value));
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Load the value of the {@code key} with the next batch and wait for it, but
+     * no longer than the {@link Deadline} in scope, if any. The batch itself is
+     * shared with other callers, so it does not run under that deadline.
+     *
+     * @param key
+     *            the key
+     * @return the value, or {@link Optional#empty()} if no row has the
+     *         {@code key}
+     * @throws SQLTimeoutException
+     *             if the deadline passes first
+     * @throws SQLException
+     *             if the batch fails
+     */
+    public Optional<V> get(K key) throws SQLException {
+        Optional<Deadline> deadline = Deadline.current();
+        try {
+            CompletableFuture<Optional<V>> value = load(key);
+            return deadline.isPresent()
+                    ? value.get(Math.max(0L, deadline.get().remainingNanos()), TimeUnit.NANOSECONDS)
+                    : value.get();
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException("Deadline exceeded waiting to load " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * Fetch the pending batch now rather than at the end of its window.
+     */
+    public void dispatch() {
+        Batch batch;
+        synchronized (this) {
+            batch = pending;
+            pending = null;
+        }
+        if (batch != null) {
+            batch.timer.cancel(false);
+            scheduler.execute(() -> execute(batch));
+        }
+    }
+
+    private void onWindowElapsed(Batch batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                // Already fetched because it filled up or was dispatched
+                return;
+            }
+            pending = null;
+        }
+        execute(batch);
+    }
+
+    private void execute(Batch batch) {
+        List<K> keys = new ArrayList<>(batch.futures.keySet());
+        try {
+            List<V> values = fetch.apply(keys);
+            LOGGER.debug("Loaded {} values for a batch of {} keys", values.size(), keys.size());
+
+            Map<K, V> byKey = new HashMap<>();
+            Map<K, SQLException> duplicates = new HashMap<>();
+            for (V value : values) {
+                K key = keyOf.apply(value);
+                if (byKey.putIfAbsent(key, value) != null) {
+                    duplicates.put(key, new SQLException("Multiple results returned for key " + key));
+                }
+            }
+
+            for (Map.Entry<K, CompletableFuture<Optional<V>>> entry : batch.futures.entrySet()) {
+                SQLException duplicate = duplicates.get(entry.getKey());
+                if (duplicate != null) {
+                    entry.getValue().completeExceptionally(duplicate);
+                } else {
+                    entry.getValue().complete(Optional.ofNullable(byKey.get(entry.getKey())));
+                }
+            }
+        } catch (Throwable t) {
+            for (CompletableFuture<Optional<V>> future : batch.futures.values()) {
+                future.completeExceptionally(t);
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchLoader{" + "windowNanos=" + windowNanos + ", maxBatchSize=" + maxBatchSize + '}';
+    }
+
+    /**
+     * The distinct keys gathered for one query.
+     */
+    private final class Batch {
+
+        private final Map<K, CompletableFuture<Optional<V>>> futures = new LinkedHashMap<>();
+
+        private ScheduledFuture<?> timer;
+    }
+}
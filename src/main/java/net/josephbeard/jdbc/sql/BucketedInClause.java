@@ -0,0 +1,162 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * Builds {@code column IN (?, ?, ...)} conditions whose number of placeholders
+ * is rounded up to a power of two (1, 2, 4, 8, ...), padding the list by
+ * repeating its last value. Padding does not change which rows match, but it
+ * bounds the number of distinct SQL statements to the logarithm of the largest
+ * list, so prepared statements and statement caches are reused.
+ * <p>
+ * Lists longer than {@link #getMaxBucketSize()} are split into chunks by
+ * {@link #select(JdbcTemplate, SelectBuilder, WhereClause, List, RowMapper)},
+ * which queries each chunk and concatenates the results.
+ *
+ * @see SQL#equalsAny(String, ParameterValue)
+ */
+public final class BucketedInClause {
+
+    /**
+     * The default largest bucket.
+     */
+    public static final int DEFAULT_MAX_BUCKET_SIZE = 1024;
+
+    private final String column;
+
+    private final int maxBucketSize;
+
+    /**
+     * Rendered conditions indexed by the base-2 logarithm of the bucket size.
+     */
+    private final String[] conditions;
+
+    public BucketedInClause(String column) {
+        this(column, DEFAULT_MAX_BUCKET_SIZE);
+    }
+
+    public BucketedInClause(String column, int maxBucketSize) {
+        Validate.notBlank(column, "The column must not be blank");
+        Validate.isTrue(maxBucketSize > 0 && Integer.bitCount(maxBucketSize) == 1,
+                "The maxBucketSize must be a power of two");
+        this.column = column;
+        this.maxBucketSize = maxBucketSize;
+        this.conditions = new String[Integer.numberOfTrailingZeros(maxBucketSize) + 1];
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = renderCondition(column, 1 << i);
+        }
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public int getMaxBucketSize() {
+        return maxBucketSize;
+    }
+
+    /**
+     * Return a {@link WhereClause} matching the {@code values}, padded up to the
+     * next bucket size.
+     *
+     * @param values
+     *            the values, no more than {@link #getMaxBucketSize()}
+     * @return the where clause
+     */
+    public WhereClause where(List<ParameterValue> values) {
+        Validate.notEmpty(values, "The values must not be empty");
+        Validate.noNullElements(values, "The values must not be null");
+        Validate.isTrue(values.size() <= maxBucketSize, "Expected at most %d values but received %d.",
+                maxBucketSize, values.size());
+
+        int bucketSize = bucketSize(values.size());
+        List<ParameterValue> padded = new ArrayList<>(bucketSize);
+        padded.addAll(values);
+        ParameterValue last = values.get(values.size() - 1);
+        while (padded.size() < bucketSize) {
+            padded.add(last);
+        }
+
+        return new SimpleWhereClause(conditions[Integer.numberOfTrailingZeros(bucketSize)], padded);
+    }
+
+    /**
+     * Select the rows matching any of the {@code values}, querying in chunks of at
+     * most {@link #getMaxBucketSize()} values on a single connection. Results are
+     * concatenated in chunk order, so any ordering or limit in the {@code select}
+     * applies only within each chunk.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param select
+     *            the select, whose where clause, if any, is combined by
+     *            {@code AND} with the {@code IN} list
+     * @param filter
+     *            an additional condition to {@code AND} with the
+     *            {@code IN} list, or {@code null}
+     * @param values
+     *            the values
+     * @param rowMapper
+     *            the callback for mapping the rows
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return the mapped rows of every chunk
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public <T> List<T> select(JdbcTemplate jdbcTemplate, SelectBuilder select, WhereClause filter,
+            List<ParameterValue> values, RowMapper<T> rowMapper) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(select, "The select must not be null");
+        Validate.notNull(values, "The values must not be null");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+
+        if (values.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return jdbcTemplate.withConnection(connection -> {
+            List<T> results = new ArrayList<>();
+            for (int from = 0; from < values.size(); from += maxBucketSize) {
+                WhereClause where = where(values.subList(from, Math.min(from + maxBucketSize, values.size())));
+                if (filter != null) {
+                    where = new AndWhereClause(filter, where);
+                }
+                results.addAll(select.andWhere(where).build().select(jdbcTemplate, connection, rowMapper));
+            }
+            return results;
+        });
+    }
+
+    // Visible for testing
+    static int bucketSize(int size) {
+        assert size > 0 : "size is not positive!";
+        int bucketSize = Integer.highestOneBit(size);
+        return bucketSize == size ? size : bucketSize << 1;
+    }
+
+    private static String renderCondition(String column, int bucketSize) {
+        StringBuilder sql = new StringBuilder(column.length() + 6 + bucketSize * 3).append(column).append(" IN (");
+        for (int i = 0; i < bucketSize; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    @Override
+    public String toString() {
+        return "BucketedInClause{" + "column='" + column + '\'' + ", maxBucketSize=" + maxBucketSize + '}';
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.JDBCType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * A named query from a {@link QueryCatalog}, with the SQL type of each of its
+ * parameters.
+ */
+public final class CatalogQuery {
+
+    private final String name;
+
+    private final NamedParameterSql namedSql;
+
+    private final Map<String, JDBCType> parameterTypes;
+
+    CatalogQuery(String name, NamedParameterSql namedSql, Map<String, JDBCType> parameterTypes) {
+        assert name != null : "name is null!";
+        assert namedSql != null : "namedSql is null!";
+        assert parameterTypes != null : "parameterTypes is null!";
+        this.name = name;
+        this.namedSql = namedSql;
+        this.parameterTypes = Collections.unmodifiableMap(new LinkedHashMap<>(parameterTypes));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return the SQL with each named parameter replaced with {@code ?}.
+     *
+     * @return the positional SQL
+     */
+    public String getSql() {
+        return namedSql.getSql();
+    }
+
+    public NamedParameterSql getNamedSql() {
+        return namedSql;
+    }
+
+    /**
+     * Return the declared SQL type of each parameter.
+     *
+     * @return the parameter types by name
+     */
+    public Map<String, JDBCType> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Bind the named values, converting each that is not already a
+     * {@link ParameterValue} to its declared type with
+     * {@link JDBC#object(Object, int)}.
+     *
+     * @param values
+     *            the values by parameter name, which may be {@code null}
+     * @return the query
+     * @throws IllegalArgumentException
+     *             if a parameter has no entry in {@code values}
+     */
+    public Query bind(Map<String, ?> values) {
+        Validate.notNull(values, "The values must not be null");
+
+        Map<String, ParameterValue> parameters = new HashMap<>();
+        for (Map.Entry<String, JDBCType> parameter : parameterTypes.entrySet()) {
+            String parameterName = parameter.getKey();
+            Validate.isTrue(values.containsKey(parameterName), "No value for parameter '%s' of query '%s'.",
+                    parameterName, name);
+
+            Object value = values.get(parameterName);
+            parameters.put(parameterName, value instanceof ParameterValue ? (ParameterValue) value
+                    : JDBC.object(value, parameter.getValue().getVendorTypeNumber()));
+        }
+        return namedSql.bind(parameters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        CatalogQuery that = (CatalogQuery) o;
+
+        return name.equals(that.name) && namedSql.equals(that.namedSql) && parameterTypes.equals(that.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + namedSql.hashCode();
+        result = 31 * result + parameterTypes.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogQuery{" + "name='" + name + '\'' + ", sql='" + getSql() + '\'' + ", parameterTypes="
+                + parameterTypes + '}';
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * Base for a {@link WhereClause} that joins other {@link WhereClause}s with a
+ * single operator.
+ * <p>
+ * The condition and parameters are rendered together in one traversal of the
+ * tree into a single buffer, with nested clauses of the same operator
+ * flattened into their parent (so {@code a AND (b AND c)} renders as
+ * {@code (a AND b AND c)}). The rendering is cached until this clause, or any
+ * composite clause nested within it, is modified.
+ */
+abstract class CompositeWhereClause implements WhereClause {
+
+    /**
+     * Buffers larger than this are not retained between renderings.
+     */
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final List<WhereClause> clauses;
+
+    private final String operator;
+
+    /**
+     * Count of modifications to this clause, which only increases.
+     */
+    private long modifications;
+
+    private Rendering rendering;
+
+    CompositeWhereClause(String operator, List<WhereClause> clauses) {
+        assert operator != null : "operator is null!";
+        assert clauses != null : "clauses is null!";
+        this.operator = operator;
+        this.clauses = clauses;
+    }
+
+    // Visible for testing
+    List<WhereClause> getClauses() {
+        return clauses;
+    }
+
+    /**
+     * Add the {@link WhereClause} to those joined by this one.
+     *
+     * @param whereClause
+     *            the clause to add
+     */
+    void add(WhereClause whereClause) {
+        assert whereClause != null : "whereClause is null!";
+
+        clauses.add(whereClause);
+        modifications++;
+    }
+
+    boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    @Override
+    public String getCondition() {
+        return render().condition;
+    }
+
+    @Override
+    public List<ParameterValue> getParameters() {
+        return render().parameters;
+    }
+
+    @Override
+    public String toSql() {
+        String condition = getCondition();
+        if (condition.isEmpty()) {
+            // Special case for if there are no nested conditions
+            return "";
+        }
+        return " WHERE " + condition;
+    }
+
+    private Rendering render() {
+        long stamp = stamp();
+        Rendering current = this.rendering;
+        if (current != null && current.stamp == stamp) {
+            return current;
+        }
+
+        StringBuilder sql = BUFFER.get();
+        boolean shared = sql.length() == 0;
+        if (!shared) {
+            // Re-entered from a nested clause while the buffer is in use
+            sql = new StringBuilder();
+        }
+
+        List<ParameterValue> parameters = new ArrayList<>();
+        try {
+            appendTo(sql, parameters);
+            current = new Rendering(stamp, sql.toString(), Collections.unmodifiableList(parameters));
+        } finally {
+            if (shared) {
+                sql.setLength(0);
+                if (sql.capacity() > MAX_RETAINED_BUFFER) {
+                    BUFFER.remove();
+                }
+            }
+        }
+
+        this.rendering = current;
+        return current;
+    }
+
+    /**
+     * Return a stamp which changes whenever this clause or any composite clause
+     * nested within it is modified.
+     *
+     * @return the stamp
+     */
+    private long stamp() {
+        long stamp = modifications;
+        for (WhereClause clause : clauses) {
+            if (clause instanceof CompositeWhereClause) {
+                stamp += ((CompositeWhereClause) clause).stamp();
+            }
+        }
+        return stamp;
+    }
+
+    /**
+     * Append the parenthesized condition of this clause to {@code sql} and its
+     * parameters to {@code parameters}. Nothing is appended to {@code sql} if no
+     * nested clause has a condition.
+     */
+    private void appendTo(StringBuilder sql, List<ParameterValue> parameters) {
+        int mark = sql.length();
+        sql.append('(');
+        if (appendTerms(sql, parameters, true)) {
+            // No conditions were rendered
+            sql.setLength(mark);
+        } else {
+            sql.append(')');
+        }
+    }
+
+    /**
+     * Append the nested conditions joined by the operator, flattening nested
+     * clauses of the same type.
+     *
+     * @return whether the next condition will be the first rendered
+     */
+    private boolean appendTerms(StringBuilder sql, List<ParameterValue> parameters, boolean first) {
+        for (WhereClause clause : clauses) {
+            if (clause.getClass() == getClass()) {
+                first = ((CompositeWhereClause) clause).appendTerms(sql, parameters, first);
+                continue;
+            }
+
+            int mark = sql.length();
+            if (!first) {
+                sql.append(operator);
+            }
+            int start = sql.length();
+
+            if (clause instanceof CompositeWhereClause) {
+                ((CompositeWhereClause) clause).appendTo(sql, parameters);
+            } else {
+                String condition = clause.getCondition();
+                if (StringUtils.isNotBlank(condition)) {
+                    sql.append(condition);
+                }
+                parameters.addAll(clause.getParameters());
+            }
+
+            if (sql.length() == start) {
+                // Nothing rendered, so discard the operator
+                sql.setLength(mark);
+            } else {
+                first = false;
+            }
+        }
+        return first;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        CompositeWhereClause that = (CompositeWhereClause) o;
+
+        return clauses.equals(that.clauses);
+    }
+
+    @Override
+    public int hashCode() {
+        return clauses.hashCode();
+    }
+
+    /**
+     * A cached rendering of a {@link CompositeWhereClause}.
+     */
+    private static final class Rendering {
+
+        private final long stamp;
+
+        private final String condition;
+
+        private final List<ParameterValue> parameters;
+
+        Rendering(long stamp, String condition, List<ParameterValue> parameters) {
+            this.stamp = stamp;
+            this.condition = condition;
+            this.parameters = parameters;
+        }
+    }
+}
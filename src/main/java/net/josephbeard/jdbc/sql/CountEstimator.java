@@ -0,0 +1,30 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.SQLException;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+
+/**
+ * Estimates the number of rows a {@link Query} would return, typically from
+ * planner statistics rather than by executing it.
+ */
+@FunctionalInterface
+public interface CountEstimator {
+
+    /**
+     * Estimate the number of rows the {@code query} would return.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param query
+     *            the query, without any limit or offset
+     * @return the estimated number of rows
+     * @throws SQLException
+     *             if an error occurs
+     */
+    long estimate(JdbcTemplate jdbcTemplate, Query query) throws SQLException;
+
+}
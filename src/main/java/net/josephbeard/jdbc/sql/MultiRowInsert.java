@@ -0,0 +1,245 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * A multi-row {@code INSERT INTO table (columns) VALUES (?, ?), (?, ?), ...}
+ * statement.
+ * <p>
+ * Rows are sent in groups whose sizes are powers of two, so at most a handful
+ * of distinct SQL strings are ever prepared for a given table and column list.
+ * The largest group is bounded by both {@link #getMaxRows()} and the number of
+ * bind parameters the driver accepts in a single statement,
+ * {@link #getMaxParameters()}.
+ */
+public final class MultiRowInsert {
+
+    /**
+     * The default bind parameter limit, which is that of the PostgreSQL wire
+     * protocol.
+     */
+    public static final int DEFAULT_MAX_PARAMETERS = Short.MAX_VALUE;
+
+    /**
+     * The default maximum number of rows in a single statement.
+     */
+    public static final int DEFAULT_MAX_ROWS = 512;
+
+    private final String table;
+
+    private final List<String> columns;
+
+    private final int maxParameters;
+
+    private final int maxRows;
+
+    /**
+     * The largest power of two group size permitted by the limits.
+     */
+    private final int maxGroupSize;
+
+    /**
+     * Rendered SQL indexed by the base-2 logarithm of the group size.
+     */
+    private final String[] statements;
+
+    public MultiRowInsert(String table, String... columns) {
+        this(table, Arrays.asList(Validate.notNull(columns, "The columns must not be null")));
+    }
+
+    public MultiRowInsert(String table, List<String> columns) {
+        this(table, columns, DEFAULT_MAX_PARAMETERS, DEFAULT_MAX_ROWS);
+    }
+
+    private MultiRowInsert(String table, List<String> columns, int maxParameters, int maxRows) {
+        Validate.notBlank(table, "The table must not be blank");
+        Validate.notEmpty(columns, "The columns must not be empty");
+        Validate.noNullElements(columns, "The columns must not be null");
+        Validate.isTrue(maxParameters >= columns.size(), "The maxParameters must allow at least one row");
+        Validate.isTrue(maxRows > 0, "The maxRows must be positive");
+
+        this.table = table;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.maxParameters = maxParameters;
+        this.maxRows = maxRows;
+        this.maxGroupSize = Integer.highestOneBit(Math.min(maxRows, maxParameters / columns.size()));
+        this.statements = new String[Integer.numberOfTrailingZeros(maxGroupSize) + 1];
+        for (int i = 0; i < statements.length; i++) {
+            statements[i] = renderSql(1 << i);
+        }
+    }
+
+    /**
+     * Return a copy of this {@link MultiRowInsert} that binds no more than
+     * {@code maxParameters} parameters in a single statement.
+     *
+     * @param maxParameters
+     *            the bind parameter limit of the driver
+     * @return the multi-row insert
+     */
+    public MultiRowInsert withMaxParameters(int maxParameters) {
+        return new MultiRowInsert(table, columns, maxParameters, maxRows);
+    }
+
+    /**
+     * Return a copy of this {@link MultiRowInsert} that inserts no more than
+     * {@code maxRows} rows in a single statement.
+     *
+     * @param maxRows
+     *            the maximum rows per statement
+     * @return the multi-row insert
+     */
+    public MultiRowInsert withMaxRows(int maxRows) {
+        return new MultiRowInsert(table, columns, maxParameters, maxRows);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Return the largest group of rows sent in a single statement, which is the
+     * largest power of two permitted by {@link #getMaxRows()} and
+     * {@link #getMaxParameters()}.
+     *
+     * @return the largest group size
+     */
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    /**
+     * Return the SQL for a statement that inserts {@code groupSize} rows.
+     *
+     * @param groupSize
+     *            the number of rows, which must be a power of two no larger than
+     *            the largest permitted group
+     * @return the SQL statement
+     */
+    public String toSql(int groupSize) {
+        Validate.isTrue(groupSize > 0 && Integer.bitCount(groupSize) == 1 && groupSize <= maxGroupSize,
+                "The groupSize must be a power of two no larger than %d", maxGroupSize);
+
+        return statements[Integer.numberOfTrailingZeros(groupSize)];
+    }
+
+    /**
+     * Insert the {@code rows}, obtaining a connection from the
+     * {@link JdbcTemplate}. The groups are not executed within a transaction;
+     * use {@link #execute(JdbcTemplate, Connection, List)} from within
+     * {@link JdbcTemplate#doInTransaction(net.josephbeard.jdbc.ConnectionCallback)}
+     * if all rows must be inserted atomically.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param rows
+     *            the rows, each with one value per column
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int execute(JdbcTemplate jdbcTemplate, List<? extends List<ParameterValue>> rows) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(rows, "The rows must not be null");
+
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.withConnection(connection -> execute(jdbcTemplate, connection, rows));
+    }
+
+    /**
+     * Insert the {@code rows} on the {@link Connection}.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param jdbcTemplate
+     *            the template used to prepare each statement
+     * @param connection
+     *            an open connection
+     * @param rows
+     *            the rows, each with one value per column
+     * @return the number of rows affected
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public int execute(JdbcTemplate jdbcTemplate, Connection connection, List<? extends List<ParameterValue>> rows)
+            throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(connection, "The connection must not be null");
+        Validate.notNull(rows, "The rows must not be null");
+
+        int affected = 0;
+        int remaining = rows.size();
+        Iterator<? extends List<ParameterValue>> iterator = rows.iterator();
+        while (remaining > 0) {
+            int groupSize = Math.min(Integer.highestOneBit(remaining), maxGroupSize);
+
+            List<ParameterValue> params = new ArrayList<>(groupSize * columns.size());
+            for (int i = 0; i < groupSize; i++) {
+                List<ParameterValue> row = iterator.next();
+                Validate.isTrue(row.size() == columns.size(), "Expected %d values per row but received %d.",
+                        columns.size(), row.size());
+                params.addAll(row);
+            }
+
+            try (PreparedStatement st = jdbcTemplate.prepareStatement(connection, toSql(groupSize), params)) {
+                affected += jdbcTemplate.executeUpdate(st);
+            }
+            remaining -= groupSize;
+        }
+        return affected;
+    }
+
+    private String renderSql(int groupSize) {
+        StringBuilder row = new StringBuilder(columns.size() * 3 + 1).append('(');
+        for (int i = 0; i < columns.size(); i++) {
+            row.append(i == 0 ? "?" : ", ?");
+        }
+        row.append(')');
+
+        StringBuilder sql = new StringBuilder(64 + groupSize * (row.length() + 2));
+        sql.append("INSERT INTO ").append(table).append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int i = 0; i < groupSize; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "MultiRowInsert{" + "table='" + table + '\'' + ", columns=" + columns + ", maxParameters="
+                + maxParameters + ", maxRows=" + maxRows + '}';
+    }
+
+}
@@ -0,0 +1,385 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * SQL with {@code :name} parameters, compiled to positional {@code ?}
+ * parameters. For example:
+ *
+ * <pre>
+ * Query query = NamedParameterSql.compile("SELECT * FROM people WHERE last_name = :name OR nickname = :name")
+ *         .bind(Collections.singletonMap("name", JDBC.string("Smith")));
+ *
+ * List&lt;Person&gt; people = query.select(jdbcTemplate, personMapper);
+ * </pre>
+ *
+ * The SQL is parsed once by {@link #compile(String)} and the result cached, so
+ * repeated calls with the same SQL only bind values. The cache holds the 1,024
+ * most recently used statements, so SQL built dynamically cannot grow it
+ * without bound while frequently used statements stay compiled. Parameters are
+ * not recognized within quoted strings or identifiers, comments or
+ * dollar-quoted strings, and PostgreSQL casts such as {@code ::jsonb} are left
+ * intact. A name may appear more than once. Positional {@code ?} parameters
+ * may not be mixed with named ones, but {@code ??} is passed through for
+ * drivers which use it as an escaped {@code ?} operator.
+ */
+public final class NamedParameterSql {
+
+    private static final int MAX_CACHED = 1024;
+
+    private static final Cache CACHE = new Cache(MAX_CACHED);
+
+    /**
+     * Readable bean properties by name, for each bean class bound.
+     */
+    private static final ClassValue<Map<String, Method>> PROPERTIES = new ClassValue<Map<String, Method>>() {
+
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            try {
+                Map<String, Method> properties = new HashMap<>();
+                for (PropertyDescriptor property : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    Method readMethod = property.getReadMethod();
+                    if (readMethod != null) {
+                        readMethod.setAccessible(true);
+                        properties.put(property.getName(), readMethod);
+                    }
+                }
+                return Collections.unmodifiableMap(properties);
+            } catch (IntrospectionException e) {
+                throw new IllegalArgumentException("Unable to introspect " + type.getName(), e);
+            }
+        }
+    };
+
+    private final String namedSql;
+
+    private final String sql;
+
+    /**
+     * The parameter name for each positional parameter.
+     */
+    private final List<String> positions;
+
+    private final Set<String> parameterNames;
+
+    private NamedParameterSql(String namedSql, String sql, List<String> positions) {
+        assert namedSql != null : "namedSql is null!";
+        assert sql != null : "sql is null!";
+        assert positions != null : "positions is null!";
+        this.namedSql = namedSql;
+        this.sql = sql.intern();
+        this.positions = Collections.unmodifiableList(positions);
+        this.parameterNames = Collections.unmodifiableSet(new LinkedHashSet<>(positions));
+    }
+
+    /**
+     * Return the compiled form of the {@code :name} parameterized SQL, parsing it
+     * only if it is not among the most recently used statements.
+     *
+     * @param namedSql
+     *            the SQL with named parameters
+     * @return the compiled SQL
+     * @throws IllegalArgumentException
+     *             if the SQL contains positional parameters
+     */
+    public static NamedParameterSql compile(String namedSql) {
+        Validate.notBlank(namedSql, "The namedSql must not be blank");
+
+        return CACHE.compile(namedSql);
+    }
+
+    // Visible for testing
+    static NamedParameterSql parse(String namedSql) {
+        StringBuilder sql = new StringBuilder(namedSql.length());
+        List<String> positions = new ArrayList<>();
+
+        int length = namedSql.length();
+        int i = 0;
+        while (i < length) {
+            char c = namedSql.charAt(i);
+            int end;
+
+            if (c == '\'') {
+                boolean escapes = i > 0 && (namedSql.charAt(i - 1) == 'E' || namedSql.charAt(i - 1) == 'e')
+                        && (i == 1 || !isIdentifierPart(namedSql.charAt(i - 2)));
+                end = skipQuoted(namedSql, i, '\'', escapes);
+            } else if (c == '"') {
+                end = skipQuoted(namedSql, i, '"', false);
+            } else if (c == '-' && namedSql.startsWith("--", i)) {
+                end = namedSql.indexOf('\n', i);
+                end = end < 0 ? length : end + 1;
+            } else if (c == '/' && namedSql.startsWith("/*", i)) {
+                end = skipBlockComment(namedSql, i);
+            } else if (c == '$' && (i == 0 || !isIdentifierPart(namedSql.charAt(i - 1)))) {
+                end = skipDollarQuoted(namedSql, i);
+            } else if (c == ':' && namedSql.startsWith("::", i)) {
+                end = i + 2;
+            } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(namedSql.charAt(i + 1))) {
+                end = i + 2;
+                while (end < length && isIdentifierPart(namedSql.charAt(end))) {
+                    end++;
+                }
+                positions.add(namedSql.substring(i + 1, end));
+                sql.append('?');
+                i = end;
+                continue;
+            } else if (c == '?') {
+                Validate.isTrue(namedSql.startsWith("??", i), "Positional parameter at %d in named SQL: %s", i,
+                        namedSql);
+                end = i + 2;
+            } else {
+                end = i + 1;
+            }
+
+            sql.append(namedSql, i, end);
+            i = end;
+        }
+
+        return new NamedParameterSql(namedSql, sql.toString(), positions);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isJavaIdentifierPart(c) && c != '$';
+    }
+
+    /**
+     * Return the index following the quoted string or identifier starting at
+     * {@code start}. A doubled quote is an escaped quote.
+     */
+    private static int skipQuoted(String sql, int start, char quote, boolean backslashEscapes) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i++);
+            if (backslashEscapes && c == '\\') {
+                i++;
+            } else if (c == quote) {
+                if (i < sql.length() && sql.charAt(i) == quote) {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return sql.length();
+    }
+
+    /**
+     * Return the index following the block comment starting at {@code start},
+     * which may contain nested block comments.
+     */
+    private static int skipBlockComment(String sql, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < sql.length()) {
+            if (sql.startsWith("/*", i)) {
+                depth++;
+                i += 2;
+            } else if (sql.startsWith("*/", i)) {
+                i += 2;
+                if (--depth == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    /**
+     * Return the index following the dollar-quoted string (such as
+     * {@code $body$ ... $body$}) starting at {@code start}, or the index after the
+     * {@code $} if it does not start one.
+     */
+    private static int skipDollarQuoted(String sql, int start) {
+        int i = start + 1;
+        if (i < sql.length() && Character.isJavaIdentifierStart(sql.charAt(i)) && sql.charAt(i) != '$') {
+            while (i < sql.length() && isIdentifierPart(sql.charAt(i))) {
+                i++;
+            }
+        }
+        if (i >= sql.length() || sql.charAt(i) != '$') {
+            return start + 1;
+        }
+
+        String tag = sql.substring(start, i + 1);
+        int close = sql.indexOf(tag, i + 1);
+        return close < 0 ? sql.length() : close + tag.length();
+    }
+
+    public String getNamedSql() {
+        return namedSql;
+    }
+
+    /**
+     * Return the SQL with each named parameter replaced with {@code ?}.
+     *
+     * @return the positional SQL
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Return the distinct parameter names, in order of first appearance.
+     *
+     * @return the parameter names
+     */
+    public Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * Return the number of positional parameters, counting each occurrence of a
+     * name.
+     *
+     * @return the parameter count
+     */
+    public int getParameterCount() {
+        return positions.size();
+    }
+
+    /**
+     * Bind the named values to their positions.
+     *
+     * @param values
+     *            the values by parameter name
+     * @return the query
+     * @throws IllegalArgumentException
+     *             if a parameter has no value
+     */
+    public Query bind(Map<String, ? extends ParameterValue> values) {
+        Validate.notNull(values, "The values must not be null");
+
+        List<ParameterValue> parameters = new ArrayList<>(positions.size());
+        for (String name : positions) {
+            ParameterValue value = values.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for parameter '" + name + "'.");
+            }
+            parameters.add(value);
+        }
+        return new Query(sql, parameters);
+    }
+
+    /**
+     * Bind the properties of the bean to the parameters of the same name.
+     * Properties which are {@link ParameterValue}s are bound as they are, and
+     * others by {@link JDBC#object(Object)}.
+     *
+     * @param bean
+     *            the bean
+     * @return the query
+     * @throws IllegalArgumentException
+     *             if a parameter has no readable property
+     */
+    public Query bindBean(Object bean) {
+        Validate.notNull(bean, "The bean must not be null");
+
+        Map<String, Method> properties = PROPERTIES.get(bean.getClass());
+        List<ParameterValue> parameters = new ArrayList<>(positions.size());
+        for (String name : positions) {
+            Method readMethod = properties.get(name);
+            if (readMethod == null) {
+                throw new IllegalArgumentException(
+                        "No property for parameter '" + name + "' on " + bean.getClass().getName() + ".");
+            }
+
+            Object value;
+            try {
+                value = readMethod.invoke(bean);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Unable to read property '" + name + "'", e);
+            }
+            parameters.add(value instanceof ParameterValue ? (ParameterValue) value : JDBC.object(value));
+        }
+        return new Query(sql, parameters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        NamedParameterSql that = (NamedParameterSql) o;
+
+        return namedSql.equals(that.namedSql);
+    }
+
+    @Override
+    public int hashCode() {
+        return namedSql.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "NamedParameterSql{" + "sql='" + sql + '\'' + ", positions=" + positions + '}';
+    }
+
+    /**
+     * The compiled statements, evicting the least recently used beyond a maximum.
+     */
+    // Visible for testing
+    static final class Cache {
+
+        private final Map<String, NamedParameterSql> compiled;
+
+        Cache(int maxSize) {
+            assert maxSize > 0 : "maxSize is not positive!";
+            this.compiled = new LinkedHashMap<String, NamedParameterSql>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, NamedParameterSql> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        NamedParameterSql compile(String namedSql) {
+            synchronized (compiled) {
+                NamedParameterSql cached = compiled.get(namedSql);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
+            // Parse outside the lock; racing callers may each parse the same SQL once
+            NamedParameterSql parsed = parse(namedSql);
+            synchronized (compiled) {
+                NamedParameterSql cached = compiled.putIfAbsent(namedSql, parsed);
+                return cached != null ? cached : parsed;
+            }
+        }
+
+        int size() {
+            synchronized (compiled) {
+                return compiled.size();
+            }
+        }
+    }
+}
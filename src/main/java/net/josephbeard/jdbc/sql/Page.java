@@ -0,0 +1,58 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.util.List;
+
+/**
+ * A page of rows, with the total number of rows across all pages.
+ *
+ * @param <T>
+ *            the type of the mapped rows
+ */
+public final class Page<T> {
+
+    private final List<T> rows;
+
+    private final long total;
+
+    private final boolean estimated;
+
+    Page(List<T> rows, long total, boolean estimated) {
+        assert rows != null : "rows is null!";
+        this.rows = rows;
+        this.total = total;
+        this.estimated = estimated;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the total number of rows matching the query, ignoring any limit and
+     * offset.
+     *
+     * @return the total
+     * @see #isEstimated()
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Return whether {@link #getTotal()} is an estimate rather than an exact
+     * count.
+     *
+     * @return whether the total is estimated
+     */
+    public boolean isEstimated() {
+        return estimated;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" + "rows=" + rows + ", total=" + total + ", estimated=" + estimated + '}';
+    }
+}
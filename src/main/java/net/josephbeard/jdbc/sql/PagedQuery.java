@@ -0,0 +1,140 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * Retrieves a page of rows together with the total number of matching rows.
+ * <p>
+ * By default the total is counted exactly in the same statement as the page,
+ * by adding {@code COUNT(*) OVER ()} to the projection, so only one round trip
+ * is made. The total column is read from the first row and is not visible to
+ * the {@link RowMapper}'s result. A page beyond the last row carries no total,
+ * so in that case a separate count is made.
+ * <p>
+ * An exact count still requires the database to find every matching row. For
+ * very large tables a {@link CountEstimator} (such as
+ * {@code PostgreSQL.plannerEstimate()}) may be supplied instead with
+ * {@link #estimated(CountEstimator)}.
+ *
+ * @param <T>
+ *            the type of the mapped rows
+ */
+public final class PagedQuery<T> {
+
+    /**
+     * The label of the total column added to the projection.
+     */
+    static final String TOTAL_LABEL = "paged_query_total";
+
+    private final SelectBuilder select;
+
+    private final RowMapper<T> rowMapper;
+
+    private final CountEstimator estimator;
+
+    /**
+     * Create a paged query of the {@code select}, which should include any where
+     * clause and ordering but no limit or offset.
+     *
+     * @param select
+     *            the select
+     * @param rowMapper
+     *            the callback for mapping the rows
+     */
+    public PagedQuery(SelectBuilder select, RowMapper<T> rowMapper) {
+        this(select, rowMapper, null);
+    }
+
+    private PagedQuery(SelectBuilder select, RowMapper<T> rowMapper, CountEstimator estimator) {
+        Validate.notNull(select, "The select must not be null");
+        Validate.notNull(rowMapper, "The rowMapper must not be null");
+        this.select = select;
+        this.rowMapper = rowMapper;
+        this.estimator = estimator;
+    }
+
+    /**
+     * Return a copy of this paged query whose total is estimated by the
+     * {@link CountEstimator} rather than counted.
+     *
+     * @param estimator
+     *            the estimator
+     * @return the paged query
+     */
+    public PagedQuery<T> estimated(CountEstimator estimator) {
+        Validate.notNull(estimator, "The estimator must not be null");
+        return new PagedQuery<>(select, rowMapper, estimator);
+    }
+
+    /**
+     * Retrieve the page selected by the {@code limit} and {@code offset}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param limit
+     *            the limit clause
+     * @param offset
+     *            the offset clause
+     * @return the page
+     * @throws SQLException
+     *             if an error occurs
+     */
+    public Page<T> page(JdbcTemplate jdbcTemplate, LimitClause limit, OffsetClause offset) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        Validate.notNull(limit, "The limit must not be null");
+        Validate.notNull(offset, "The offset must not be null");
+
+        if (estimator != null) {
+            List<T> rows = select.limit(limit).offset(offset).build().select(jdbcTemplate, rowMapper);
+            long total = estimator.estimate(jdbcTemplate, select.build());
+            return new Page<>(rows, total, true);
+        }
+
+        Page<T> page = pageQuery(limit, offset).select(jdbcTemplate, this::mapPage);
+        if (page.getRows().isEmpty()) {
+            // No row carried the total, so count separately
+            return new Page<>(page.getRows(), count(jdbcTemplate), false);
+        }
+        return page;
+    }
+
+    // Visible for testing
+    Query pageQuery(LimitClause limit, OffsetClause offset) {
+        return select.addColumns("COUNT(*) OVER () AS " + TOTAL_LABEL).limit(limit).offset(offset).build();
+    }
+
+    private long count(JdbcTemplate jdbcTemplate) throws SQLException {
+        Query query = select.build();
+        return jdbcTemplate.selectOne("SELECT COUNT(*) FROM (" + query.getSql() + ") AS counted",
+                (resultSet, rowNumber) -> resultSet.getLong(1), query.getParameters()).orElse(0L);
+    }
+
+    private Page<T> mapPage(ResultSet resultSet) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        long total = 0L;
+        for (long rowNumber = 0; resultSet.next(); rowNumber++) {
+            if (rowNumber == 0) {
+                total = resultSet.getLong(TOTAL_LABEL);
+            }
+            rows.add(rowMapper.processRow(resultSet, rowNumber));
+        }
+        return new Page<>(rows, total, false);
+    }
+
+    @Override
+    public String toString() {
+        return "PagedQuery{" + "select=" + select + ", estimated=" + (estimator != null) + '}';
+    }
+
+}
@@ -0,0 +1,171 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.ResultSetHandler;
+import net.josephbeard.jdbc.RowConsumer;
+import net.josephbeard.jdbc.RowMapper;
+
+/**
+ * An immutable SQL statement and its {@link ParameterValue}s.
+ * <p>
+ * The SQL is held as given. To render a shape once, build the {@code Query}
+ * once and reuse it, or bind a compiled template such as
+ * {@link NamedParameterSql}, whose queries all share its SQL string.
+ */
+public final class Query {
+
+    private final String sql;
+
+    private final List<ParameterValue> parameters;
+
+    public Query(String sql, List<ParameterValue> parameters) {
+        Validate.notBlank(sql, "The sql must not be blank");
+        Validate.notNull(parameters, "The parameters must not be null");
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<ParameterValue> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Execute this query through the {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return list of results from the {@code rowMapper} callback
+     * @throws SQLException
+     *             if an error occurs
+     * @see JdbcTemplate#select(String, RowMapper, List)
+     */
+    public <T> List<T> select(JdbcTemplate jdbcTemplate, RowMapper<T> rowMapper) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        return jdbcTemplate.select(sql, rowMapper, parameters);
+    }
+
+    /**
+     * Execute this query on the {@link Connection} through the
+     * {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param connection
+     *            the connection on which to execute the query
+     * @param rowMapper
+     *            the callback for mapping the query rows
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return list of results from the {@code rowMapper} callback
+     * @throws SQLException
+     *             if an error occurs
+     * @see JdbcTemplate#select(Connection, String, RowMapper, List)
+     */
+    public <T> List<T> select(JdbcTemplate jdbcTemplate, Connection connection, RowMapper<T> rowMapper)
+            throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        return jdbcTemplate.select(connection, sql, rowMapper, parameters);
+    }
+
+    /**
+     * Execute this query through the {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param resultSetHandler
+     *            the callback for handling the query result set
+     * @param <T>
+     *            the type of result of the {@code resultSetHandler} callback
+     * @return the result of the {@code resultSetHandler} callback
+     * @throws SQLException
+     *             if an error occurs
+     * @see JdbcTemplate#select(String, ResultSetHandler, List)
+     */
+    public <T> T select(JdbcTemplate jdbcTemplate, ResultSetHandler<T> resultSetHandler) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        return jdbcTemplate.select(sql, resultSetHandler, parameters);
+    }
+
+    /**
+     * Execute this query, which is expected to return at most one row, through
+     * the {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param rowMapper
+     *            the callback for mapping the query row
+     * @param <T>
+     *            the type of result of the {@code rowMapper} callback
+     * @return optional of the mapped row, or {@link Optional#empty()} if the query
+     *         returned no results
+     * @throws SQLException
+     *             if an error occurs or more than one row was returned
+     * @see JdbcTemplate#selectOne(String, RowMapper, List)
+     */
+    public <T> Optional<T> selectOne(JdbcTemplate jdbcTemplate, RowMapper<T> rowMapper) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        return jdbcTemplate.selectOne(sql, rowMapper, parameters);
+    }
+
+    /**
+     * Execute this query through the {@link JdbcTemplate} and consume each row.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @param consumer
+     *            the callback for consuming the query rows
+     * @throws SQLException
+     *             if an error occurs
+     * @see JdbcTemplate#forEach(String, RowConsumer, List)
+     */
+    public void forEach(JdbcTemplate jdbcTemplate, RowConsumer consumer) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+        jdbcTemplate.forEach(sql, consumer, parameters);
+    }
+
+    @Override
+    public String toString() {
+        return "Query{" + "sql='" + sql + '\'' + ", parameters=" + parameters + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Query that = (Query) o;
+
+        return sql.equals(that.sql) && parameters.equals(that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = sql.hashCode();
+        result = 31 * result + parameters.hashCode();
+        return result;
+    }
+
+}
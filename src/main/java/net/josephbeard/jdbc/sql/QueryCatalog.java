@@ -0,0 +1,333 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JdbcTemplate;
+
+/**
+ * A catalog of named SQL queries loaded from classpath resources, so that SQL
+ * lives in one place and is checked when the application starts rather than on
+ * first use. Each query in a resource is introduced by a {@code -- name:}
+ * comment and declares the SQL type (a {@link JDBCType} name) of each of its
+ * {@code :name} parameters:
+ *
+ * <pre>
+ * -- name: find_person
+ * -- param: id BIGINT
+ * SELECT id, name FROM people WHERE id = :id
+ * </pre>
+ *
+ * Loading fails if a query name is repeated, if a parameter is used but not
+ * declared (or declared but not used), or if a type is unknown.
+ * {@link #validate(JdbcTemplate)} additionally has the database describe every
+ * query, and {@link #warming(ConnectionProvider)} prepares and describes every
+ * query once on each new connection, so the driver's client-side parse is
+ * cached and a query the database rejects fails at startup.
+ * <p>
+ * Warming does not create server-side prepared statements: the PostgreSQL
+ * driver describes a query with an unnamed statement, and only names (and so
+ * keeps) a statement once it has been executed {@code prepareThreshold} times
+ * (by default 5). The server's parse and plan are therefore still paid by the
+ * first executions after a connection is opened.
+ */
+public final class QueryCatalog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryCatalog.class);
+
+    private static final String NAME_PREFIX = "-- name:";
+
+    private static final String PARAM_PREFIX = "-- param:";
+
+    private final Map<String, CatalogQuery> queries;
+
+    QueryCatalog(Map<String, CatalogQuery> queries) {
+        assert queries != null : "queries is null!";
+        this.queries = Collections.unmodifiableMap(new LinkedHashMap<>(queries));
+    }
+
+    /**
+     * Load the catalog from the classpath {@code resources}, using the class
+     * loader of this class.
+     *
+     * @param resources
+     *            the resource names
+     * @return the catalog
+     * @throws IllegalArgumentException
+     *             if a resource is missing or invalid
+     */
+    public static QueryCatalog load(String... resources) {
+        return load(QueryCatalog.class.getClassLoader(), resources);
+    }
+
+    /**
+     * Load the catalog from the classpath {@code resources}.
+     *
+     * @param classLoader
+     *            the class loader from which to load the resources
+     * @param resources
+     *            the resource names
+     * @return the catalog
+     * @throws IllegalArgumentException
+     *             if a resource is missing or invalid
+     */
+    public static QueryCatalog load(ClassLoader classLoader, String... resources) {
+        Validate.notNull(classLoader, "The classLoader must not be null");
+        Validate.notEmpty(resources, "The resources must not be empty");
+        Validate.noNullElements(resources, "The resources must not be null");
+
+        Map<String, CatalogQuery> queries = new LinkedHashMap<>();
+        for (String resource : resources) {
+            try (InputStream stream = classLoader.getResourceAsStream(resource)) {
+                Validate.isTrue(stream != null, "No such resource: %s", resource);
+                parse(resource, new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)), queries);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + resource, e);
+            }
+        }
+        LOGGER.debug("Loaded {} queries from {} resources", queries.size(), resources.length);
+        return new QueryCatalog(queries);
+    }
+
+    // Visible for testing
+    static void parse(String resource, BufferedReader reader, Map<String, CatalogQuery> queries) throws IOException {
+        String name = null;
+        int nameLine = 0;
+        Map<String, JDBCType> types = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder();
+
+        int lineNumber = 0;
+        for (String line = reader.readLine();; line = reader.readLine()) {
+            lineNumber++;
+            String trimmed = line == null ? null : line.trim();
+
+            if (trimmed == null || trimmed.startsWith(NAME_PREFIX)) {
+                if (name != null) {
+                    add(resource, nameLine, name, types, sql, queries);
+                }
+                if (trimmed == null) {
+                    return;
+                }
+
+                name = trimmed.substring(NAME_PREFIX.length()).trim();
+                nameLine = lineNumber;
+                Validate.isTrue(!name.isEmpty(), "%s:%d: The query name must not be blank", resource, lineNumber);
+                types = new LinkedHashMap<>();
+                sql.setLength(0);
+            } else if (trimmed.startsWith(PARAM_PREFIX)) {
+                Validate.isTrue(name != null, "%s:%d: Parameter declared before any query", resource, lineNumber);
+
+                String[] declaration = trimmed.substring(PARAM_PREFIX.length()).trim().split("\\s+");
+                Validate.isTrue(declaration.length == 2, "%s:%d: Expected '-- param: name TYPE'", resource,
+                        lineNumber);
+                Validate.isTrue(types.put(declaration[0], type(resource, lineNumber, declaration[1])) == null,
+                        "%s:%d: Parameter '%s' is declared twice", resource, lineNumber, declaration[0]);
+            } else if (name != null) {
+                sql.append(line).append('\n');
+            } else {
+                Validate.isTrue(trimmed.isEmpty() || trimmed.startsWith("--"),
+                        "%s:%d: SQL before the first '%s' line", resource, lineNumber, NAME_PREFIX);
+            }
+        }
+    }
+
+    private static JDBCType type(String resource, int lineNumber, String typeName) {
+        try {
+            return JDBCType.valueOf(typeName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(resource + ":" + lineNumber + ": Unknown SQL type " + typeName, e);
+        }
+    }
+
+    private static void add(String resource, int lineNumber, String name, Map<String, JDBCType> types,
+            StringBuilder sql, Map<String, CatalogQuery> queries) {
+        String text = sql.toString().trim();
+        while (text.endsWith(";")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        Validate.isTrue(!text.isEmpty(), "%s:%d: Query '%s' has no SQL", resource, lineNumber, name);
+
+        NamedParameterSql namedSql;
+        try {
+            namedSql = NamedParameterSql.compile(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(resource + ":" + lineNumber + ": " + e.getMessage(), e);
+        }
+        Validate.isTrue(namedSql.getParameterNames().equals(types.keySet()),
+                "%s:%d: Query '%s' uses parameters %s but declares %s", resource, lineNumber, name,
+                namedSql.getParameterNames(), types.keySet());
+        Validate.isTrue(!queries.containsKey(name), "%s:%d: Query '%s' is defined twice", resource, lineNumber,
+                name);
+
+        queries.put(name, new CatalogQuery(name, namedSql, types));
+    }
+
+    /**
+     * Return the named query.
+     *
+     * @param name
+     *            the query name
+     * @return the query
+     * @throws IllegalArgumentException
+     *             if there is no such query
+     */
+    public CatalogQuery get(String name) {
+        CatalogQuery query = queries.get(name);
+        Validate.isTrue(query != null, "No query named '%s'.", name);
+        return query;
+    }
+
+    public Set<String> getNames() {
+        return queries.keySet();
+    }
+
+    /**
+     * Have the database describe every query, verifying that it parses and has the
+     * expected number of parameters.
+     *
+     * @param jdbcTemplate
+     *            the template
+     * @throws IllegalStateException
+     *             if a query has an unexpected number of parameters
+     * @throws SQLException
+     *             if a query is invalid
+     */
+    public void validate(JdbcTemplate jdbcTemplate) throws SQLException {
+        Validate.notNull(jdbcTemplate, "The jdbcTemplate must not be null");
+
+        jdbcTemplate.withConnection(connection -> {
+            for (CatalogQuery query : queries.values()) {
+                try (PreparedStatement statement = connection.prepareStatement(query.getSql())) {
+                    ParameterMetaData md = statement.getParameterMetaData();
+                    int expected = query.getNamedSql().getParameterCount();
+                    if (md != null && md.getParameterCount() != expected) {
+                        throw new IllegalStateException(String.format("Query '%s' has %d parameters but expected %d.",
+                                query.getName(), md.getParameterCount(), expected));
+                    }
+                } catch (SQLException e) {
+                    throw new SQLException("Invalid query '" + query.getName() + "': " + e.getMessage(),
+                            e.getSQLState(), e.getErrorCode(), e);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Prepare and describe every query on the {@link Connection}, so that the
+     * driver's statement cache already holds its client-side parse of each when
+     * it is first executed. No server-side prepared statement is created.
+     * <p>
+     * The {@link Connection} will not be closed by this method.
+     *
+     * @param connection
+     *            an open connection
+     * @throws SQLException
+     *             if a query cannot be prepared
+     */
+    public void prepare(Connection connection) throws SQLException {
+        Validate.notNull(connection, "The connection must not be null");
+
+        for (CatalogQuery query : queries.values()) {
+            try (PreparedStatement statement = connection.prepareStatement(query.getSql())) {
+                statement.getParameterMetaData();
+            }
+        }
+        LOGGER.debug("Prepared {} queries on {}", queries.size(), connection);
+    }
+
+    /**
+     * Return a {@link ConnectionProvider} which {@link #prepare(Connection)
+     * prepares} the catalog on each physical connection the first time the
+     * {@code delegate} provides it. Pooled connections are recognized by the
+     * connection they {@link Connection#unwrap(Class) unwrap} to.
+     *
+     * @param delegate
+     *            the provider of connections
+     * @return the preparing provider
+     */
+    public ConnectionProvider warming(ConnectionProvider delegate) {
+        Validate.notNull(delegate, "The delegate must not be null");
+        return new WarmingConnectionProvider(delegate);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCatalog{" + "names=" + queries.keySet() + '}';
+    }
+
+    /**
+     * Prepares the catalog on each connection not seen before.
+     */
+    private final class WarmingConnectionProvider implements ConnectionProvider {
+
+        private final ConnectionProvider delegate;
+
+        private final Set<Connection> prepared = Collections.synchronizedSet(
+                Collections.newSetFromMap(new WeakHashMap<>()));
+
+        WarmingConnectionProvider(ConnectionProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = delegate.getConnection();
+
+            Connection physical = physical(connection);
+            if (prepared.add(physical)) {
+                try {
+                    prepare(connection);
+                } catch (Throwable t) {
+                    prepared.remove(physical);
+                    try {
+                        connection.close();
+                    } catch (SQLException ex) {
+                        t.addSuppressed(ex);
+                    }
+                    throw t;
+                }
+            }
+            return connection;
+        }
+
+        private Connection physical(Connection connection) {
+            try {
+                if (connection.isWrapperFor(Connection.class)) {
+                    return connection.unwrap(Connection.class);
+                }
+            } catch (SQLException e) {
+                LOGGER.debug("Unable to unwrap {}", connection, e);
+            }
+            return connection;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            delegate.close();
+        }
+    }
+}
@@ -3,6 +3,10 @@
  */
 package net.josephbeard.jdbc.sql;
 
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.ParameterValue;
+
 /**
  * Utility class for working with SQL statements.
  */
@@ -30,6 +34,27 @@ public abstract class SQL {
         return NO_LIMIT_CLAUSE;
     }
 
+    /**
+     * Returns a {@link WhereClause} matching rows where the {@code column} equals
+     * any element of the {@code array} parameter, that is
+     * {@code column = ANY(?)}. Unlike {@code column IN (?, ?, ...)}, the SQL is the
+     * same whatever the number of elements, so a single prepared statement can
+     * serve every list.
+     *
+     * @param column
+     *            the column (or expression) to match
+     * @param array
+     *            the array parameter (for example,
+     *            {@link net.josephbeard.jdbc.JDBC#longArray(long...)})
+     * @return the where clause
+     */
+    public static WhereClause equalsAny(String column, ParameterValue array) {
+        Validate.notBlank(column, "The column must not be blank");
+        Validate.notNull(array, "The array must not be null");
+
+        return new SimpleWhereClause(column + " = ANY(?)", array);
+    }
+
     private SQL() {
         assert false : "SQL should not be instantiated";
     }
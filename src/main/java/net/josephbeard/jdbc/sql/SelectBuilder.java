@@ -0,0 +1,215 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * An immutable builder of {@code SELECT} statements which assembles the
+ * projection, {@code FROM}, {@link WhereClause}, {@code ORDER BY},
+ * {@link LimitClause} and {@link OffsetClause} into a {@link Query}. For
+ * example:
+ *
+ * <pre>
+ * Query query = SelectBuilder.select("id", "name")
+ *         .from("people")
+ *         .where(new SimpleWhereClause("age &gt;= ?", JDBC.integer(18)))
+ *         .orderBy("name")
+ *         .limit(PostgreSQL.limit(10))
+ *         .build();
+ *
+ * List&lt;String&gt; names = query.select(jdbcTemplate, (rs, rowNumber) -&gt; rs.getString("name"));
+ * </pre>
+ *
+ * Every method returns a new builder, so a partially configured builder may be
+ * shared and extended.
+ */
+public final class SelectBuilder {
+
+    private final List<String> columns;
+
+    private final String from;
+
+    private final WhereClause where;
+
+    private final List<String> orderBy;
+
+    private final LimitClause limit;
+
+    private final OffsetClause offset;
+
+    private SelectBuilder(List<String> columns, String from, WhereClause where, List<String> orderBy,
+            LimitClause limit, OffsetClause offset) {
+        this.columns = columns;
+        this.from = from;
+        this.where = where;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    /**
+     * Start a {@code SELECT} of the {@code columns}.
+     *
+     * @param columns
+     *            the projected columns (or expressions)
+     * @return the builder
+     */
+    public static SelectBuilder select(String... columns) {
+        Validate.notEmpty(columns, "The columns must not be empty");
+        return select(Arrays.asList(columns));
+    }
+
+    /**
+     * Start a {@code SELECT} of the {@code columns}.
+     *
+     * @param columns
+     *            the projected columns (or expressions)
+     * @return the builder
+     */
+    public static SelectBuilder select(List<String> columns) {
+        Validate.notEmpty(columns, "The columns must not be empty");
+        Validate.noNullElements(columns, "The columns must not be null");
+        return new SelectBuilder(Collections.unmodifiableList(new ArrayList<>(columns)), null, null,
+                Collections.emptyList(), SQL.noLimit(), SQL.noOffset());
+    }
+
+    /**
+     * Add the {@code columns} to the projection.
+     *
+     * @param columns
+     *            the additional projected columns (or expressions)
+     * @return the builder
+     */
+    public SelectBuilder addColumns(String... columns) {
+        Validate.notEmpty(columns, "The columns must not be empty");
+        Validate.noNullElements(columns, "The columns must not be null");
+
+        List<String> combined = new ArrayList<>(this.columns.size() + columns.length);
+        combined.addAll(this.columns);
+        combined.addAll(Arrays.asList(columns));
+        return new SelectBuilder(Collections.unmodifiableList(combined), from, where, orderBy, limit, offset);
+    }
+
+    /**
+     * Select from the {@code from} table expression.
+     *
+     * @param from
+     *            the table (or join) expression
+     * @return the builder
+     */
+    public SelectBuilder from(String from) {
+        Validate.notBlank(from, "The from must not be blank");
+        return new SelectBuilder(columns, from, where, orderBy, limit, offset);
+    }
+
+    /**
+     * Restrict the rows by the {@link WhereClause}, replacing any previous one.
+     *
+     * @param where
+     *            the where clause
+     * @return the builder
+     */
+    public SelectBuilder where(WhereClause where) {
+        Validate.notNull(where, "The where must not be null");
+        return new SelectBuilder(columns, from, where, orderBy, limit, offset);
+    }
+
+    /**
+     * Restrict the rows by the {@link WhereClause} in addition to any previous
+     * one, which is combined with it by {@code AND}.
+     *
+     * @param where
+     *            the additional where clause
+     * @return the builder
+     */
+    public SelectBuilder andWhere(WhereClause where) {
+        Validate.notNull(where, "The where must not be null");
+        return new SelectBuilder(columns, from, this.where == null ? where : new AndWhereClause(this.where, where),
+                orderBy, limit, offset);
+    }
+
+    /**
+     * Order the rows by the {@code orderBy} expressions, replacing any previous
+     * ordering.
+     *
+     * @param orderBy
+     *            the ordering expressions (for example, {@code "name DESC"})
+     * @return the builder
+     */
+    public SelectBuilder orderBy(String... orderBy) {
+        Validate.noNullElements(orderBy, "The orderBy must not be null");
+        return new SelectBuilder(columns, from, where, Collections.unmodifiableList(Arrays.asList(orderBy.clone())),
+                limit, offset);
+    }
+
+    /**
+     * Limit the rows by the {@link LimitClause}.
+     *
+     * @param limit
+     *            the limit clause
+     * @return the builder
+     */
+    public SelectBuilder limit(LimitClause limit) {
+        Validate.notNull(limit, "The limit must not be null");
+        return new SelectBuilder(columns, from, where, orderBy, limit, offset);
+    }
+
+    /**
+     * Skip rows according to the {@link OffsetClause}.
+     *
+     * @param offset
+     *            the offset clause
+     * @return the builder
+     */
+    public SelectBuilder offset(OffsetClause offset) {
+        Validate.notNull(offset, "The offset must not be null");
+        return new SelectBuilder(columns, from, where, orderBy, limit, offset);
+    }
+
+    /**
+     * Render the {@link Query}. The SQL and parameters of the clauses are captured
+     * at this point; later changes to a mutable {@link WhereClause} are not
+     * reflected in the query.
+     *
+     * @return the query
+     * @throws IllegalStateException
+     *             if no {@code FROM} has been specified
+     */
+    public Query build() {
+        Validate.validState(from != null, "The from must be specified");
+
+        StringBuilder sql = new StringBuilder(128).append("SELECT ").append(String.join(", ", columns))
+                .append(" FROM ").append(from);
+        List<ParameterValue> parameters = new ArrayList<>();
+
+        if (where != null) {
+            sql.append(where.toSql());
+            parameters.addAll(where.getParameters());
+        }
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+        }
+        sql.append(limit.toSql());
+        parameters.addAll(limit.getParameters());
+        sql.append(offset.toSql());
+        parameters.addAll(offset.getParameters());
+
+        return new Query(sql.toString(), parameters);
+    }
+
+    @Override
+    public String toString() {
+        return "SelectBuilder{" + "columns=" + columns + ", from='" + from + '\'' + ", where=" + where
+                + ", orderBy=" + orderBy + ", limit=" + limit + ", offset=" + offset + '}';
+    }
+
+}
@@ -0,0 +1,263 @@
+/**
+ *
+ */
+package net.josephbeard.jdbc.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import net.josephbeard.jdbc.ParameterValue;
+
+/**
+ * A {@link WhereClause} rendered once, with named slots whose values are bound
+ * later. For example:
+ *
+ * <pre>
+ * // At startup
+ * static final WhereTemplate BY_NAME_AND_AGE = WhereTemplate.compile(
+ *         new SimpleWhereClause("name = ?", WhereTemplate.slot("name"))
+ *                 .and(new SimpleWhereClause("age &gt;= ?", WhereTemplate.slot("age"))));
+ *
+ * // Per request
+ * WhereClause where = BY_NAME_AND_AGE.bind(JDBC.string(name), JDBC.integer(age));
+ * </pre>
+ *
+ * Binding copies the parameters into a new array; the SQL is never rendered
+ * again.
+ */
+public final class WhereTemplate {
+
+    private final String condition;
+
+    /**
+     * The parameters of the template, with {@code null} at each slot position.
+     */
+    private final ParameterValue[] parameters;
+
+    private final List<String> slotNames;
+
+    /**
+     * The parameter positions of each slot, indexed as {@link #slotNames}.
+     */
+    private final int[][] slotPositions;
+
+    private WhereTemplate(String condition, ParameterValue[] parameters, List<String> slotNames,
+            int[][] slotPositions) {
+        this.condition = condition;
+        this.parameters = parameters;
+        this.slotNames = slotNames;
+        this.slotPositions = slotPositions;
+    }
+
+    /**
+     * Return a placeholder {@link ParameterValue} for the named slot, to be used
+     * in a {@link WhereClause} passed to {@link #compile(WhereClause)}. A slot may
+     * be used more than once, in which case every occurrence receives the same
+     * value.
+     *
+     * @param name
+     *            the slot name
+     * @return the slot placeholder
+     */
+    public static ParameterValue slot(String name) {
+        Validate.notBlank(name, "The name must not be blank");
+        return new Slot(name);
+    }
+
+    /**
+     * Compile the {@link WhereClause}, rendering its SQL once and recording the
+     * positions of its {@link #slot(String) slots}.
+     *
+     * @param whereClause
+     *            the where clause
+     * @return the template
+     */
+    public static WhereTemplate compile(WhereClause whereClause) {
+        Validate.notNull(whereClause, "The whereClause must not be null");
+
+        String condition = whereClause.getCondition();
+        ParameterValue[] parameters = whereClause.getParameters().toArray(new ParameterValue[0]);
+
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] instanceof Slot) {
+                positions.computeIfAbsent(((Slot) parameters[i]).name, name -> new ArrayList<>()).add(i);
+                parameters[i] = null;
+            }
+        }
+
+        int[][] slotPositions = new int[positions.size()][];
+        int slot = 0;
+        for (List<Integer> slotPosition : positions.values()) {
+            slotPositions[slot++] = slotPosition.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        return new WhereTemplate(condition, parameters,
+                Collections.unmodifiableList(new ArrayList<>(positions.keySet())), slotPositions);
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    /**
+     * Return the names of the slots, in the order in which they first appear.
+     *
+     * @return the slot names
+     */
+    public List<String> getSlotNames() {
+        return slotNames;
+    }
+
+    /**
+     * Bind the {@code values} to the slots, in the order of
+     * {@link #getSlotNames()}.
+     *
+     * @param values
+     *            one value per slot
+     * @return the bound where clause
+     */
+    public WhereClause bind(ParameterValue... values) {
+        Validate.notNull(values, "The values must not be null");
+        if (values.length != slotPositions.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d values but received %d.", slotPositions.length, values.length));
+        }
+
+        ParameterValue[] bound = parameters.clone();
+        for (int slot = 0; slot < slotPositions.length; slot++) {
+            if (values[slot] == null) {
+                throw new NullPointerException("The value for " + slotNames.get(slot) + " must not be null");
+            }
+            for (int position : slotPositions[slot]) {
+                bound[position] = values[slot];
+            }
+        }
+        return new BoundWhereClause(condition, bound);
+    }
+
+    /**
+     * Bind the {@code values} to the slots by name.
+     *
+     * @param values
+     *            the value of each slot, keyed by slot name
+     * @return the bound where clause
+     */
+    public WhereClause bind(Map<String, ParameterValue> values) {
+        Validate.notNull(values, "The values must not be null");
+
+        ParameterValue[] ordered = new ParameterValue[slotNames.size()];
+        for (int slot = 0; slot < ordered.length; slot++) {
+            ordered[slot] = values.get(slotNames.get(slot));
+            if (ordered[slot] == null) {
+                throw new IllegalArgumentException("No value for slot " + slotNames.get(slot));
+            }
+        }
+        return bind(ordered);
+    }
+
+    @Override
+    public String toString() {
+        return "WhereTemplate{" + "condition='" + condition + '\'' + ", slots=" + slotNames + '}';
+    }
+
+    /**
+     * A placeholder for a named slot.
+     */
+    private static final class Slot implements ParameterValue {
+
+        private final String name;
+
+        Slot(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void applyValue(PreparedStatement statement, int parameterIndex) throws SQLException {
+            throw new SQLException("The slot " + name + " has not been bound");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            return name.equals(((Slot) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "(slot)" + name;
+        }
+    }
+
+    /**
+     * A {@link WhereClause} produced by binding a {@link WhereTemplate}.
+     */
+    private static final class BoundWhereClause implements WhereClause {
+
+        private final String condition;
+
+        private final List<ParameterValue> parameters;
+
+        BoundWhereClause(String condition, ParameterValue[] parameters) {
+            this.condition = condition;
+            this.parameters = Collections.unmodifiableList(Arrays.asList(parameters));
+        }
+
+        @Override
+        public String getCondition() {
+            return condition;
+        }
+
+        @Override
+        public List<ParameterValue> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toSql() {
+            return condition.isEmpty() ? "" : " WHERE " + condition;
+        }
+
+        @Override
+        public String toString() {
+            return "BoundWhereClause{" + "condition='" + condition + '\'' + ", parameters=" + parameters + '}';
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            BoundWhereClause that = (BoundWhereClause) o;
+
+            return condition.equals(that.condition) && parameters.equals(that.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = condition.hashCode();
+            result = 31 * result + parameters.hashCode();
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package net.josephbeard.jdbc;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeadlineTest {
+
+    private Connection connection;
+
+    private ConnectionProvider connectionProvider;
+
+    private JdbcTemplate subject;
+
+    @Before
+    public void setup() throws SQLException {
+        this.connection = mock(Connection.class);
+        this.connectionProvider = mock(ConnectionProvider.class);
+        doReturn(connection).when(connectionProvider).getConnection();
+
+        this.subject = new JdbcTemplate(connectionProvider, true);
+    }
+
+    @Test
+    public void testNestedScopeKeepsEarlierDeadline() {
+        Deadline outer = Deadline.after(Duration.ofSeconds(1));
+        Deadline inner = Deadline.after(Duration.ofMinutes(1));
+
+        Deadline.Scope outerScope = outer.enter();
+        Deadline.Scope innerScope = inner.enter();
+        assertThat(Deadline.current().get(), sameInstance(outer));
+        innerScope.close();
+        assertThat(Deadline.current().get(), sameInstance(outer));
+        outerScope.close();
+        assertThat(Deadline.current().isPresent(), is(false));
+    }
+
+    @Test
+    public void testExpiredDeadlineFailsBeforeAcquiringConnection() throws SQLException {
+        try {
+            Deadline.after(Duration.ZERO).run(() -> subject.update("DELETE FROM t", Collections.emptyList()));
+            fail("Expected SQLTimeoutException");
+        } catch (SQLTimeoutException e) {
+            // expected
+        }
+        verify(connectionProvider, never()).getConnection();
+    }
+
+    @Test
+    public void testAppliesQueryTimeoutRoundedUp() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1);
+
+        int count = Deadline.after(Duration.ofMillis(1500))
+                .call(() -> subject.update("DELETE FROM t", Collections.emptyList()));
+
+        assertThat(count, equalTo(1));
+        verify(statement).setQueryTimeout(2);
+        verify(statement, never()).cancel();
+    }
+
+    @Test
+    public void testCancelsStatementAtDeadline() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        doAnswer(invocation -> {
+            if (!cancelled.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Statement was not cancelled");
+            }
+            throw new SQLException("canceling statement due to user request", "57014");
+        }).when(statement).executeUpdate();
+
+        try {
+            Deadline.after(Duration.ofMillis(50)).run(() -> subject.update("DELETE FROM t", Collections.emptyList()));
+            fail("Expected SQLTimeoutException");
+        } catch (SQLTimeoutException e) {
+            assertThat(e.getSQLState(), equalTo("57014"));
+            assertThat(e.getCause(), instanceOf(SQLException.class));
+        }
+        verify(statement, timeout(1000)).cancel();
+        verify(statement).close();
+    }
+}
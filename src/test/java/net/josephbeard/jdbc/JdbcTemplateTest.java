@@ -1,6 +1,7 @@
 package net.josephbeard.jdbc;
 
 import static net.josephbeard.jdbc.JDBC.string;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
@@ -16,9 +17,15 @@ import static org.mockito.Mockito.when;
 import java.sql.Connection;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -164,4 +171,110 @@ public class JdbcTemplateTest {
         verify(statement, times(2)).setNull(3, Types.VARCHAR);
     }
 
+    @Test
+    public void testApplyParameters_Buffer() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ParameterMetaData metaData = mock(ParameterMetaData.class);
+
+        when(statement.getParameterMetaData()).thenReturn(metaData);
+        when(metaData.getParameterCount()).thenReturn(4);
+
+        ParameterBuffer buffer = new ParameterBuffer(2).setLong(1, 12345L).setInt(2, 7).setNull(3, Types.INTEGER)
+                .setString(4, "pepsico");
+        subject.applyParameters(statement, buffer);
+
+        verify(statement, times(1)).setLong(1, 12345L);
+        verify(statement, times(1)).setInt(2, 7);
+        verify(statement, times(1)).setNull(3, Types.INTEGER);
+        verify(statement, times(1)).setString(4, "pepsico");
+    }
+
+    @Test(expected = java.lang.IllegalStateException.class)
+    public void testApplyParameters_BufferWithGap() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        this.subject = new JdbcTemplate(connectionProvider, true);
+        this.subject.applyParameters(statement, new ParameterBuffer().setInt(2, 7));
+    }
+
+    @Test
+    public void testSelectOne_Buffer() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(connection.prepareStatement("SELECT name FROM t WHERE id = ?")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn("pepsico");
+
+        this.subject = new JdbcTemplate(connectionProvider, true);
+        Optional<String> name = subject.selectOne("SELECT name FROM t WHERE id = ?",
+                (rs, rowNumber) -> rs.getString(1), new ParameterBuffer().setLong(1, 12345L));
+
+        assertThat("name", name, is(equalTo(Optional.of("pepsico"))));
+        verify(statement).setLong(1, 12345L);
+        verify(statement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testInsertBatchForLongKeys() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet keys = mock(ResultSet.class);
+
+        when(connection.prepareStatement("INSERT INTO t (a) VALUES (?)", new String[] { "id" })).thenReturn(statement);
+        when(statement.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, true, false);
+        when(keys.getLong(1)).thenReturn(10L, 11L);
+
+        this.subject = new JdbcTemplate(connectionProvider, true);
+        long[] result = subject.insertBatchForLongKeys(connection, "INSERT INTO t (a) VALUES (?)", "id",
+                Arrays.asList(Collections.singletonList(string("x")), Collections.singletonList(string("y"))));
+
+        assertThat("keys", result, is(equalTo(new long[] { 10L, 11L })));
+        verify(statement, times(2)).addBatch();
+        verify(statement).executeBatch();
+        verify(statement).close();
+    }
+
+    @Test
+    public void testInsertReturningGeneratedKeys() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet keys = mock(ResultSet.class);
+
+        when(connection.prepareStatement("INSERT INTO t (a) VALUES (?)", Statement.RETURN_GENERATED_KEYS))
+                .thenReturn(statement);
+        when(statement.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, false);
+        when(keys.getString(1)).thenReturn("key");
+
+        this.subject = new JdbcTemplate(connectionProvider, true);
+        List<String> result = subject.insert(connection, "INSERT INTO t (a) VALUES (?)", null,
+                (rs, rowNumber) -> rs.getString(1), Collections.singletonList(string("x")));
+
+        assertThat("keys", result, contains("key"));
+        verify(statement).executeUpdate();
+    }
+
+    @Test
+    public void testInsertReturningGeneratedKeys_Varargs() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet keys = mock(ResultSet.class);
+
+        when(connection.prepareStatement("INSERT INTO t (a, b) VALUES (?, ?)", new String[] { "id" }))
+                .thenReturn(statement);
+        when(statement.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, false);
+        when(keys.getLong(1)).thenReturn(42L);
+
+        this.subject = new JdbcTemplate(connectionProvider, true);
+        List<Long> result = subject.insert("INSERT INTO t (a, b) VALUES (?, ?)", new String[] { "id" },
+                (rs, rowNumber) -> rs.getLong(1), string("x"), string("y"));
+
+        assertThat("keys", result, contains(42L));
+        verify(statement).setString(1, "x");
+        verify(statement).setString(2, "y");
+        verify(connection).close();
+    }
+
 }
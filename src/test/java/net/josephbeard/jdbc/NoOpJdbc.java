@@ -0,0 +1,62 @@
+package net.josephbeard.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Do-nothing JDBC objects for micro-benchmarks, so that only the cost of this
+ * library (rather than a driver or a mocking framework) is measured.
+ */
+public final class NoOpJdbc {
+
+    /**
+     * Create a {@link PreparedStatement} on which every method does nothing and
+     * returns {@code null}, {@code false} or zero.
+     *
+     * @return the statement
+     */
+    public static PreparedStatement preparedStatement() {
+        return proxy(PreparedStatement.class, null);
+    }
+
+    /**
+     * Create a {@link ResultSet} on which every {@code getObject} or
+     * {@code getString} method returns {@code value}, and every other method does
+     * nothing.
+     *
+     * @param value
+     *            the value of every column
+     * @return the result set
+     */
+    public static ResultSet resultSet(Object value) {
+        return proxy(ResultSet.class, value);
+    }
+
+    private static <T> T proxy(Class<T> type, Object value) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (method.getName().equals("getObject")) {
+                        return value;
+                    }
+                    if (method.getName().equals("getString")) {
+                        return value == null ? null : value.toString();
+                    }
+                    if (returnType == boolean.class) {
+                        return Boolean.FALSE;
+                    }
+                    if (returnType == int.class) {
+                        return 0;
+                    }
+                    if (returnType == long.class) {
+                        return 0L;
+                    }
+                    return null;
+                }));
+    }
+
+    private NoOpJdbc() {
+        // NoOpJdbc is a utility class and should not be instantiated
+    }
+}
@@ -0,0 +1,85 @@
+package net.josephbeard.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the allocation of binding a typical row of parameters as
+ * {@link ParameterValue}s with binding it from a reused
+ * {@link ParameterBuffer}. The no-op statement is a dynamic proxy, which boxes
+ * its own arguments, so {@link #bindDirect()} measures that floor; the
+ * {@code gc.alloc.rate.norm} reported by the GC profiler for
+ * {@link #bindBuffer()} should equal it.
+ * <p>
+ * Run {@link #main(String[])} with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParameterBindingBenchmark {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PreparedStatement statement;
+
+    private ParameterBuffer buffer;
+
+    private int id;
+
+    @Setup
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(() -> null, true);
+        statement = NoOpJdbc.preparedStatement();
+        buffer = new ParameterBuffer();
+    }
+
+    @Benchmark
+    public void bindDirect() throws SQLException {
+        id++;
+        statement.setLong(1, id);
+        statement.setInt(2, id & 0xff);
+        statement.setNull(3, Types.INTEGER);
+        statement.setBoolean(4, true);
+    }
+
+    @Benchmark
+    public void bindValues() throws SQLException {
+        id++;
+        jdbcTemplate.applyParameters(statement, JDBC.longInt(id), JDBC.integer(id & 0xff), JDBC.integer((Integer) null),
+                JDBC.bit(true));
+    }
+
+    @Benchmark
+    public void bindBuffer() throws SQLException {
+        id++;
+        buffer.clear();
+        buffer.setLong(1, id).setInt(2, id & 0xff).setNull(3, Types.INTEGER).setBoolean(4, true);
+        jdbcTemplate.applyParameters(statement, buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParameterBindingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+
+}
@@ -0,0 +1,91 @@
+package net.josephbeard.jdbc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelineTest {
+
+    private Connection connection;
+
+    private DatabaseMetaData metaData;
+
+    private Pipeline subject;
+
+    @Before
+    public void setup() throws SQLException {
+        connection = mock(Connection.class);
+        metaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+
+        subject = new Pipeline(new JdbcTemplate(mock(ConnectionProvider.class), true));
+    }
+
+    @Test
+    public void combined() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet names = mock(ResultSet.class);
+        ResultSet count = mock(ResultSet.class);
+
+        when(metaData.supportsMultipleResultSets()).thenReturn(true);
+        when(connection.prepareStatement("SELECT name FROM a WHERE id = ?;\nSELECT count(*) FROM b"))
+                .thenReturn(statement);
+        when(statement.execute()).thenReturn(true);
+        when(statement.getResultSet()).thenReturn(names, count);
+        when(statement.getMoreResults()).thenReturn(true, false);
+        when(names.next()).thenReturn(true, false);
+        when(names.getString(1)).thenReturn("Ann");
+        when(count.next()).thenReturn(true);
+        when(count.getLong(1)).thenReturn(3L);
+
+        PipelineResult<List<String>> first = subject.select("SELECT name FROM a WHERE id = ?;",
+                (resultSet, rowNumber) -> resultSet.getString(1), JDBC.integer(1));
+        PipelineResult<Long> second = subject.select("SELECT count(*) FROM b",
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L);
+        subject.execute(connection);
+
+        assertThat("first", first.get(), contains("Ann"));
+        assertThat("second", second.get(), is(equalTo(3L)));
+        verify(statement).setInt(1, 1);
+    }
+
+    @Test
+    public void sequential_when_unsupported() throws SQLException {
+        PreparedStatement first = mock(PreparedStatement.class);
+        PreparedStatement second = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(metaData.supportsMultipleResultSets()).thenReturn(false);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(first);
+        when(connection.prepareStatement("SELECT 2")).thenReturn(second);
+        when(first.executeQuery()).thenReturn(resultSet);
+        when(second.executeQuery()).thenReturn(resultSet);
+
+        PipelineResult<String> one = subject.select("SELECT 1", rs -> "one");
+        PipelineResult<String> two = subject.select("SELECT 2", rs -> "two");
+        subject.execute(connection);
+
+        assertThat("one", one.get(), is(equalTo("one")));
+        assertThat("two", two.get(), is(equalTo("two")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void not_executed() {
+        subject.select("SELECT 1", rs -> "one").get();
+    }
+
+}
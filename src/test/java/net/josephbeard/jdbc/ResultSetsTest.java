@@ -0,0 +1,108 @@
+package net.josephbeard.jdbc;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+public class ResultSetsTest {
+
+    @Test
+    public void testTransferCharacterStream() throws SQLException {
+        // Longer than one buffer, so the copy takes several reads
+        String value = StringUtils.repeat("abc", TransferBuffers.BUFFER_SIZE);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getCharacterStream(1)).thenReturn(new StringReader(value));
+        when(resultSet.getCharacterStream("body")).thenReturn(new StringReader("label"));
+
+        StringWriter out = new StringWriter();
+        assertThat(ResultSets.transferCharacterStream(resultSet, 1, out), is((long) value.length()));
+        assertThat(out.toString(), is(value));
+
+        StringWriter byLabel = new StringWriter();
+        assertThat(ResultSets.transferCharacterStream(resultSet, "body", byLabel), is(5L));
+        assertThat(byLabel.toString(), is("label"));
+    }
+
+    @Test
+    public void testTransferBinaryStream() throws SQLException {
+        byte[] value = new byte[TransferBuffers.BUFFER_SIZE * 2 + 17];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) i;
+        }
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(value));
+        when(resultSet.getBinaryStream("data")).thenReturn(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ResultSets.transferBinaryStream(resultSet, 1, out), is((long) value.length));
+        assertThat(Arrays.equals(out.toByteArray(), value), is(true));
+
+        ByteArrayOutputStream byLabel = new ByteArrayOutputStream();
+        assertThat(ResultSets.transferBinaryStream(resultSet, "data", byLabel), is(3L));
+        assertThat(byLabel.toByteArray(), equalTo(new byte[] { 1, 2, 3 }));
+    }
+
+    @Test
+    public void testTransferNull() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+
+        StringWriter chars = new StringWriter();
+        assertThat(ResultSets.transferCharacterStream(resultSet, 1, chars), is(-1L));
+        assertThat(chars.toString(), is(""));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertThat(ResultSets.transferBinaryStream(resultSet, 1, bytes), is(-1L));
+        assertThat(bytes.size(), is(0));
+    }
+
+    @Test
+    public void testTransferWriteFailure() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(new byte[] { 1 }));
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        try {
+            ResultSets.transferBinaryStream(resultSet, 1, out);
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat(e.getCause().getMessage(), is("disk full"));
+        }
+    }
+
+    @Test
+    public void testTransferBuffersReusedPerThread() throws InterruptedException {
+        assertThat(TransferBuffers.bytes(), sameInstance(TransferBuffers.bytes()));
+        assertThat(TransferBuffers.chars(), sameInstance(TransferBuffers.chars()));
+        assertThat(TransferBuffers.bytes().length, is(TransferBuffers.BUFFER_SIZE));
+
+        AtomicReference<byte[]> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(TransferBuffers.bytes()));
+        thread.start();
+        thread.join();
+        assertThat(other.get(), not(sameInstance(TransferBuffers.bytes())));
+    }
+}
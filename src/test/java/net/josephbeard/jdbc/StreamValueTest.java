@@ -0,0 +1,65 @@
+package net.josephbeard.jdbc;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.Test;
+
+public class StreamValueTest {
+
+    @Test
+    public void testCharacterStream() throws SQLException {
+        Reader reader = new StringReader("hello");
+        ParameterValue value = JDBC.characterStream(reader, 5L);
+        assertThat(value, instanceOf(CharacterStreamValue.class));
+        assertThat(value.toString(), is("(Reader)5 characters"));
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        value.applyValue(statement, 2);
+
+        verify(statement).setCharacterStream(2, reader, 5L);
+        verifyNoMoreInteractions(statement);
+    }
+
+    @Test
+    public void testBinaryStream() throws SQLException {
+        InputStream stream = new ByteArrayInputStream(new byte[3]);
+        ParameterValue value = JDBC.binaryStream(stream, 3L);
+        assertThat(value, instanceOf(BinaryStreamValue.class));
+        assertThat(value.toString(), is("(InputStream)3 bytes"));
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        value.applyValue(statement, 1);
+
+        verify(statement).setBinaryStream(1, stream, 3L);
+        verifyNoMoreInteractions(statement);
+    }
+
+    @Test
+    public void testNullStreams() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        JDBC.characterStream(null, 0L).applyValue(statement, 1);
+        JDBC.binaryStream(null, 0L).applyValue(statement, 2);
+
+        verify(statement).setNull(1, Types.LONGVARCHAR);
+        verify(statement).setNull(2, Types.LONGVARBINARY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLength() {
+        JDBC.binaryStream(new ByteArrayInputStream(new byte[0]), -1L);
+    }
+}
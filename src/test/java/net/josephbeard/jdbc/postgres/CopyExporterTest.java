@@ -0,0 +1,60 @@
+package net.josephbeard.jdbc.postgres;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JdbcTemplate;
+
+public class CopyExporterTest {
+
+    @Test
+    public void export_flushes_destination_once() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        CopyOut copyOut = mock(CopyOut.class);
+
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyOut("COPY (SELECT * FROM people) TO STDOUT")).thenReturn(copyOut);
+        when(copyOut.readFromCopy()).thenReturn(bytes("1\tada\n"), bytes("2\tbob\n"), bytes("3\tcyd\n"), null);
+        when(copyOut.getHandledRowCount()).thenReturn(3L);
+
+        CountingOutputStream out = new CountingOutputStream();
+        CopyExporter subject = new CopyExporter(new JdbcTemplate(mock(ConnectionProvider.class), true), 8);
+
+        assertThat("rows", subject.export(connection, "SELECT * FROM people", out), is(equalTo(3L)));
+        assertThat("data", new String(out.toByteArray(), StandardCharsets.UTF_8),
+                is(equalTo("1\tada\n2\tbob\n3\tcyd\n")));
+        assertThat("flushes", out.flushes, is(equalTo(1)));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+
+        private int flushes;
+
+        @Override
+        public void flush() throws IOException {
+            flushes++;
+        }
+    }
+}
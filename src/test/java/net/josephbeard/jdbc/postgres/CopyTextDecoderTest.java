@@ -0,0 +1,79 @@
+package net.josephbeard.jdbc.postgres;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CopyTextDecoderTest {
+
+    private final List<String[]> rows = new ArrayList<>();
+
+    private final CopyTextDecoder subject = new CopyTextDecoder((fields, rowNumber) -> rows.add(fields));
+
+    @Test
+    public void whole_rows() throws SQLException {
+        decode("1\tfoo\n2\tbar\n");
+        subject.finish();
+
+        assertThat("rows", rows, hasSize(2));
+        assertThat("row 0", rows.get(0), arrayContaining("1", "foo"));
+        assertThat("row 1", rows.get(1), arrayContaining("2", "bar"));
+        assertThat("rowCount", subject.getRowCount(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void row_split_across_chunks() throws SQLException {
+        decode("1\tf");
+        decode("o");
+        decode("o\n2\tb");
+        decode("ar\n");
+        subject.finish();
+
+        assertThat("rows", rows, hasSize(2));
+        assertThat("row 0", rows.get(0), arrayContaining("1", "foo"));
+        assertThat("row 1", rows.get(1), arrayContaining("2", "bar"));
+    }
+
+    @Test
+    public void nulls_and_escapes() throws SQLException {
+        decode("\\N\ta\\tb\\nc\\\\d\t\n");
+        subject.finish();
+
+        assertThat("rows", rows, hasSize(1));
+        assertThat("null", rows.get(0)[0], is(nullValue()));
+        assertThat("escaped", rows.get(0)[1], is(equalTo("a\tb\nc\\d")));
+        assertThat("empty", rows.get(0)[2], is(equalTo("")));
+    }
+
+    @Test
+    public void multibyte_characters_split_across_chunks() throws SQLException {
+        byte[] bytes = "caf\u00e9\n".getBytes(UTF_8);
+        subject.decode(bytes, 0, 4);
+        subject.decode(bytes, 4, bytes.length - 4);
+        subject.finish();
+
+        assertThat("row 0", rows.get(0), arrayContaining("caf\u00e9"));
+    }
+
+    @Test(expected = SQLException.class)
+    public void incomplete_row() throws SQLException {
+        decode("1\tfoo");
+        subject.finish();
+    }
+
+    private void decode(String data) throws SQLException {
+        byte[] bytes = data.getBytes(UTF_8);
+        subject.decode(bytes, 0, bytes.length);
+    }
+
+}
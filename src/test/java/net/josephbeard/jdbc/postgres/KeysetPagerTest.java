@@ -0,0 +1,84 @@
+package net.josephbeard.jdbc.postgres;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.sql.Query;
+import net.josephbeard.jdbc.sql.SelectBuilder;
+import net.josephbeard.jdbc.sql.SimpleWhereClause;
+
+public class KeysetPagerTest {
+
+    private final KeysetPager<String> subject = new KeysetPager<>(
+            SelectBuilder.select("p.created", "p.id", "p.name").from("people p"), Arrays.asList("p.created", "p.id"),
+            (resultSet, rowNumber) -> resultSet.getString("name"), 10);
+
+    @Test
+    public void first_page() {
+        Query query = subject.query(null);
+
+        assertThat("sql", query.getSql(),
+                is(equalTo("SELECT p.created, p.id, p.name FROM people p ORDER BY p.created, p.id LIMIT ?")));
+        assertThat("parameters", query.getParameters(), contains(JDBC.longInt(11)));
+    }
+
+    @Test
+    public void following_page() {
+        Timestamp created = new Timestamp(1500000000123L);
+        String continuation = KeysetToken.encode(new Object[] { created, 42L });
+
+        Query query = subject.where(new SimpleWhereClause("p.active")).descending().query(continuation);
+
+        assertThat("sql", query.getSql(), is(equalTo("SELECT p.created, p.id, p.name FROM people p"
+                + " WHERE (p.active AND (p.created, p.id) < (?, ?)) ORDER BY p.created DESC, p.id DESC LIMIT ?")));
+        assertThat("parameters", query.getParameters(),
+                contains(JDBC.object(created), JDBC.object(42L), JDBC.longInt(11)));
+    }
+
+    @Test
+    public void following_page_keeps_select_where() {
+        KeysetPager<String> pager = new KeysetPager<>(
+                SelectBuilder.select("id", "name").from("orders")
+                        .where(new SimpleWhereClause("tenant = ?", JDBC.integer(7))),
+                Collections.singletonList("id"), (resultSet, rowNumber) -> resultSet.getString("name"), 10);
+
+        Query query = pager.query(KeysetToken.encode(new Object[] { 42L }));
+
+        assertThat("sql", query.getSql(), is(equalTo(
+                "SELECT id, name FROM orders WHERE (tenant = ? AND id > ?) ORDER BY id LIMIT ?")));
+        assertThat("parameters", query.getParameters(),
+                contains(JDBC.integer(7), JDBC.object(42L), JDBC.longInt(11)));
+    }
+
+    @Test
+    public void token_round_trip() {
+        Timestamp timestamp = new Timestamp(1500000000123L);
+        timestamp.setNanos(123456789);
+        Object[] keys = { 1, 2L, "three", UUID.randomUUID(), timestamp, new BigDecimal("6.50"), null };
+
+        assertThat("keys", KeysetToken.decode(KeysetToken.encode(keys), keys.length), is(equalTo(keys)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void token_from_another_pager() {
+        subject.query(KeysetToken.encode(new Object[] { 1L }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tampered_token() {
+        new KeysetPager<>(SelectBuilder.select("id").from("people"), Collections.singletonList("id"),
+                (resultSet, rowNumber) -> resultSet.getLong("id"), 10).query("not-a-token");
+    }
+
+}
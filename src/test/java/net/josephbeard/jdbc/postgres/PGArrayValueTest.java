@@ -0,0 +1,48 @@
+package net.josephbeard.jdbc.postgres;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class PGArrayValueTest {
+
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    @Test
+    public void int_array() throws SQLException {
+        PostgreSQL.intArray(1, -2, 3).applyValue(statement, 1);
+
+        verify(statement).setObject(1, "{1,-2,3}", Types.OTHER);
+        verifyNoMoreInteractions(statement);
+    }
+
+    @Test
+    public void empty_long_array() throws SQLException {
+        PostgreSQL.longArray().applyValue(statement, 1);
+
+        verify(statement).setObject(1, "{}", Types.OTHER);
+    }
+
+    @Test
+    public void uuid_array() throws SQLException {
+        UUID uuid = UUID.fromString("9b2e4f3a-3c1d-4c3e-8a5f-0d9e6b7a1c2d");
+        PostgreSQL.uuidArray(uuid, null).applyValue(statement, 2);
+
+        verify(statement).setObject(2, "{9b2e4f3a-3c1d-4c3e-8a5f-0d9e6b7a1c2d,NULL}", Types.OTHER);
+    }
+
+    @Test
+    public void text_array_is_quoted() throws SQLException {
+        PostgreSQL.textArray("a,b", "say \"hi\"", "back\\slash", null).applyValue(statement, 1);
+
+        verify(statement).setObject(1, "{\"a,b\",\"say \\\"hi\\\"\",\"back\\\\slash\",NULL}", Types.OTHER);
+    }
+
+}
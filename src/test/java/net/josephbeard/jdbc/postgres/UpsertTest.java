@@ -0,0 +1,69 @@
+package net.josephbeard.jdbc.postgres;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+
+public class UpsertTest {
+
+    private final Upsert subject = new Upsert("people", Collections.singletonList("id"), Arrays.asList("name", "age"));
+
+    @Test
+    public void update_sql() {
+        assertThat("sql", subject.toSql(2), is(equalTo("INSERT INTO people (id, name, age) VALUES (?, ?, ?), (?, ?, ?)"
+                + " ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age"
+                + " WHERE ROW(people.name, people.age) IS DISTINCT FROM ROW(EXCLUDED.name, EXCLUDED.age)"
+                + " RETURNING (xmax = 0) AS inserted")));
+    }
+
+    @Test
+    public void do_nothing_sql() {
+        Upsert upsert = new Upsert("tags", Arrays.asList("owner", "tag"), Collections.emptyList());
+
+        assertThat("sql", upsert.toSql(1), is(equalTo(
+                "INSERT INTO tags (owner, tag) VALUES (?, ?) ON CONFLICT (owner, tag) DO NOTHING RETURNING (xmax = 0) AS inserted")));
+    }
+
+    @Test
+    public void counts_inserted_updated_and_unchanged() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getBoolean(1)).thenReturn(true, false);
+
+        // PostgreSQL rejects a key appearing twice in one statement, so each row has its own
+        List<List<ParameterValue>> rows = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            rows.add(Arrays.asList(JDBC.integer(id), JDBC.string("Ann"), JDBC.integer(30)));
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(mock(ConnectionProvider.class), true);
+
+        UpsertResult result = subject.execute(jdbcTemplate, connection, rows);
+
+        assertThat("result", result, is(equalTo(new UpsertResult(1, 1, 2))));
+    }
+
+}
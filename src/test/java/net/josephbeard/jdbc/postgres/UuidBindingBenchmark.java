@@ -0,0 +1,90 @@
+package net.josephbeard.jdbc.postgres;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.postgresql.util.PGobject;
+
+import net.josephbeard.jdbc.NoOpJdbc;
+
+/**
+ * Compares the client-side cost of binding and reading a {@code uuid} through a
+ * {@link PGobject} with the native {@link UUID} codec. Driver encoding and
+ * network costs are excluded.
+ * <p>
+ * Run {@link #main(String[])} with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UuidBindingBenchmark {
+
+    private UUID uuid;
+
+    private PreparedStatement statement;
+
+    private ResultSet pgobjectResultSet;
+
+    private ResultSet uuidResultSet;
+
+    @Setup
+    public void setup() throws SQLException {
+        uuid = UUID.randomUUID();
+        statement = NoOpJdbc.preparedStatement();
+
+        PGobject object = new PGobject();
+        object.setType(PostgreSQL.UUID_TYPE);
+        object.setValue(uuid.toString());
+        pgobjectResultSet = NoOpJdbc.resultSet(object);
+        uuidResultSet = NoOpJdbc.resultSet(uuid);
+    }
+
+    @Benchmark
+    public void bindPGobject() throws SQLException {
+        PGobject object = new PGobject();
+        object.setType(PostgreSQL.UUID_TYPE);
+        object.setValue(uuid.toString());
+        new PGobjectValue(object).applyValue(statement, 1);
+    }
+
+    @Benchmark
+    public void bindNative() throws SQLException {
+        PostgreSQL.uuid(uuid).applyValue(statement, 1);
+    }
+
+    @Benchmark
+    public UUID readPGobject() throws SQLException {
+        return UUID.fromString(((PGobject) pgobjectResultSet.getObject(1)).getValue());
+    }
+
+    @Benchmark
+    public UUID readNative() throws SQLException {
+        return PostgreSQL.getUUID(uuidResultSet, 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UuidBindingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+
+}
@@ -0,0 +1,149 @@
+package net.josephbeard.jdbc.resilience;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+
+public class BulkheadTest {
+
+    private ConnectionProvider pool;
+
+    @Before
+    public void setup() throws SQLException {
+        this.pool = mock(ConnectionProvider.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    public void testReservedConnectionsSurviveBatchSaturation() throws SQLException {
+        Bulkhead subject = new Bulkhead(pool, 4, Arrays.asList(
+                new Workload("oltp", 2, 4),
+                new Workload("batch", 0, 3).withMaxWait(Duration.ZERO)));
+
+        List<Connection> batch = new ArrayList<>();
+        batch.add(subject.forWorkload("batch").getConnection());
+        batch.add(subject.forWorkload("batch").getConnection());
+        try {
+            subject.forWorkload("batch").getConnection();
+            fail("Expected SQLTransientConnectionException");
+        } catch (SQLTransientConnectionException e) {
+            // The shared connections are exhausted
+        }
+
+        Connection first = subject.forWorkload("oltp").getConnection();
+        Connection second = subject.forWorkload("oltp").getConnection();
+        assertThat(subject.getStats("oltp").getInUse(), equalTo(2));
+        first.close();
+        second.close();
+
+        for (Connection connection : batch) {
+            connection.close();
+        }
+        WorkloadStats stats = subject.getStats("batch");
+        assertThat(stats.getInUse(), equalTo(0));
+        assertThat(stats.getAcquired(), equalTo(2L));
+        assertThat(stats.getTimedOut(), equalTo(1L));
+        assertThat(subject.getStats("oltp").getAcquired(), equalTo(2L));
+    }
+
+    @Test
+    public void testClosingReturnsConnectionOnce() throws SQLException {
+        Bulkhead subject = new Bulkhead(pool, 1, Collections.singletonList(new Workload("oltp", 1, 1)));
+
+        Connection connection = subject.forWorkload("oltp").getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(subject.getStats("oltp").getInUse(), equalTo(0));
+        subject.forWorkload("oltp").getConnection();
+        assertThat(subject.getStats("oltp").getInUse(), equalTo(1));
+    }
+
+    @Test
+    public void testWaitersServedByPriority() throws Exception {
+        Bulkhead subject = new Bulkhead(pool, 1, Arrays.asList(
+                new Workload("batch", 0, 1).withPriority(1),
+                new Workload("oltp", 0, 1).withPriority(10)));
+
+        Connection held = subject.forWorkload("batch").getConnection();
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Thread low = waiter(subject, "batch", order);
+        awaitWaiting(subject, "batch");
+        Thread high = waiter(subject, "oltp", order);
+        awaitWaiting(subject, "oltp");
+
+        held.close();
+        low.join(5000);
+        high.join(5000);
+
+        assertThat(order, contains("oltp", "batch"));
+        assertThat(subject.getStats("oltp").getMaxWait(), greaterThan(Duration.ZERO));
+    }
+
+    @Test
+    public void testCloseClosesDelegate() throws SQLException {
+        new Bulkhead(pool, 1, Collections.singletonList(new Workload("oltp", 0, 1))).close();
+
+        verify(pool).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReservationsMustFitCapacity() {
+        new Bulkhead(pool, 3, Arrays.asList(new Workload("oltp", 2, 2), new Workload("batch", 2, 2)));
+    }
+
+    @Test
+    public void testThrottleCreditsAtMostOneSecond() {
+        RowThrottle throttle = new RowThrottle(10.0);
+        long now = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(throttle.reserve(now), lessThanOrEqualTo(0L));
+        }
+        assertThat(throttle.reserve(now), equalTo(TimeUnit.MILLISECONDS.toNanos(0)));
+        assertThat(throttle.reserve(now), equalTo(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    private static Thread waiter(Bulkhead subject, String workload, List<String> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                Connection connection = subject.forWorkload(workload).getConnection();
+                order.add(workload);
+                connection.close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(Bulkhead subject, String workload) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subject.getStats(workload).getWaiting() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
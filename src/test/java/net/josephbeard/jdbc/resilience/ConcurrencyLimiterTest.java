@@ -0,0 +1,168 @@
+package net.josephbeard.jdbc.resilience;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testLimitGrowsWhileLatencyHolds() {
+        ConcurrencyLimiter subject = new ConcurrencyLimiter().withLimits(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            subject.onSample(10 * MILLIS, subject.getLimit(), false);
+        }
+
+        assertThat(subject.getLimit(), greaterThan(10));
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyRises() {
+        ConcurrencyLimiter subject = new ConcurrencyLimiter().withLimits(50, 1, 100);
+        for (int i = 0; i < 20; i++) {
+            subject.onSample(10 * MILLIS, 50, false);
+        }
+        int settled = subject.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            subject.onSample(100 * MILLIS, subject.getLimit(), false);
+        }
+
+        assertThat(subject.getLimit(), lessThan(settled / 2));
+    }
+
+    @Test
+    public void testIdleSamplesDoNotGrowLimit() {
+        ConcurrencyLimiter subject = new ConcurrencyLimiter().withLimits(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            subject.onSample(10 * MILLIS, 0, false);
+        }
+
+        assertThat(subject.getLimit(), equalTo(10));
+    }
+
+    @Test
+    public void testTimeoutCutsLimitAndNotifiesListener() throws Exception {
+        List<Integer> limits = new ArrayList<>();
+        ConcurrencyLimiter subject = new ConcurrencyLimiter().withLimits(10, 1, 100).withLimitListener(limits::add);
+
+        try {
+            subject.call(() -> {
+                throw new SQLTimeoutException("canceling statement due to statement timeout");
+            });
+            fail("Expected SQLTimeoutException");
+        } catch (SQLTimeoutException e) {
+            // expected
+        }
+
+        assertThat(subject.getLimit(), equalTo(9));
+        assertThat(limits.get(0), equalTo(9));
+    }
+
+    @Test
+    public void testRejectsBeyondLimitOrWaitsInQueue() throws Exception {
+        ConcurrencyLimiter rejecting = new ConcurrencyLimiter().withLimits(1, 1, 1);
+        ConcurrencyLimiter queueing = new ConcurrencyLimiter().withLimits(1, 1, 1).withQueue(1,
+                Duration.ofSeconds(5));
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                rejecting.call(() -> {
+                    started.countDown();
+                    return queueing.call(() -> {
+                        started.countDown();
+                        try {
+                            return finish.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        started.await(5, TimeUnit.SECONDS);
+
+        try {
+            rejecting.run(() -> fail("Ran beyond the limit"));
+            fail("Expected SQLTransientException");
+        } catch (SQLTransientException e) {
+            assertThat(rejecting.getRejected(), equalTo(1L));
+        }
+
+        finish.countDown();
+        assertThat(queueing.call(() -> "queued"), equalTo("queued"));
+        holder.join(5000);
+        assertThat(queueing.getRejected(), equalTo(0L));
+    }
+
+    @Test
+    public void testFreedSlotGoesToWaiterBeforeNewCall() throws Exception {
+        ConcurrencyLimiter subject = new ConcurrencyLimiter().withLimits(1, 1, 1).withQueue(2,
+                Duration.ofSeconds(5));
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                subject.run(() -> {
+                    holding.countDown();
+                    try {
+                        finish.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        holding.await(5, TimeUnit.SECONDS);
+
+        Thread waiter = new Thread(() -> {
+            try {
+                subject.run(() -> order.add("waiter"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subject.getQueued() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        finish.countDown();
+        holder.join(5000);
+        subject.run(() -> order.add("new"));
+        waiter.join(5000);
+
+        assertThat(order, contains("waiter", "new"));
+        assertThat(subject.getQueued(), equalTo(0));
+        assertThat(subject.getInFlight(), equalTo(0));
+    }
+}
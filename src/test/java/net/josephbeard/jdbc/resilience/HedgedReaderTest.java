@@ -0,0 +1,156 @@
+package net.josephbeard.jdbc.resilience;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+
+public class HedgedReaderTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void slow_replica_is_hedged_and_cancelled() throws SQLException {
+        PreparedStatement slow = mock(PreparedStatement.class);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(slow).cancel();
+        when(slow.executeQuery()).thenAnswer(invocation -> {
+            cancelled.await(5, TimeUnit.SECONDS);
+            throw new SQLException("canceling statement due to user request");
+        });
+
+        PreparedStatement fast = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(fast.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn("fast");
+
+        HedgedReader subject = new HedgedReader(Arrays.asList(replica(slow), replica(fast)), executor, scheduler)
+                .withDelayBounds(Duration.ofMillis(1), Duration.ofMillis(10)).withBudget(1.0);
+
+        List<String> result = subject.select("SELECT name FROM t", (rs, rowNumber) -> rs.getString(1),
+                Collections.emptyList());
+
+        assertThat("result", result, contains("fast"));
+        verify(slow, timeout(1000)).cancel();
+    }
+
+    @Test
+    public void hedge_cancelled_while_preparing_never_executes() throws Exception {
+        CountDownLatch hedgePreparing = new CountDownLatch(1);
+        CountDownLatch primaryDone = new CountDownLatch(1);
+
+        PreparedStatement primary = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(primary.executeQuery()).thenAnswer(invocation -> {
+            hedgePreparing.await(5, TimeUnit.SECONDS);
+            return resultSet;
+        });
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn("primary");
+
+        PreparedStatement hedge = mock(PreparedStatement.class);
+        ConnectionProvider hedgeReplica = mock(ConnectionProvider.class);
+        Connection hedgeConnection = mock(Connection.class);
+        when(hedgeReplica.getConnection()).thenReturn(hedgeConnection);
+        when(hedgeConnection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            hedgePreparing.countDown();
+            primaryDone.await(5, TimeUnit.SECONDS);
+            return hedge;
+        });
+
+        // Runs each attempt, noting when the first (the primary, as the hedge is blocked) has finished
+        Executor notifying = command -> executor.execute(() -> {
+            command.run();
+            primaryDone.countDown();
+        });
+        HedgedReader subject = new HedgedReader(Arrays.asList(replica(primary), hedgeReplica), notifying,
+                scheduler).withDelayBounds(Duration.ofMillis(1), Duration.ofMillis(1)).withBudget(1.0);
+
+        List<String> result = subject.select("SELECT name FROM t", (rs, rowNumber) -> rs.getString(1),
+                Collections.emptyList());
+
+        assertThat("result", result, contains("primary"));
+        verify(hedge, timeout(1000)).close();
+        verify(hedge, never()).executeQuery();
+    }
+
+    @Test(timeout = 5000)
+    public void rejected_hedge_does_not_strand_failed_call() throws SQLException {
+        PreparedStatement primary = mock(PreparedStatement.class);
+        CountDownLatch rejected = new CountDownLatch(1);
+        when(primary.executeQuery()).thenAnswer(invocation -> {
+            rejected.await(5, TimeUnit.SECONDS);
+            throw new SQLException("replica down");
+        });
+
+        AtomicInteger launches = new AtomicInteger();
+        Executor saturated = command -> {
+            if (launches.getAndIncrement() > 0) {
+                rejected.countDown();
+                throw new RejectedExecutionException("saturated");
+            }
+            executor.execute(command);
+        };
+        HedgedReader subject = new HedgedReader(Arrays.asList(replica(primary), replica(primary)), saturated,
+                scheduler).withDelayBounds(Duration.ofMillis(1), Duration.ofMillis(1)).withBudget(1.0);
+
+        try {
+            subject.select("SELECT name FROM t", (rs, rowNumber) -> rs.getString(1), Collections.emptyList());
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat("cause", e.getCause(), is(instanceOf(RejectedExecutionException.class)));
+            assertThat("suppressed", e.getSuppressed()[0].getMessage(), is("replica down"));
+        }
+    }
+
+    private static ConnectionProvider replica(PreparedStatement statement) throws SQLException {
+        ConnectionProvider provider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        when(provider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        return provider;
+    }
+
+}
@@ -0,0 +1,167 @@
+package net.josephbeard.jdbc.resilience;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+import net.josephbeard.jdbc.RowMapper;
+
+public class SingleFlightReaderTest {
+
+    private static final String SQL = "SELECT name FROM products WHERE id = ?";
+
+    private static final RowMapper<String> NAME = (resultSet, rowNumber) -> resultSet.getString(1);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    private SingleFlightReader subject;
+
+    @Before
+    public void setup() throws SQLException {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return resultSet;
+        });
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn("widget");
+
+        subject = new SingleFlightReader(new JdbcTemplate(connectionProvider, true));
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalReadsShareOneExecution() throws Exception {
+        List<ParameterValue> params = Collections.singletonList(JDBC.longInt(42L));
+
+        List<Future<Optional<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> subject.selectOne(SQL, NAME, params)));
+        }
+        awaitJoined(7);
+        release.countDown();
+
+        for (Future<Optional<String>> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS), equalTo(Optional.of("widget")));
+        }
+        verify(statement, times(1)).executeQuery();
+        assertThat(subject.getStats().get(SQL).getExecutions(), equalTo(1L));
+        assertThat(subject.getStats().get(SQL).getCoalesced(), equalTo(7L));
+        assertThat(subject.getInFlight(), equalTo(0));
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotRemembered() throws Exception {
+        SQLException failure = new SQLException("connection reset");
+        when(connection.prepareStatement(anyString())).thenThrow(failure).thenReturn(statement);
+        release.countDown();
+        List<ParameterValue> params = Collections.singletonList(JDBC.longInt(42L));
+
+        try {
+            subject.selectOne(SQL, NAME, params);
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat(e, sameInstance(failure));
+        }
+
+        assertThat(subject.select(SQL, NAME, params), equalTo(Collections.singletonList("widget")));
+        assertThat(subject.getStats().get(SQL).getExecutions(), equalTo(2L));
+    }
+
+    @Test
+    public void testMappersCapturingStateDoNotShareResults() throws Exception {
+        Queue<ResultSet> resultSets = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 2; i++) {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(true, false);
+            when(resultSet.getString(1)).thenReturn("widget");
+            resultSets.add(resultSet);
+        }
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return resultSets.remove();
+        }).when(statement).executeQuery();
+        List<ParameterValue> params = Collections.singletonList(JDBC.longInt(42L));
+
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (String prefix : new String[] { "a:", "b:" }) {
+            futures.add(executor.submit(
+                    () -> subject.select(SQL, (resultSet, rowNumber) -> prefix + resultSet.getString(1), params)));
+        }
+        awaitExecutions(2);
+        release.countDown();
+
+        assertThat(futures.get(0).get(5, TimeUnit.SECONDS), contains("a:widget"));
+        assertThat(futures.get(1).get(5, TimeUnit.SECONDS), contains("b:widget"));
+        assertThat(subject.getStats().get(SQL).getCoalesced(), equalTo(0L));
+    }
+
+    private void awaitJoined(long joined) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            SingleFlightStats stats = subject.getStats().get(SQL);
+            if (stats != null && stats.getCoalesced() == joined) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitExecutions(long executions) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            SingleFlightStats stats = subject.getStats().get(SQL);
+            if (stats != null && stats.getExecutions() == executions) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package net.josephbeard.jdbc.resilience;
+
+import static net.josephbeard.jdbc.JDBC.string;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+
+public class WriteBehindBufferTest {
+
+    private static final String SQL = "INSERT INTO events (type) VALUES (?)";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    public void testFullBatchIsWrittenWithoutWaitingForInterval() throws SQLException {
+        WriteBehindBuffer subject = new WriteBehindBuffer(jdbcTemplate, SQL).withBatchSize(2)
+                .withFlushInterval(Duration.ofHours(1));
+
+        subject.add(string("login"));
+        subject.add(string("logout"));
+
+        List<List<ParameterValue>> expected = Arrays.asList(Collections.singletonList(string("login")),
+                Collections.singletonList(string("logout")));
+        verify(jdbcTemplate, timeout(5000)).updateBatch(SQL, expected);
+        subject.close();
+        assertThat(subject.getStats().getWritten(), equalTo(2L));
+        assertThat(subject.getStats().getFlushes(), equalTo(1L));
+    }
+
+    @Test
+    public void testFullQueueDropsOrFails() throws Exception {
+        Semaphore writing = new Semaphore(0);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.updateBatch(eq(SQL), Matchers.<List<List<ParameterValue>>> any())).thenAnswer(invocation -> {
+            writing.release();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[] { 1 };
+        });
+        WriteBehindBuffer dropping = new WriteBehindBuffer(jdbcTemplate, SQL).withCapacity(1).withBatchSize(1)
+                .withBackpressure(WriteBehindBuffer.Backpressure.DROP);
+        WriteBehindBuffer failing = dropping.withBackpressure(WriteBehindBuffer.Backpressure.FAIL);
+
+        // The first row is taken by the flusher, which blocks writing it
+        dropping.add(string("first"));
+        assertThat(writing.tryAcquire(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(dropping.add(string("queued")), equalTo(true));
+        assertThat(dropping.add(string("dropped")), equalTo(false));
+
+        failing.add(string("first"));
+        assertThat(writing.tryAcquire(5, TimeUnit.SECONDS), equalTo(true));
+        failing.add(string("queued"));
+        try {
+            failing.add(string("refused"));
+            fail("Expected SQLTransientException");
+        } catch (SQLTransientException e) {
+            assertThat(failing.getStats().getRejected(), equalTo(1L));
+        }
+
+        release.countDown();
+        dropping.close();
+        failing.close();
+        assertThat(dropping.getStats().getWritten(), equalTo(2L));
+        assertThat(dropping.getStats().getRejected(), equalTo(1L));
+        assertThat(dropping.getStats().getQueueDepth(), equalTo(0));
+    }
+
+    @Test
+    public void testBlockedAddGivesUpAtDeadline() throws Exception {
+        Semaphore writing = new Semaphore(0);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.updateBatch(eq(SQL), Matchers.<List<List<ParameterValue>>> any())).thenAnswer(invocation -> {
+            writing.release();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[] { 1 };
+        });
+        WriteBehindBuffer subject = new WriteBehindBuffer(jdbcTemplate, SQL).withCapacity(1).withBatchSize(1)
+                .withBackpressure(WriteBehindBuffer.Backpressure.BLOCK);
+
+        subject.add(string("first"));
+        assertThat(writing.tryAcquire(5, TimeUnit.SECONDS), equalTo(true));
+        subject.add(string("queued"));
+        try {
+            Deadline.after(Duration.ofMillis(20)).run(() -> subject.add(string("blocked")));
+            fail("Expected SQLTimeoutException");
+        } catch (SQLTimeoutException e) {
+            assertThat(subject.getStats().getRejected(), equalTo(1L));
+        }
+
+        release.countDown();
+        subject.close();
+        assertThat(subject.getStats().getWritten(), equalTo(2L));
+    }
+
+    @Test
+    public void testClosingProviderFlushesQueuedRowsFirst() throws Exception {
+        WriteBehindBuffer subject = new WriteBehindBuffer(jdbcTemplate, SQL).withFlushInterval(Duration.ofHours(1));
+        ConnectionProvider delegate = mock(ConnectionProvider.class);
+        ConnectionProvider provider = subject.closingWith(delegate);
+
+        subject.add(string("pending"));
+        provider.close();
+
+        verify(jdbcTemplate).updateBatch(SQL, Collections.singletonList(Collections.singletonList(string("pending"))));
+        verify(delegate).close();
+        try {
+            subject.add(string("late"));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
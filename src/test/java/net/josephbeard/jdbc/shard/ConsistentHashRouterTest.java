@@ -0,0 +1,53 @@
+package net.josephbeard.jdbc.shard;
+
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ConsistentHashRouterTest {
+
+    @Test
+    public void spreads_keys() {
+        ConsistentHashRouter<String> router = new ConsistentHashRouter<>(4, ConsistentHashRouter.DEFAULT_POINTS);
+
+        int[] counts = new int[4];
+        for (int i = 0; i < 40000; i++) {
+            counts[router.shardFor("tenant-" + i)]++;
+        }
+
+        for (int count : counts) {
+            assertThat("count", count, is(both(greaterThan(7000)).and(lessThan(13000))));
+        }
+    }
+
+    @Test
+    public void adding_a_shard_moves_few_keys() {
+        ConsistentHashRouter<String> four = new ConsistentHashRouter<>(4, ConsistentHashRouter.DEFAULT_POINTS);
+        ConsistentHashRouter<String> five = new ConsistentHashRouter<>(5, ConsistentHashRouter.DEFAULT_POINTS);
+
+        int moved = 0;
+        for (int i = 0; i < 10000; i++) {
+            String key = "tenant-" + i;
+            int before = four.shardFor(key);
+            int after = five.shardFor(key);
+            if (before != after) {
+                assertThat("moved to the new shard", after, is(equalTo(4)));
+                moved++;
+            }
+        }
+        assertThat("moved", moved, is(both(greaterThan(1000)).and(lessThan(3000))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lookup_unknown_key() {
+        ShardRouter.lookup(Collections.singletonMap("a", 0)).shardFor("b");
+    }
+
+}
@@ -0,0 +1,150 @@
+package net.josephbeard.jdbc.shard;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+
+public class ScatterGatherTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void merge_sorted_lists() {
+        assertThat("merged", ScatterGather.merge(Arrays.asList(Arrays.asList(1, 4, 9), Collections.emptyList(),
+                Arrays.asList(2, 3, 10), Arrays.asList(5)), Comparator.naturalOrder(), Integer.MAX_VALUE),
+                contains(1, 2, 3, 4, 5, 9, 10));
+    }
+
+    @Test
+    public void merge_applies_global_limit() {
+        assertThat("merged", ScatterGather.merge(Arrays.asList(Arrays.asList(1, 4, 9), Arrays.asList(2, 3, 10)),
+                Comparator.naturalOrder(), 3), contains(1, 2, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void router_shard_count_must_match() {
+        new ShardedConnectionProvider<String>(Arrays.asList(mock(ConnectionProvider.class),
+                mock(ConnectionProvider.class)), ShardRouter.consistentHash(3));
+    }
+
+    @Test
+    public void combine_counts() throws SQLException {
+        ShardedConnectionProvider<String> shards = new ShardedConnectionProvider<>(
+                Arrays.asList(shard(3L), shard(4L)), ShardRouter.consistentHash(2));
+
+        long total = new ScatterGather(shards, executor).selectCombined("SELECT count(*) FROM orders",
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L, Long::sum, Collections.emptyList());
+
+        assertThat("total", total, is(equalTo(7L)));
+    }
+
+    @Test
+    public void ordered_reads_at_most_limit_rows_per_shard() throws SQLException {
+        ResultSet first = mock(ResultSet.class);
+        ResultSet second = mock(ResultSet.class);
+        when(first.next()).thenReturn(true);
+        when(first.getInt(1)).thenReturn(1, 4, 9, 12);
+        when(second.next()).thenReturn(true);
+        when(second.getInt(1)).thenReturn(2, 3, 10, 11);
+        ShardedConnectionProvider<String> shards = new ShardedConnectionProvider<>(
+                Arrays.asList(shard(first), shard(second)), ShardRouter.consistentHash(2));
+
+        List<Integer> merged = new ScatterGather(shards, executor).selectOrdered(
+                "SELECT id FROM orders ORDER BY id LIMIT 3", (resultSet, rowNumber) -> resultSet.getInt(1),
+                Comparator.naturalOrder(), 3, Collections.emptyList());
+
+        assertThat("merged", merged, contains(1, 2, 3));
+        verify(first, times(3)).next();
+        verify(second, times(3)).next();
+    }
+
+    @Test
+    public void failure_cancels_other_shards() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ResultSet stuck = mock(ResultSet.class);
+        when(stuck.next()).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return false;
+        });
+        ConnectionProvider failing = mock(ConnectionProvider.class);
+        when(failing.getConnection()).thenAnswer(invocation -> {
+            started.await(5, TimeUnit.SECONDS);
+            throw new SQLException("shard down");
+        });
+        ShardedConnectionProvider<String> shards = new ShardedConnectionProvider<>(
+                Arrays.asList(shard(stuck), failing), ShardRouter.consistentHash(2));
+
+        long start = System.nanoTime();
+        try {
+            new ScatterGather(shards, executor).selectCombined("SELECT count(*) FROM orders",
+                    resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L, Long::sum, Collections.emptyList());
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat("message", e.getMessage(), is(equalTo("shard down")));
+        }
+        assertThat("prompt", System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), is(true));
+        assertThat("interrupted", interrupted.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    private static ConnectionProvider shard(ResultSet resultSet) throws SQLException {
+        ConnectionProvider provider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        when(provider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        return provider;
+    }
+
+    private static ConnectionProvider shard(long count) throws SQLException {
+        ConnectionProvider provider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(provider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(count);
+        return provider;
+    }
+
+}
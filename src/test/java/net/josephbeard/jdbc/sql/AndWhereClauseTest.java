@@ -116,4 +116,49 @@ public class AndWhereClauseTest {
         assertThat("and.sql", subject.toSql(), is(equalTo(" WHERE (name = ? AND value = ?)")));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void nested_and_is_flattened() {
+        SimpleWhereClause clause1 = new SimpleWhereClause("name = ?", JDBC.string("foo"));
+        SimpleWhereClause clause2 = new SimpleWhereClause("value = ?", JDBC.string("bar"));
+        SimpleWhereClause clause3 = new SimpleWhereClause("qualifier = ?", JDBC.string("baz"));
+
+        AndWhereClause subject = new AndWhereClause(clause1, new AndWhereClause(clause2, new AndWhereClause(clause3)));
+
+        assertThat("condition", subject.getCondition(), is(equalTo("(name = ? AND value = ? AND qualifier = ?)")));
+        assertThat("parameters", subject.getParameters(),
+                contains(JDBC.string("foo"), JDBC.string("bar"), JDBC.string("baz")));
+    }
+
+    @Test
+    public void nested_or_is_parenthesized() {
+        SimpleWhereClause clause1 = new SimpleWhereClause("name = ?", JDBC.string("foo"));
+        SimpleWhereClause clause2 = new SimpleWhereClause("value = ?", JDBC.string("bar"));
+        SimpleWhereClause clause3 = new SimpleWhereClause("qualifier = ?", JDBC.string("baz"));
+
+        AndWhereClause subject = new AndWhereClause(clause1, new OrWhereClause(clause2, clause3));
+
+        assertThat("condition", subject.getCondition(), is(equalTo("(name = ? AND (value = ? OR qualifier = ?))")));
+        assertThat("parameters", subject.getParameters(),
+                contains(JDBC.string("foo"), JDBC.string("bar"), JDBC.string("baz")));
+    }
+
+    @Test
+    public void rendering_is_cached_until_nested_modification() {
+        SimpleWhereClause clause1 = new SimpleWhereClause("name = ?", JDBC.string("foo"));
+        SimpleWhereClause clause2 = new SimpleWhereClause("value = ?", JDBC.string("bar"));
+        OrWhereClause nested = new OrWhereClause(clause2);
+
+        AndWhereClause subject = new AndWhereClause(clause1, nested);
+
+        String condition = subject.getCondition();
+        assertThat("cached", subject.getCondition(), is(sameInstance(condition)));
+        assertThat("condition", condition, is(equalTo("(name = ? AND (value = ?))")));
+
+        nested.or(new SimpleWhereClause("qualifier = ?", JDBC.string("baz")));
+
+        assertThat("modified", subject.getCondition(), is(equalTo("(name = ? AND (value = ? OR qualifier = ?))")));
+        assertThat("parameters", subject.getParameters(),
+                contains(JDBC.string("foo"), JDBC.string("bar"), JDBC.string("baz")));
+    }
+
+}
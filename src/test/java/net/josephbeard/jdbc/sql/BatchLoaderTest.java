@@ -0,0 +1,155 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+
+public class BatchLoaderTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private List<String> fetch(List<Integer> keys) {
+        batches.add(keys);
+        List<String> values = new ArrayList<>();
+        for (Integer key : keys) {
+            if (key > 0) {
+                values.add("value" + key);
+            }
+        }
+        return values;
+    }
+
+    private static Integer keyOf(String value) {
+        return Integer.valueOf(value.substring("value".length()));
+    }
+
+    @Test
+    public void testKeysInWindowAreDeduplicatedIntoOneBatch() throws Exception {
+        BatchLoader<Integer, String> subject = new BatchLoader<Integer, String>(this::fetch, BatchLoaderTest::keyOf,
+                scheduler).withWindow(Duration.ofSeconds(10));
+
+        CompletableFuture<Optional<String>> first = subject.load(1);
+        CompletableFuture<Optional<String>> again = subject.load(1);
+        CompletableFuture<Map<Integer, String>> all = subject.loadAll(Arrays.asList(2, -3));
+        subject.dispatch();
+
+        assertThat(again, sameInstance(first));
+        assertThat(first.get(5, TimeUnit.SECONDS), equalTo(Optional.of("value1")));
+        assertThat(all.get(5, TimeUnit.SECONDS).keySet(), contains(2));
+        assertThat(batches, equalTo(Collections.singletonList(Arrays.asList(1, 2, -3))));
+    }
+
+    @Test
+    public void testByArrayKeepsSelectWhere() throws Exception {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        Array array = mock(Array.class);
+
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT name FROM products WHERE (tenant = ? AND id = ANY(?))"))
+                .thenReturn(statement);
+        when(statement.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf("integer", new Object[] { 1 })).thenReturn(array);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString("name")).thenReturn("value1");
+
+        SelectBuilder select = SelectBuilder.select("name").from("products")
+                .where(new SimpleWhereClause("tenant = ?", JDBC.integer(7)));
+        BatchLoader<Integer, String> subject = BatchLoader.byArray(new JdbcTemplate(connectionProvider, true),
+                select, "id", "integer", (rs, rowNumber) -> rs.getString("name"), BatchLoaderTest::keyOf,
+                scheduler);
+
+        assertThat(subject.get(1), equalTo(Optional.of("value1")));
+        verify(statement).setInt(1, 7);
+        verify(statement).setArray(2, array);
+    }
+
+    @Test
+    public void testFullBatchIsFetchedWithoutWaiting() throws Exception {
+        BatchLoader<Integer, String> subject = new BatchLoader<Integer, String>(this::fetch, BatchLoaderTest::keyOf,
+                scheduler).withWindow(Duration.ofSeconds(10)).withMaxBatchSize(2);
+
+        subject.load(1);
+        assertThat(subject.get(2), equalTo(Optional.of("value2")));
+        assertThat(subject.load(3).isDone(), equalTo(false));
+        assertThat(batches, equalTo(Collections.singletonList(Arrays.asList(1, 2))));
+    }
+
+    @Test
+    public void testWindowElapsesAndFailureReachesEveryCaller() throws Exception {
+        SQLException failure = new SQLException("connection reset");
+        BatchLoader<Integer, String> subject = new BatchLoader<Integer, String>(keys -> {
+            throw failure;
+        }, BatchLoaderTest::keyOf, scheduler).withWindow(Duration.ofMillis(1));
+
+        CompletableFuture<Optional<String>> first = subject.load(1);
+        try {
+            subject.get(2);
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat(e, sameInstance(failure));
+        }
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(SQLException.class));
+        }
+    }
+
+    @Test
+    public void testGetGivesUpAtDeadline() throws Exception {
+        BatchLoader<Integer, String> subject = new BatchLoader<Integer, String>(this::fetch, BatchLoaderTest::keyOf,
+                scheduler).withWindow(Duration.ofHours(1));
+
+        try {
+            Deadline.after(Duration.ofMillis(20)).call(() -> subject.get(1));
+            fail("Expected SQLTimeoutException");
+        } catch (SQLTimeoutException e) {
+            assertThat(batches, equalTo(Collections.<List<Integer>> emptyList()));
+        }
+    }
+}
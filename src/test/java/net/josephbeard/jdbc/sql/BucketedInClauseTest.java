@@ -0,0 +1,105 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+
+public class BucketedInClauseTest {
+
+    private final BucketedInClause subject = new BucketedInClause("id", 8);
+
+    @Test
+    public void bucket_sizes() {
+        assertThat("1", BucketedInClause.bucketSize(1), is(equalTo(1)));
+        assertThat("2", BucketedInClause.bucketSize(2), is(equalTo(2)));
+        assertThat("3", BucketedInClause.bucketSize(3), is(equalTo(4)));
+        assertThat("5", BucketedInClause.bucketSize(5), is(equalTo(8)));
+        assertThat("8", BucketedInClause.bucketSize(8), is(equalTo(8)));
+    }
+
+    @Test
+    public void single_value() {
+        WhereClause where = subject.where(Collections.singletonList(JDBC.integer(1)));
+
+        assertThat("condition", where.getCondition(), is(equalTo("id IN (?)")));
+        assertThat("parameters", where.getParameters(), contains(JDBC.integer(1)));
+    }
+
+    @Test
+    public void padded_with_last_value() {
+        WhereClause where = subject.where(Arrays.asList(JDBC.integer(1), JDBC.integer(2), JDBC.integer(3)));
+
+        assertThat("condition", where.getCondition(), is(equalTo("id IN (?, ?, ?, ?)")));
+        assertThat("parameters", where.getParameters(),
+                contains(JDBC.integer(1), JDBC.integer(2), JDBC.integer(3), JDBC.integer(3)));
+    }
+
+    @Test
+    public void select_spanning_buckets() throws SQLException {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement first = mock(PreparedStatement.class);
+        PreparedStatement second = mock(PreparedStatement.class);
+        ResultSet firstRows = mock(ResultSet.class);
+        ResultSet secondRows = mock(ResultSet.class);
+
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT name FROM people WHERE (tenant = ? AND id IN (?, ?, ?, ?))"))
+                .thenReturn(first);
+        when(connection.prepareStatement("SELECT name FROM people WHERE (tenant = ? AND id IN (?, ?))"))
+                .thenReturn(second);
+        when(first.executeQuery()).thenReturn(firstRows);
+        when(second.executeQuery()).thenReturn(secondRows);
+        when(firstRows.next()).thenReturn(true, true, false);
+        when(firstRows.getString("name")).thenReturn("a", "b");
+        when(secondRows.next()).thenReturn(true, false);
+        when(secondRows.getString("name")).thenReturn("c");
+
+        List<ParameterValue> values = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            values.add(JDBC.integer(i));
+        }
+        SelectBuilder select = SelectBuilder.select("name").from("people")
+                .where(new SimpleWhereClause("tenant = ?", JDBC.integer(7)));
+
+        List<String> names = new BucketedInClause("id", 4).select(new JdbcTemplate(connectionProvider, true), select,
+                null, values, (resultSet, rowNumber) -> resultSet.getString("name"));
+
+        assertThat("names", names, contains("a", "b", "c"));
+        verify(connectionProvider, times(1)).getConnection();
+        verify(first).setInt(1, 7);
+        for (int i = 1; i <= 4; i++) {
+            verify(first).setInt(i + 1, i);
+        }
+        verify(second).setInt(1, 7);
+        verify(second).setInt(2, 5);
+        verify(second).setInt(3, 6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void too_many_values() {
+        subject.where(Collections.nCopies(9, JDBC.integer(1)));
+    }
+
+}
@@ -0,0 +1,114 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.Deadline;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.ParameterValue;
+
+public class MultiRowInsertTest {
+
+    @Test
+    public void sql() {
+        MultiRowInsert subject = new MultiRowInsert("people", "name", "age");
+
+        assertThat("1 row", subject.toSql(1), is(equalTo("INSERT INTO people (name, age) VALUES (?, ?)")));
+        assertThat("4 rows", subject.toSql(4),
+                is(equalTo("INSERT INTO people (name, age) VALUES (?, ?), (?, ?), (?, ?), (?, ?)")));
+        assertThat("memoized", subject.toSql(4), is(sameInstance(subject.toSql(4))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void group_size_must_be_power_of_two() {
+        new MultiRowInsert("people", "name", "age").toSql(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void group_size_must_respect_parameter_limit() {
+        new MultiRowInsert("people", "name", "age").withMaxParameters(7).toSql(4);
+    }
+
+    @Test
+    public void rows_are_grouped_by_powers_of_two() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(4, 2, 1);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(mock(ConnectionProvider.class), true);
+        MultiRowInsert subject = new MultiRowInsert("people", "name", "age").withMaxRows(4);
+
+        List<List<ParameterValue>> rows = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            rows.add(Arrays.asList(JDBC.string("name" + i), JDBC.integer(i)));
+        }
+
+        assertThat("affected", subject.execute(jdbcTemplate, connection, rows), is(equalTo(7)));
+
+        InOrder order = inOrder(connection);
+        order.verify(connection).prepareStatement(subject.toSql(4));
+        order.verify(connection).prepareStatement(subject.toSql(2));
+        order.verify(connection).prepareStatement(subject.toSql(1));
+    }
+
+    @Test
+    public void deadline_cancels_group() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        doAnswer(invocation -> {
+            if (!cancelled.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Statement was not cancelled");
+            }
+            throw new SQLException("canceling statement due to user request", "57014");
+        }).when(statement).executeUpdate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(mock(ConnectionProvider.class), true);
+        MultiRowInsert subject = new MultiRowInsert("people", "name", "age");
+        List<List<ParameterValue>> rows = Collections
+                .singletonList(Arrays.asList(JDBC.string("name"), JDBC.integer(1)));
+
+        try {
+            Deadline.after(Duration.ofMillis(50)).run(() -> subject.execute(jdbcTemplate, connection, rows));
+            fail("Expected SQLTimeoutException");
+        } catch (SQLTimeoutException e) {
+            assertThat(e.getSQLState(), is(equalTo("57014")));
+        }
+        verify(statement).setQueryTimeout(1);
+        verify(statement).close();
+    }
+
+}
@@ -0,0 +1,122 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.ParameterValue;
+
+public class NamedParameterSqlTest {
+
+    @Test
+    public void compiled_once() {
+        String sql = "SELECT * FROM people WHERE id = :id";
+
+        assertThat("cached", NamedParameterSql.compile(sql), is(sameInstance(NamedParameterSql.compile(sql))));
+    }
+
+    @Test
+    public void cache_evicts_least_recently_used() {
+        NamedParameterSql.Cache cache = new NamedParameterSql.Cache(2);
+        NamedParameterSql first = cache.compile("SELECT :a");
+        NamedParameterSql second = cache.compile("SELECT :b");
+        assertThat("hit", cache.compile("SELECT :a"), is(sameInstance(first)));
+        NamedParameterSql third = cache.compile("SELECT :c");
+
+        assertThat("size", cache.size(), is(equalTo(2)));
+        assertThat("recently used", cache.compile("SELECT :a"), is(sameInstance(first)));
+        assertThat("newest", cache.compile("SELECT :c"), is(sameInstance(third)));
+        assertThat("evicted", cache.compile("SELECT :b"), is(not(sameInstance(second))));
+        assertThat("sql", third.getSql(), is(equalTo("SELECT ?")));
+    }
+
+    @Test
+    public void repeated_names() {
+        NamedParameterSql subject = NamedParameterSql.parse("SELECT * FROM people WHERE a = :name OR b = :name AND c = :other");
+
+        assertThat("sql", subject.getSql(), is(equalTo("SELECT * FROM people WHERE a = ? OR b = ? AND c = ?")));
+        assertThat("names", subject.getParameterNames(), contains("name", "other"));
+    }
+
+    @Test
+    public void ignores_quotes_comments_and_casts() {
+        NamedParameterSql subject = NamedParameterSql.parse("SELECT ':a', \"b:c\", E'\\':d', $$ :e $$, $tag$ :f $tag$ -- :g\n"
+                + "/* :h /* :i */ */ FROM t WHERE doc = :doc::jsonb AND x = ANY(:ids)");
+
+        assertThat("sql", subject.getSql(), is(equalTo("SELECT ':a', \"b:c\", E'\\':d', $$ :e $$, $tag$ :f $tag$ -- :g\n"
+                + "/* :h /* :i */ */ FROM t WHERE doc = ?::jsonb AND x = ANY(?)")));
+        assertThat("names", subject.getParameterNames(), contains("doc", "ids"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejects_positional_parameters() {
+        NamedParameterSql.parse("SELECT * FROM t WHERE a = ? AND b = :b");
+    }
+
+    @Test
+    public void bind_map() {
+        Map<String, ParameterValue> values = new HashMap<>();
+        values.put("name", JDBC.string("Smith"));
+        values.put("other", JDBC.integer(3));
+
+        Query query = NamedParameterSql.compile("SELECT * FROM people WHERE a = :name OR b = :name AND c = :other")
+                .bind(values);
+
+        assertThat("parameters", query.getParameters(),
+                contains(JDBC.string("Smith"), JDBC.string("Smith"), JDBC.integer(3)));
+    }
+
+    @Test
+    public void bound_queries_share_sql() {
+        NamedParameterSql subject = NamedParameterSql.compile("SELECT * FROM people WHERE id = :id");
+
+        Query first = subject.bind(Collections.singletonMap("id", JDBC.integer(1)));
+        Query second = subject.bind(Collections.singletonMap("id", JDBC.integer(2)));
+
+        assertThat("sql", first.getSql(), is(sameInstance(second.getSql())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bind_missing() {
+        NamedParameterSql.compile("SELECT * FROM people WHERE id = :id").bind(new HashMap<>());
+    }
+
+    @Test
+    public void bind_bean() {
+        Query query = NamedParameterSql.compile("SELECT * FROM people WHERE id = :id AND name = :name")
+                .bindBean(new Person(7, JDBC.string("Smith")));
+
+        assertThat("parameters", query.getParameters(), contains(JDBC.object(7), JDBC.string("Smith")));
+    }
+
+    public static class Person {
+
+        private final int id;
+
+        private final ParameterValue name;
+
+        Person(int id, ParameterValue name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public ParameterValue getName() {
+            return name;
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.JdbcTemplate;
+import net.josephbeard.jdbc.postgres.PostgreSQL;
+
+public class PagedQueryTest {
+
+    private final PagedQuery<String> subject = new PagedQuery<>(
+            SelectBuilder.select("name").from("people").where(new SimpleWhereClause("age >= ?", JDBC.integer(18)))
+                    .orderBy("name"),
+            (resultSet, rowNumber) -> resultSet.getString("name"));
+
+    @Test
+    public void page_query() {
+        Query query = subject.pageQuery(PostgreSQL.limit(10), PostgreSQL.offset(20));
+
+        assertThat("sql", query.getSql(), is(equalTo("SELECT name, COUNT(*) OVER () AS paged_query_total"
+                + " FROM people WHERE age >= ? ORDER BY name LIMIT ? OFFSET ?")));
+        assertThat("parameters", query.getParameters(),
+                contains(JDBC.integer(18), JDBC.longInt(10), JDBC.longInt(20)));
+    }
+
+    @Test
+    public void page_with_total() throws SQLException {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(PagedQuery.TOTAL_LABEL)).thenReturn(42L);
+        when(resultSet.getString("name")).thenReturn("Alice", "Bob");
+
+        Page<String> page = subject.page(new JdbcTemplate(connectionProvider, true), PostgreSQL.limit(2),
+                SQL.noOffset());
+
+        assertThat("rows", page.getRows(), contains("Alice", "Bob"));
+        assertThat("total", page.getTotal(), is(equalTo(42L)));
+        assertThat("estimated", page.isEstimated(), is(false));
+    }
+
+    @Test
+    public void empty_page_past_end_counts_separately() throws SQLException {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement pageStatement = mock(PreparedStatement.class);
+        PreparedStatement countStatement = mock(PreparedStatement.class);
+        ResultSet pageRows = mock(ResultSet.class);
+        ResultSet countRows = mock(ResultSet.class);
+
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT name, COUNT(*) OVER () AS paged_query_total"
+                + " FROM people WHERE age >= ? ORDER BY name LIMIT ? OFFSET ?")).thenReturn(pageStatement);
+        when(connection.prepareStatement(
+                "SELECT COUNT(*) FROM (SELECT name FROM people WHERE age >= ? ORDER BY name) AS counted"))
+                        .thenReturn(countStatement);
+        when(pageStatement.executeQuery()).thenReturn(pageRows);
+        when(pageRows.next()).thenReturn(false);
+        when(countStatement.executeQuery()).thenReturn(countRows);
+        when(countRows.next()).thenReturn(true, false);
+        when(countRows.getLong(1)).thenReturn(42L);
+
+        Page<String> page = subject.page(new JdbcTemplate(connectionProvider, true), PostgreSQL.limit(10),
+                PostgreSQL.offset(50));
+
+        assertThat("rows", page.getRows().isEmpty(), is(true));
+        assertThat("total", page.getTotal(), is(equalTo(42L)));
+        assertThat("estimated", page.isEstimated(), is(false));
+        verify(countStatement).setInt(1, 18);
+    }
+
+    @Test
+    public void estimated_total() throws SQLException {
+        ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(connectionProvider.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT name FROM people WHERE age >= ? ORDER BY name LIMIT ?"))
+                .thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString("name")).thenReturn("Alice");
+
+        List<Query> estimated = new ArrayList<>();
+        Page<String> page = subject.estimated((jdbcTemplate, query) -> {
+            estimated.add(query);
+            return 1000L;
+        }).page(new JdbcTemplate(connectionProvider, true), PostgreSQL.limit(1), SQL.noOffset());
+
+        assertThat("rows", page.getRows(), contains("Alice"));
+        assertThat("total", page.getTotal(), is(equalTo(1000L)));
+        assertThat("estimated", page.isEstimated(), is(true));
+        assertThat("query", estimated.get(0).getSql(),
+                is(equalTo("SELECT name FROM people WHERE age >= ? ORDER BY name")));
+        verify(resultSet, never()).getLong(PagedQuery.TOTAL_LABEL);
+    }
+
+}
@@ -0,0 +1,102 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.ConnectionProvider;
+import net.josephbeard.jdbc.JDBC;
+
+public class QueryCatalogTest {
+
+    private final QueryCatalog subject = QueryCatalog.load("net/josephbeard/jdbc/sql/catalog.sql");
+
+    @Test
+    public void loads_queries() {
+        assertThat("names", subject.getNames(), contains("find_person", "people_named"));
+        assertThat("sql", subject.get("find_person").getSql(),
+                is(equalTo("SELECT id, name FROM people WHERE id = ?")));
+    }
+
+    @Test
+    public void binds_declared_types() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Ann");
+        values.put("active", null);
+
+        Query query = subject.get("people_named").bind(values);
+
+        assertThat("parameters", query.getParameters(), contains(JDBC.object("Ann", Types.VARCHAR),
+                JDBC.object("Ann", Types.VARCHAR), JDBC.nullValue(Types.BOOLEAN)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void undeclared_parameter() throws IOException {
+        parse("-- name: q\nSELECT * FROM t WHERE a = :a\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknown_type() throws IOException {
+        parse("-- name: q\n-- param: a NUMBERISH\nSELECT * FROM t WHERE a = :a\n");
+    }
+
+    @Test
+    public void type_names_ignore_default_locale() throws IOException {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Map<String, CatalogQuery> queries = new LinkedHashMap<>();
+            QueryCatalog.parse("test.sql",
+                    new BufferedReader(new StringReader("-- name: q\n-- param: id bigint\nSELECT :id\n")), queries);
+
+            assertThat("type", queries.get("q").getParameterTypes().get("id"), is(JDBCType.BIGINT));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicate_name() throws IOException {
+        parse("-- name: q\nSELECT 1\n-- name: q\nSELECT 2\n");
+    }
+
+    @Test
+    public void warms_each_connection_once() throws SQLException {
+        Connection connection = mock(Connection.class);
+        ConnectionProvider delegate = mock(ConnectionProvider.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+
+        ConnectionProvider warming = subject.warming(delegate);
+        warming.getConnection();
+        warming.getConnection();
+
+        verify(connection, times(1)).prepareStatement("SELECT id, name FROM people WHERE id = ?");
+    }
+
+    private static void parse(String text) throws IOException {
+        QueryCatalog.parse("test.sql", new BufferedReader(new StringReader(text)), new LinkedHashMap<>());
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.postgres.PostgreSQL;
+
+public class SelectBuilderTest {
+
+    @Test
+    public void select_from() {
+        Query query = SelectBuilder.select("id", "name").from("people").build();
+
+        assertThat("sql", query.getSql(), is(equalTo("SELECT id, name FROM people")));
+        assertThat("parameters", query.getParameters(), is(empty()));
+    }
+
+    @Test
+    public void all_clauses() {
+        Query query = SelectBuilder.select("id", "name")
+                .from("people")
+                .where(new SimpleWhereClause("age >= ?", JDBC.integer(18)))
+                .orderBy("name", "id DESC")
+                .limit(PostgreSQL.limit(10))
+                .offset(PostgreSQL.offset(20))
+                .build();
+
+        assertThat("sql", query.getSql(),
+                is(equalTo("SELECT id, name FROM people WHERE age >= ? ORDER BY name, id DESC LIMIT ? OFFSET ?")));
+        assertThat("parameters", query.getParameters(),
+                contains(JDBC.integer(18), JDBC.longInt(10), JDBC.longInt(20)));
+    }
+
+    @Test
+    public void same_shape_renders_same_sql() {
+        SelectBuilder builder = SelectBuilder.select("name").from("people");
+
+        Query first = builder.where(new SimpleWhereClause("id = ?", JDBC.integer(1))).build();
+        Query second = builder.where(new SimpleWhereClause("id = ?", JDBC.integer(2))).build();
+
+        assertThat("sql", first.getSql(), is(equalTo(second.getSql())));
+    }
+
+    @Test
+    public void builder_is_immutable() {
+        SelectBuilder builder = SelectBuilder.select("name").from("people");
+        builder.where(new SimpleWhereClause("id = ?", JDBC.integer(1)));
+
+        assertThat("sql", builder.build().getSql(), is(equalTo("SELECT name FROM people")));
+    }
+
+    @Test
+    public void and_where_combines_clauses() {
+        SelectBuilder builder = SelectBuilder.select("name").from("people");
+        SelectBuilder adult = builder.andWhere(new SimpleWhereClause("age >= ?", JDBC.integer(18)));
+        Query query = adult.andWhere(new SimpleWhereClause("id = ?", JDBC.integer(1))).build();
+
+        assertThat("sql", query.getSql(), is(equalTo("SELECT name FROM people WHERE (age >= ? AND id = ?)")));
+        assertThat("parameters", query.getParameters(), contains(JDBC.integer(18), JDBC.integer(1)));
+        assertThat("original", adult.build().getSql(), is(equalTo("SELECT name FROM people WHERE age >= ?")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void from_is_required() {
+        SelectBuilder.select("name").build();
+    }
+
+}
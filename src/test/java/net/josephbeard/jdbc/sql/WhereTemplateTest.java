@@ -0,0 +1,56 @@
+package net.josephbeard.jdbc.sql;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.josephbeard.jdbc.JDBC;
+import net.josephbeard.jdbc.ParameterValue;
+
+public class WhereTemplateTest {
+
+    private final WhereTemplate subject = WhereTemplate.compile(new AndWhereClause(
+            new SimpleWhereClause("name = ?", WhereTemplate.slot("name")),
+            new SimpleWhereClause("deleted = ?", JDBC.bit(false)),
+            new OrWhereClause(new SimpleWhereClause("owner = ?", WhereTemplate.slot("user")),
+                    new SimpleWhereClause("editor = ?", WhereTemplate.slot("user")))));
+
+    @Test
+    public void compile() {
+        assertThat("condition", subject.getCondition(),
+                is(equalTo("(name = ? AND deleted = ? AND (owner = ? OR editor = ?))")));
+        assertThat("slots", subject.getSlotNames(), contains("name", "user"));
+    }
+
+    @Test
+    public void bind_in_slot_order() {
+        WhereClause where = subject.bind(JDBC.string("foo"), JDBC.integer(7));
+
+        assertThat("condition", where.getCondition(), is(sameInstance(subject.getCondition())));
+        assertThat("parameters", where.getParameters(),
+                contains(JDBC.string("foo"), JDBC.bit(false), JDBC.integer(7), JDBC.integer(7)));
+    }
+
+    @Test
+    public void bind_by_name() {
+        Map<String, ParameterValue> values = new HashMap<>();
+        values.put("user", JDBC.integer(7));
+        values.put("name", JDBC.string("foo"));
+
+        assertThat("parameters", subject.bind(values).getParameters(),
+                contains(JDBC.string("foo"), JDBC.bit(false), JDBC.integer(7), JDBC.integer(7)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missing_value() {
+        subject.bind(new HashMap<>());
+    }
+
+}
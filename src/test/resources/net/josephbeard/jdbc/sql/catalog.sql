@@ -0,0 +1,13 @@
+-- Queries used by QueryCatalogTest
+
+-- name: find_person
+-- param: id BIGINT
+SELECT id, name FROM people WHERE id = :id;
+
+-- name: people_named
+-- param: name varchar
+-- param: active BOOLEAN
+SELECT id, name
+  FROM people
+ WHERE (name = :name OR nickname = :name)
+   AND active = :active